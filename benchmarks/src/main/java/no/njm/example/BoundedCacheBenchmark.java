@@ -0,0 +1,151 @@
+package no.njm.example;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Replays a synthetic key trace against {@link BoundedCache} with LRU and Window TinyLFU eviction, and against
+ * the unbounded ConcurrentHashMap.computeIfAbsent memoization from {@link Maps}.
+ * <p>
+ * The zipf trace draws keys with a Zipf distribution. The scan trace interleaves it with sequential runs of keys
+ * never seen again, as a batch job or a crawler would cause. Every miss loads a value costing a few microseconds of
+ * work, so the hit ratio shows in the throughput. Requests and misses are reported as secondary results, the hit
+ * ratio is 1 - misses / requests. The caches are warmed up by the warmup iterations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class BoundedCacheBenchmark {
+
+    private static final int TRACE_LENGTH = 1 << 20;
+    private static final int KEYS = 100_000;
+    private static final long LOAD_TOKENS = 1000;
+
+    @Param({"zipf", "scan"})
+    String trace;
+
+    @Param({"2000"})
+    int maximumSize;
+
+    Integer[] keys;
+    BoundedCache<Integer, String> lru;
+    BoundedCache<Integer, String> windowTinyLfu;
+    ConcurrentHashMap<Integer, String> unbounded;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Replay {
+
+        public long requests;
+        public long misses;
+        int index;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            requests = 0;
+            misses = 0;
+            // Threads replay different parts of the trace
+            index = (int) (Thread.currentThread().getId() * 104729) & (TRACE_LENGTH - 1);
+        }
+
+        Integer next(Integer[] keys) {
+            index = (index + 1) & (TRACE_LENGTH - 1);
+            return keys[index];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        double[] cumulative = new double[KEYS];
+        double sum = 0;
+        for (int rank = 0; rank < KEYS; rank++) {
+            sum += 1 / Math.pow(rank + 1, 0.9);
+            cumulative[rank] = sum;
+        }
+        keys = new Integer[TRACE_LENGTH];
+        int scanned = KEYS;
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            if (trace.equals("scan") && i % (1 << 14) == 0) {
+                // A scan over four times as many one-hit keys as the cache holds
+                int end = Math.min(TRACE_LENGTH, i + maximumSize * 4);
+                while (i < end) {
+                    keys[i++] = scanned++;
+                }
+                if (i == TRACE_LENGTH) {
+                    break;
+                }
+            }
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            keys[i] = Math.min(KEYS - 1, rank < 0 ? -rank - 1 : rank);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createCaches() {
+        lru = BoundedCache.<Integer, String>builder().maximumSize(maximumSize).lru().build();
+        windowTinyLfu = BoundedCache.<Integer, String>builder().maximumSize(maximumSize).windowTinyLfu().build();
+        unbounded = new ConcurrentHashMap<>();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BoundedCacheBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public String lru(Replay replay) {
+        return load(lru, replay);
+    }
+
+    @Benchmark
+    public String windowTinyLfu(Replay replay) {
+        return load(windowTinyLfu, replay);
+    }
+
+    @Benchmark
+    public String unboundedComputeIfAbsent(Replay replay) {
+        replay.requests++;
+        return unbounded.computeIfAbsent(replay.next(keys), key -> value(key, replay));
+    }
+
+    private String load(BoundedCache<Integer, String> cache, Replay replay) {
+        replay.requests++;
+        return cache.get(replay.next(keys), key -> value(key, replay));
+    }
+
+    private static String value(Integer key, Replay replay) {
+        replay.misses++;
+        // Stands in for an expensive computation or a remote call
+        Blackhole.consumeCPU(LOAD_TOKENS);
+        return "val" + key;
+    }
+}
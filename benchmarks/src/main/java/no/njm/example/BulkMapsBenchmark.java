@@ -0,0 +1,119 @@
+package no.njm.example;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Scaling of {@link BulkMaps} with the number of workers, for a HashMap and a ConcurrentHashMap.
+ * <p>
+ * Each operation sums the values or searches for the key of one value, in a pool with the given parallelism.
+ * Compare the scores across parallelism values with the sequential baselines, which are independent of it.
+ * Both maps are split by their spliterators, without copying the entries. For 1e8 entries, run with
+ * -p entries=100000000 and -jvmArgsAppend -Xmx16g, the boxed maps take about 8 GB each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class BulkMapsBenchmark {
+
+    @Param({"1000000", "10000000"})
+    int entries;
+
+    @Param({"1", "2", "4", "8"})
+    int parallelism;
+
+    Map<Integer, Long> hashMap;
+    ConcurrentHashMap<Integer, Long> concurrentHashMap;
+    ForkJoinPool pool;
+    BulkMaps bulk;
+    long target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        hashMap = new HashMap<>(entries * 2);
+        for (int i = 0; i < entries; i++) {
+            hashMap.put(i, random.nextLong() & Long.MAX_VALUE);
+        }
+        concurrentHashMap = new ConcurrentHashMap<>(hashMap);
+        target = hashMap.get(random.nextInt(entries));
+        pool = new ForkJoinPool(parallelism);
+        bulk = BulkMaps.on(pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BulkMapsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public long hashMapSequentialSum() {
+        long sum = 0;
+        for (long value : hashMap.values()) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long hashMapSum() {
+        return bulk.reduceValuesToLong(hashMap, 1, Long::longValue, 0, Long::sum);
+    }
+
+    @Benchmark
+    public long concurrentHashMapSum() {
+        return bulk.reduceValuesToLong(concurrentHashMap, 1, Long::longValue, 0, Long::sum);
+    }
+
+    @Benchmark
+    public Integer hashMapSequentialSearch() {
+        for (Map.Entry<Integer, Long> entry : hashMap.entrySet()) {
+            if (entry.getValue() == target) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Integer hashMapSearch() {
+        return bulk.search(hashMap, 1, (key, value) -> value == target ? key : null);
+    }
+
+    @Benchmark
+    public Integer concurrentHashMapSearch() {
+        return bulk.search(concurrentHashMap, 1, (key, value) -> value == target ? key : null);
+    }
+}
@@ -0,0 +1,140 @@
+package no.njm.example;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link CoarseClock} against Clock.systemUTC() and the system clock, and the skew of the coarse clock.
+ * <p>
+ * The skew benchmark reads the coarse clock and then Clock.systemUTC(), and counts in lagMillis the total number
+ * of milliseconds the coarse clock was behind, in maxLagMillis the largest lag of an iteration and in ahead the
+ * samples where it was ahead, which should be none. The average lag is lagMillis / samples, and should be about
+ * half the resolution.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class CoarseClockBenchmark {
+
+    @Param({"1", "10"})
+    int resolutionMillis;
+
+    Clock systemClock;
+    CoarseClock coarseClock;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Skew {
+
+        public long samples;
+        public long lagMillis;
+        public long maxLagMillis;
+        public long ahead;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            samples = 0;
+            lagMillis = 0;
+            maxLagMillis = 0;
+            ahead = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        systemClock = Clock.systemUTC();
+        coarseClock = CoarseClock.start(Duration.ofMillis(resolutionMillis));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        coarseClock.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CoarseClockBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public long systemClockMillis() {
+        return systemClock.millis();
+    }
+
+    @Benchmark
+    public long coarseClockMillis() {
+        return coarseClock.epochMillis();
+    }
+
+    @Benchmark
+    public Object systemClockInstant() {
+        return systemClock.instant();
+    }
+
+    @Benchmark
+    public Object localDateTimeNow() {
+        return LocalDateTime.now(systemClock);
+    }
+
+    @Benchmark
+    public Object coarseClockLocalDateTime() {
+        return coarseClock.localDateTime();
+    }
+
+    @Benchmark
+    public Object readableFormat() {
+        return FastFormatter.READABLE.format(LocalDateTime.now(systemClock));
+    }
+
+    @Benchmark
+    public Object coarseClockFormatted() {
+        return coarseClock.formatted();
+    }
+
+    @Benchmark
+    public long skew(Skew skew) {
+        long coarse = coarseClock.epochMillis();
+        long lag = systemClock.millis() - coarse;
+        skew.samples++;
+        if (lag < 0) {
+            skew.ahead++;
+        } else {
+            skew.lagMillis += lag;
+            skew.maxLagMillis = Math.max(skew.maxLagMillis, lag);
+        }
+        return lag;
+    }
+}
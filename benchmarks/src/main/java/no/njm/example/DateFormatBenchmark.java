@@ -0,0 +1,181 @@
+package no.njm.example;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link FastFormatter} against DateTimeFormatter.format for the ISO and dd.MM.yyyy HH:mm:ss layouts, and
+ * building a DateTimeFormatter per call against looking it up in {@link Formatters}.
+ * <p>
+ * Scores are per date-time. With the GC profiler, gc.alloc.rate.norm shows the bytes allocated per date-time,
+ * which should be zero for the fast path into a reused StringBuilder or ByteBuffer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class DateFormatBenchmark {
+
+    private static final int DATES = 1024;
+
+    LocalDateTime[] dateTimes;
+    Instant[] instants;
+    StringBuilder builder;
+    ByteBuffer buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        dateTimes = new LocalDateTime[DATES];
+        instants = new Instant[DATES];
+        long from = LocalDateTime.of(1970, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        long to = LocalDateTime.of(2100, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        for (int i = 0; i < DATES; i++) {
+            long second = from + (long) (random.nextDouble() * (to - from));
+            // Whole seconds and millis, as most timestamps have
+            int nano = random.nextBoolean() ? 0 : random.nextInt(1000) * 1_000_000;
+            instants[i] = Instant.ofEpochSecond(second, nano);
+            dateTimes[i] = LocalDateTime.ofEpochSecond(second, nano, ZoneOffset.UTC);
+        }
+        builder = new StringBuilder(64);
+        buffer = ByteBuffer.allocateDirect(64);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DateFormatBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public int isoLocalDateTimeFormat() {
+        int length = 0;
+        for (LocalDateTime dateTime : dateTimes) {
+            length += DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public int isoLocalDateTimeStringBuilder() {
+        int length = 0;
+        for (LocalDateTime dateTime : dateTimes) {
+            builder.setLength(0);
+            length += FastFormatter.formatIso(dateTime, builder).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public int isoInstantFormat() {
+        int length = 0;
+        for (Instant instant : instants) {
+            length += DateTimeFormatter.ISO_INSTANT.format(instant).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public int isoInstantStringBuilder() {
+        int length = 0;
+        for (Instant instant : instants) {
+            builder.setLength(0);
+            length += FastFormatter.formatIso(instant, builder).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public int isoInstantByteBuffer() {
+        int length = 0;
+        for (Instant instant : instants) {
+            buffer.clear();
+            length += FastFormatter.formatIso(instant, buffer).position();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public int readableOfPatternPerCall() {
+        int length = 0;
+        for (LocalDateTime dateTime : dateTimes) {
+            length += DateTimeFormatter.ofPattern(FastFormatter.READABLE_PATTERN).format(dateTime).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public int readableRegistry() {
+        int length = 0;
+        for (LocalDateTime dateTime : dateTimes) {
+            length += Formatters.ofPattern(FastFormatter.READABLE_PATTERN).format(dateTime).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public int readableFormat() {
+        int length = 0;
+        for (LocalDateTime dateTime : dateTimes) {
+            length += FastFormatter.READABLE.format(dateTime).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public int readableStringBuilder() {
+        int length = 0;
+        for (LocalDateTime dateTime : dateTimes) {
+            builder.setLength(0);
+            length += FastFormatter.formatReadable(dateTime, builder).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public int readableByteBuffer() {
+        int length = 0;
+        for (LocalDateTime dateTime : dateTimes) {
+            buffer.clear();
+            length += FastFormatter.formatReadable(dateTime, buffer).position();
+        }
+        return length;
+    }
+}
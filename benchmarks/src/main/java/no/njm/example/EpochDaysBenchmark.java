@@ -0,0 +1,188 @@
+package no.njm.example;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link EpochDays} on an int array against the LocalDate methods on an array of LocalDates.
+ * <p>
+ * Scores are per date. The localDateOfEpochDay benchmark is the baseline for dates held as epoch days. The dates
+ * are spread over 1900 to 2100, with a share of month ends to exercise the clamping of plusMonths. The setup
+ * checks every result of EpochDays against LocalDate, in sequence and in parallel, so a run fails rather than
+ * measuring wrong results.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class EpochDaysBenchmark {
+
+    private static final int DATES = 1 << 20;
+
+    LocalDate[] dates;
+    LocalDate[] ends;
+    LocalDate[] resultDates;
+    int[] epochDays;
+    int[] endEpochDays;
+    int[] results;
+    long[] between;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        dates = new LocalDate[DATES];
+        ends = new LocalDate[DATES];
+        resultDates = new LocalDate[DATES];
+        for (int i = 0; i < DATES; i++) {
+            LocalDate date = LocalDate.of(1900 + random.nextInt(200), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            dates[i] = random.nextInt(4) == 0 ? date.withDayOfMonth(date.lengthOfMonth()) : date;
+            ends[i] = dates[i].plusDays(random.nextInt(3650));
+        }
+        epochDays = EpochDays.of(dates);
+        endEpochDays = EpochDays.of(ends);
+        results = new int[DATES];
+        between = new long[DATES];
+        check(EpochDays.sequential());
+        check(EpochDays.common());
+    }
+
+    private void check(EpochDays operations) {
+        operations.plusMonths(epochDays, 1, results);
+        for (int i = 0; i < DATES; i++) {
+            if (results[i] != dates[i].plusMonths(1).toEpochDay()) {
+                throw new IllegalStateException("plusMonths of " + dates[i] + " was " + results[i]);
+            }
+        }
+        operations.dayOfWeek(epochDays, results);
+        for (int i = 0; i < DATES; i++) {
+            if (results[i] != dates[i].getDayOfWeek().getValue()) {
+                throw new IllegalStateException("dayOfWeek of " + dates[i] + " was " + results[i]);
+            }
+        }
+        operations.between(ChronoUnit.MONTHS, epochDays, endEpochDays, between);
+        for (int i = 0; i < DATES; i++) {
+            if (between[i] != dates[i].until(ends[i], ChronoUnit.MONTHS)) {
+                throw new IllegalStateException("Months from " + dates[i] + " to " + ends[i] + " was " + between[i]);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EpochDaysBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public Object localDatePlusDays() {
+        for (int i = 0; i < DATES; i++) {
+            resultDates[i] = dates[i].plusDays(1);
+        }
+        return resultDates;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public Object epochDaysPlusDays() {
+        EpochDays.sequential().plusDays(epochDays, 1, results);
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public Object localDatePlusMonths() {
+        for (int i = 0; i < DATES; i++) {
+            resultDates[i] = dates[i].plusMonths(1);
+        }
+        return resultDates;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public Object localDateOfEpochDayPlusMonths() {
+        for (int i = 0; i < DATES; i++) {
+            results[i] = (int) LocalDate.ofEpochDay(epochDays[i]).plusMonths(1).toEpochDay();
+        }
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public Object epochDaysPlusMonths() {
+        EpochDays.sequential().plusMonths(epochDays, 1, results);
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public Object epochDaysPlusMonthsParallel() {
+        EpochDays.common().plusMonths(epochDays, 1, results);
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public int localDateDayOfWeek() {
+        int sum = 0;
+        for (LocalDate date : dates) {
+            sum += date.getDayOfWeek().getValue();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public Object epochDaysDayOfWeek() {
+        EpochDays.sequential().dayOfWeek(epochDays, results);
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public long localDateMonthsBetween() {
+        long sum = 0;
+        for (int i = 0; i < DATES; i++) {
+            sum += dates[i].until(ends[i], ChronoUnit.MONTHS);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public Object epochDaysMonthsBetween() {
+        EpochDays.sequential().between(ChronoUnit.MONTHS, epochDays, endEpochDays, between);
+        return between;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public Object epochDaysMonthsBetweenParallel() {
+        EpochDays.common().between(ChronoUnit.MONTHS, epochDays, endEpochDays, between);
+        return between;
+    }
+}
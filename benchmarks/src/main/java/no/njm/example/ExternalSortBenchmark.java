@@ -0,0 +1,92 @@
+package no.njm.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link ExternalSort} at different memory budgets with an in-memory parallel sort of the same list.
+ * Both consume the full sorted output. Run with the GC profiler to compare the allocation as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ExternalSortBenchmark {
+
+    @Param({"1000000"})
+    int size;
+
+    @Param({"16777216", "67108864", "268435456"})
+    long memoryBudget;
+
+    List<String> list;
+    Path tempDirectory;
+    ExternalSort externalSort;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(new UUID(random.nextLong(), random.nextLong()).toString());
+        }
+        tempDirectory = Files.createTempDirectory("external-sort-benchmark");
+        externalSort = new ExternalSort(memoryBudget, tempDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(tempDirectory);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ExternalSortBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public void externalSort(Blackhole blackhole) {
+        try (Stream<String> sorted = externalSort.sort(list)) {
+            sorted.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void parallelStreamSorted(Blackhole blackhole) {
+        list.parallelStream()
+            .sorted()
+            .forEachOrdered(blackhole::consume);
+    }
+}
@@ -0,0 +1,135 @@
+package no.njm.example;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Concurrent per-key counting, merge(key, 1L, Long::sum), with Zipf distributed keys so a few keys are hot.
+ * <p>
+ * Compares ConcurrentHashMap, {@link StripedMap} and {@link CounterMap}. The skew parameter is the Zipf
+ * exponent: at 0 the keys are uniform, at 1.2 the hottest key gets about a fifth of the updates. Run with more
+ * threads than the default four with -t, the contention only shows with as many cores as threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class HotCounterBenchmark {
+
+    private static final int SAMPLES = 1 << 16;
+
+    @Param({"10000"})
+    int keys;
+
+    @Param({"0", "0.8", "1.2"})
+    double skew;
+
+    Integer[] samples;
+    ConcurrentHashMap<Integer, Long> concurrentHashMap;
+    ConcurrentHashMap<Integer, LongAdder> concurrentHashMapAdders;
+    StripedMap<Integer, Long> stripedMap;
+    CounterMap<Integer> counterMap;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int index;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // Threads start at different samples, so they do not hit the same key at the same time by design
+            index = (int) (Thread.currentThread().getId() * 7919) & (SAMPLES - 1);
+        }
+
+        Integer next(Integer[] samples) {
+            index = (index + 1) & (SAMPLES - 1);
+            return samples[index];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int rank = 0; rank < keys; rank++) {
+            sum += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = sum;
+        }
+        // Shuffled so hot keys are not neighbours in the hash tables
+        int[] keyOfRank = new int[keys];
+        for (int i = 0; i < keys; i++) {
+            keyOfRank[i] = i;
+        }
+        for (int i = keys - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = keyOfRank[i];
+            keyOfRank[i] = keyOfRank[j];
+            keyOfRank[j] = swap;
+        }
+        samples = new Integer[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            samples[i] = keyOfRank[Math.min(keys - 1, rank < 0 ? -rank - 1 : rank)];
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        concurrentHashMap = new ConcurrentHashMap<>();
+        concurrentHashMapAdders = new ConcurrentHashMap<>();
+        stripedMap = new StripedMap<>();
+        counterMap = new CounterMap<>();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(HotCounterBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public Long concurrentHashMapMerge(Cursor cursor) {
+        return concurrentHashMap.merge(cursor.next(samples), 1L, Long::sum);
+    }
+
+    @Benchmark
+    public void concurrentHashMapAdder(Cursor cursor) {
+        concurrentHashMapAdders.computeIfAbsent(cursor.next(samples), key -> new LongAdder()).increment();
+    }
+
+    @Benchmark
+    public Long stripedMapMerge(Cursor cursor) {
+        return stripedMap.merge(cursor.next(samples), 1L, Long::sum);
+    }
+
+    @Benchmark
+    public void counterMapIncrement(Cursor cursor) {
+        counterMap.increment(cursor.next(samples));
+    }
+}
@@ -0,0 +1,177 @@
+package no.njm.example;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link IntObjectMap} against HashMap for the operations used in {@link Maps}.
+ * <p>
+ * Every benchmark method performs one operation per key, and the scores are per key. The put benchmarks build
+ * a presized map from scratch, so with the GC profiler gc.alloc.rate.norm is the number of bytes allocated per
+ * entry: the table share plus, for HashMap, the node and the boxed key.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class IntObjectMapBenchmark {
+
+    private static final int KEYS = 1 << 16;
+
+    @Param({"1000", "1000000"})
+    int range;
+
+    int[] keys;
+    String[] values;
+    Map<Integer, String> hashMap;
+    IntObjectMap<String> intObjectMap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        keys = new int[KEYS];
+        values = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = random.nextInt(range);
+            values[i] = "val" + keys[i];
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        hashMap = new HashMap<>();
+        intObjectMap = new IntObjectMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            hashMap.put(keys[i], values[i]);
+            intObjectMap.put(keys[i], values[i]);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(IntObjectMapBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public Object hashMapPut() {
+        Map<Integer, String> map = new HashMap<>(KEYS * 2);
+        for (int i = 0; i < KEYS; i++) {
+            map.put(i, values[i]);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public Object intObjectMapPut() {
+        IntObjectMap<String> map = new IntObjectMap<>(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            map.put(i, values[i]);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int hashMapGet() {
+        int found = 0;
+        for (int key : keys) {
+            found += hashMap.get(key) != null ? 1 : 0;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int intObjectMapGet() {
+        int found = 0;
+        for (int key : keys) {
+            found += intObjectMap.get(key) != null ? 1 : 0;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int hashMapGetOrDefault() {
+        int found = 0;
+        for (int key : keys) {
+            found += hashMap.getOrDefault(key + range, "Void").length();
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int intObjectMapGetOrDefault() {
+        int found = 0;
+        for (int key : keys) {
+            found += intObjectMap.getOrDefault(key + range, "Void").length();
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public Object hashMapComputeIfPresent() {
+        for (int key : keys) {
+            hashMap.computeIfPresent(key, (k, v) -> v);
+        }
+        return hashMap;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public Object intObjectMapComputeIfPresent() {
+        for (int key : keys) {
+            intObjectMap.computeIfPresent(key, (k, v) -> v);
+        }
+        return intObjectMap;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public Object hashMapMergeRemove() {
+        // Alternately removes and re-adds the key, so the map keeps its size across invocations
+        for (int i = 0; i < KEYS; i++) {
+            hashMap.merge(keys[i], values[i], (a, b) -> null);
+        }
+        return hashMap;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public Object intObjectMapMergeRemove() {
+        for (int i = 0; i < KEYS; i++) {
+            intObjectMap.merge(keys[i], values[i], (a, b) -> null);
+        }
+        return intObjectMap;
+    }
+}
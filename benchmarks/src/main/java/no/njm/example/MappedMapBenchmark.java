@@ -0,0 +1,160 @@
+package no.njm.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Startup and lookups of a {@link MappedMap} against a HashMap, with the String entries of the {@link Maps}
+ * example.
+ * <p>
+ * The open benchmarks compare reopening the mapped map with the alternatives after a restart: reloading the
+ * HashMap from a snapshot file, and rebuilding it by deriving every entry again. The get benchmarks look up
+ * random keys in an open map, with the files in the page cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class MappedMapBenchmark {
+
+    private static final int LOOKUPS = 1 << 12;
+
+    @Param({"100000", "1000000"})
+    int entries;
+
+    Path directory;
+    Path mapDirectory;
+    Path snapshot;
+    String[] lookupKeys;
+    MappedMap<String, String> mappedMap;
+    Map<String, String> hashMap;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("mapped-map");
+        mapDirectory = directory.resolve("map");
+        snapshot = directory.resolve("snapshot");
+        try (MappedMap<String, String> map = open(mapDirectory);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(snapshot)))) {
+            out.writeInt(entries);
+            for (int i = 0; i < entries; i++) {
+                map.put("key" + i, "val" + i);
+                out.writeUTF("key" + i);
+                out.writeUTF("val" + i);
+            }
+        }
+        Random random = new Random(42);
+        lookupKeys = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookupKeys[i] = "key" + random.nextInt(entries);
+        }
+        mappedMap = open(mapDirectory);
+        hashMap = deriveEntries();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        mappedMap.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MappedMapBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public String openMappedMap() throws IOException {
+        try (MappedMap<String, String> map = open(mapDirectory)) {
+            return map.get(lookupKeys[0]);
+        }
+    }
+
+    @Benchmark
+    public String reloadHashMap() throws IOException {
+        Map<String, String> map;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            int size = in.readInt();
+            map = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                map.put(in.readUTF(), in.readUTF());
+            }
+        }
+        return map.get(lookupKeys[0]);
+    }
+
+    @Benchmark
+    public String rebuildHashMap() {
+        return deriveEntries().get(lookupKeys[0]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(LOOKUPS)
+    public String mappedMapGet() {
+        String last = null;
+        for (String key : lookupKeys) {
+            last = mappedMap.get(key);
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(LOOKUPS)
+    public String hashMapGet() {
+        String last = null;
+        for (String key : lookupKeys) {
+            last = hashMap.get(key);
+        }
+        return last;
+    }
+
+    private Map<String, String> deriveEntries() {
+        Map<String, String> map = new HashMap<>(entries * 2);
+        for (int i = 0; i < entries; i++) {
+            map.computeIfAbsent("key" + i, key -> "val" + key.substring(3));
+        }
+        return map;
+    }
+
+    private static MappedMap<String, String> open(Path directory) throws IOException {
+        return MappedMap.open(directory, Serializer.strings(), Serializer.strings());
+    }
+}
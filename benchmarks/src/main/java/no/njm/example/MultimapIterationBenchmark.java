@@ -0,0 +1,133 @@
+package no.njm.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The three ways {@link MapIteration} walks a Map&lt;String, List&lt;String&gt;&gt; against {@link CompactMultimap}.
+ * <p>
+ * Every pair is handed to a Blackhole instead of being concatenated and logged, so the scores and, with the GC
+ * profiler, gc.alloc.rate.norm show the cost of the traversal itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class MultimapIterationBenchmark {
+
+    @Param({"1000", "100000"})
+    int keys;
+
+    @Param({"8"})
+    int valuesPerKey;
+
+    Map<String, List<String>> map;
+    CompactMultimap<String, String> multimap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        map = new HashMap<>();
+        for (int i = 0; i < keys; i++) {
+            // Between one and twice the average number of values per key
+            int count = 1 + random.nextInt(valuesPerKey * 2 - 1);
+            List<String> values = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                values.add("value_" + i + "_" + j);
+            }
+            map.put("key_" + i, values);
+        }
+        multimap = CompactMultimap.of(map);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MultimapIterationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public void mapForEach(Blackhole blackhole) {
+        map.forEach((key, list) -> list.forEach(value -> {
+            blackhole.consume(key);
+            blackhole.consume(value);
+        }));
+    }
+
+    @Benchmark
+    public void mapIterator(Blackhole blackhole) {
+        Iterator<Map.Entry<String, List<String>>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, List<String>> entry = iterator.next();
+            String key = entry.getKey();
+            List<String> values = entry.getValue();
+            for (String value : values) {
+                blackhole.consume(key);
+                blackhole.consume(value);
+            }
+        }
+    }
+
+    @Benchmark
+    public void mapEnhancedFor(Blackhole blackhole) {
+        for (Map.Entry<String, List<String>> entry : map.entrySet()) {
+            for (String value : entry.getValue()) {
+                blackhole.consume(entry.getKey());
+                blackhole.consume(value);
+            }
+        }
+    }
+
+    @Benchmark
+    public void compactForEach(Blackhole blackhole) {
+        multimap.forEach((key, value) -> {
+            blackhole.consume(key);
+            blackhole.consume(value);
+        });
+    }
+
+    @Benchmark
+    public long compactParallelForEach() {
+        LongAdder length = new LongAdder();
+        multimap.parallelForEach((key, value) -> length.add(key.length() + value.length()));
+        return length.sum();
+    }
+
+    @Benchmark
+    public long mapParallelStream() {
+        return map.entrySet().parallelStream()
+                  .mapToLong(entry -> entry.getValue().stream()
+                                           .mapToLong(value -> entry.getKey().length() + value.length())
+                                           .sum())
+                  .sum();
+    }
+}
@@ -0,0 +1,137 @@
+package no.njm.example;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the sequential and parallel sort paths of {@link ParallelStreams} with warmup and forks, instead of
+ * timing a single cold run with System.nanoTime().
+ * <p>
+ * Input size, element type and pool parallelism are swept as parameters. The parallel path runs inside a
+ * dedicated ForkJoinPool, since a parallel stream started from a ForkJoinPool worker uses that worker's pool.
+ * Run with the GC profiler, either through {@link #main(String[])} or with {@code java -jar benchmarks.jar -prof gc},
+ * to get the allocation rate next to the throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ParallelStreamsBenchmark {
+
+    public enum ElementType {
+        UUID_STRING,
+        LONG
+    }
+
+    @State(Scope.Benchmark)
+    public static class Input {
+
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        int size;
+
+        @Param({"UUID_STRING", "LONG"})
+        ElementType type;
+
+        List<String> strings;
+        long[] longs;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // Fixed seed, so every fork and every run sorts the same input
+            Random random = new Random(42);
+            if (type == ElementType.UUID_STRING) {
+                String[] array = new String[size];
+                for (int i = 0; i < size; i++) {
+                    array[i] = new UUID(random.nextLong(), random.nextLong()).toString();
+                }
+                strings = Arrays.asList(array);
+            } else {
+                longs = new long[size];
+                for (int i = 0; i < size; i++) {
+                    longs[i] = random.nextLong();
+                }
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Pool {
+
+        @Param({"1", "2", "4", "8"})
+        int parallelism;
+
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            pool = new ForkJoinPool(parallelism);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ParallelStreamsBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    // Sorted streams are SIZED, so count() would skip the sort entirely. toArray() forces it.
+
+    @Benchmark
+    public Object sortSequential(Input input) {
+        if (input.type == ElementType.UUID_STRING) {
+            return input.strings.stream()
+                                .sorted()
+                                .toArray();
+        }
+        return Arrays.stream(input.longs)
+                     .sorted()
+                     .toArray();
+    }
+
+    @Benchmark
+    public Object sortParallel(Input input, Pool pool) throws ExecutionException, InterruptedException {
+        if (input.type == ElementType.UUID_STRING) {
+            return pool.pool.submit(() -> input.strings.parallelStream()
+                                                       .sorted()
+                                                       .toArray())
+                            .get();
+        }
+        return pool.pool.submit(() -> Arrays.stream(input.longs)
+                                            .parallel()
+                                            .sorted()
+                                            .toArray())
+                        .get();
+    }
+}
@@ -0,0 +1,110 @@
+package no.njm.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The average and grouping queries of {@link Collector} over a list of Person objects, against the same queries
+ * on a {@link PersonTable}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class PersonTableBenchmark {
+
+    @Param({"1000", "1000000", "10000000"})
+    int size;
+
+    List<Person> persons;
+    PersonTable table;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        persons = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            persons.add(new Person("Person" + i, 18 + random.nextInt(70)));
+        }
+        table = PersonTable.of(persons);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PersonTableBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public Double streamAverage() {
+        return persons.stream()
+                      .collect(Collectors.averagingInt(p -> p.age));
+    }
+
+    @Benchmark
+    public double tableAverage() {
+        return table.averageAge();
+    }
+
+    @Benchmark
+    public double tableParallelAverage() {
+        return table.parallel().averageAge();
+    }
+
+    @Benchmark
+    public long streamCount() {
+        return persons.stream()
+                      .filter(p -> p.age >= 30 && p.age <= 60)
+                      .count();
+    }
+
+    @Benchmark
+    public long tableCount() {
+        return table.countAgeBetween(30, 60);
+    }
+
+    @Benchmark
+    public long tableParallelCount() {
+        return table.parallel().countAgeBetween(30, 60);
+    }
+
+    @Benchmark
+    public Map<Integer, List<Person>> streamGrouping() {
+        return persons.stream()
+                      .collect(Collectors.groupingBy(p -> p.age));
+    }
+
+    @Benchmark
+    public PersonTable.AgeGroups tableGrouping() {
+        return table.groupByAge();
+    }
+
+    @Benchmark
+    public PersonTable.AgeGroups tableParallelGrouping() {
+        return table.parallel().groupByAge();
+    }
+}
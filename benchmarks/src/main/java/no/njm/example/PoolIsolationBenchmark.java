@@ -0,0 +1,121 @@
+package no.njm.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Tail latency of small parallel sorts while a large parallel sort runs concurrently, either with both
+ * workloads sharing one pool or with each workload on its own pool.
+ * <p>
+ * Compare the p99 and p99.9 of the interactive methods between the shared and isolated groups.
+ * The total parallelism is the same in both groups, the isolated group splits it between the two pools.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Group)
+public class PoolIsolationBenchmark {
+
+    @Param({"4"})
+    int parallelism;
+
+    @Param({"1000000"})
+    int bulkSize;
+
+    @Param({"1000"})
+    int interactiveSize;
+
+    List<String> bulk;
+    List<String> interactive;
+
+    NamedForkJoinPool shared;
+    NamedForkJoinPool bulkPool;
+    NamedForkJoinPool interactivePool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        bulk = uuids(random, bulkSize);
+        interactive = uuids(random, interactiveSize);
+
+        int bulkParallelism = Math.max(1, parallelism / 2);
+        shared = new NamedForkJoinPool("shared", parallelism);
+        bulkPool = new NamedForkJoinPool("bulk", bulkParallelism);
+        interactivePool = new NamedForkJoinPool("interactive", Math.max(1, parallelism - bulkParallelism));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        shared.shutdown();
+        bulkPool.shutdown();
+        interactivePool.shutdown();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PoolIsolationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    @Group("shared")
+    @GroupThreads(1)
+    public List<String> sharedBulk() {
+        return ParallelStreams.on(shared).sorted(bulk);
+    }
+
+    @Benchmark
+    @Group("shared")
+    @GroupThreads(3)
+    public List<String> sharedInteractive() {
+        return ParallelStreams.on(shared).sorted(interactive);
+    }
+
+    @Benchmark
+    @Group("isolated")
+    @GroupThreads(1)
+    public List<String> isolatedBulk() {
+        return ParallelStreams.on(bulkPool).sorted(bulk);
+    }
+
+    @Benchmark
+    @Group("isolated")
+    @GroupThreads(3)
+    public List<String> isolatedInteractive() {
+        return ParallelStreams.on(interactivePool).sorted(interactive);
+    }
+
+    private static List<String> uuids(Random random, int size) {
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(new UUID(random.nextLong(), random.nextLong()).toString());
+        }
+        return list;
+    }
+}
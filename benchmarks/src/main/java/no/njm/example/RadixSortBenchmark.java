@@ -0,0 +1,108 @@
+package no.njm.example;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Sorting UUIDs as strings, like {@link ParallelStreams} does, against radix sorting them as pairs of longs.
+ * The radix benchmarks copy the unsorted input into work arrays first, since the sort is in place.
+ * Run with the GC profiler to see the allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class RadixSortBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int size;
+
+    UuidArray uuids;
+    List<String> strings;
+    long[] msb;
+    long[] lsb;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        uuids = UuidArray.random(size, new Random(42));
+        strings = uuids.strings()
+                       .collect(Collectors.toList());
+        msb = new long[size];
+        lsb = new long[size];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RadixSortBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public Object stringSort() {
+        return strings.stream()
+                      .sorted()
+                      .toArray();
+    }
+
+    @Benchmark
+    public Object stringParallelSort() {
+        return strings.parallelStream()
+                      .sorted()
+                      .toArray();
+    }
+
+    @Benchmark
+    public long[] radixSort() {
+        System.arraycopy(uuids.msb, 0, msb, 0, size);
+        System.arraycopy(uuids.lsb, 0, lsb, 0, size);
+        RadixSort.sort(msb, lsb);
+        return msb;
+    }
+
+    @Benchmark
+    public long[] radixParallelSort() {
+        System.arraycopy(uuids.msb, 0, msb, 0, size);
+        System.arraycopy(uuids.lsb, 0, lsb, 0, size);
+        RadixSort.parallelSort(msb, lsb);
+        return msb;
+    }
+
+    @Benchmark
+    public long[] longArraysSort() {
+        System.arraycopy(uuids.msb, 0, msb, 0, size);
+        Arrays.sort(msb);
+        return msb;
+    }
+
+    @Benchmark
+    public long[] longRadixSort() {
+        System.arraycopy(uuids.msb, 0, msb, 0, size);
+        RadixSort.sort(msb);
+        return msb;
+    }
+}
@@ -0,0 +1,134 @@
+package no.njm.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Parallel grouping, counting and joining with the collectors used in {@link Collector}, with
+ * Collectors.groupingByConcurrent and with {@link ShardedCollectors}. Each pipeline runs in a pool of the
+ * given parallelism, to show how the collectors scale from one core to many. Key cardinality is a parameter,
+ * since the combiner cost of Collectors.groupingBy grows with the number of groups.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ShardedCollectorsBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    int parallelism;
+
+    @Param({"1000000"})
+    int size;
+
+    @Param({"100", "10000", "1000000"})
+    int cardinality;
+
+    List<Person> persons;
+    NamedForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        persons = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            persons.add(new Person("Person" + i, random.nextInt(cardinality)));
+        }
+        pool = new NamedForkJoinPool("benchmark", parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ShardedCollectorsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public Object groupingBy() {
+        return ParallelStreams.on(pool).execute(persons, stream -> stream.collect(
+                Collectors.groupingBy(p -> p.age)));
+    }
+
+    @Benchmark
+    public Object groupingByConcurrent() {
+        return ParallelStreams.on(pool).execute(persons, stream -> stream.collect(
+                Collectors.groupingByConcurrent(p -> p.age)));
+    }
+
+    @Benchmark
+    public Object shardedGroupingBy() {
+        return ParallelStreams.on(pool).execute(persons, stream -> stream.collect(
+                ShardedCollectors.groupingBy(p -> p.age)));
+    }
+
+    @Benchmark
+    public Object groupingByCounting() {
+        return ParallelStreams.on(pool).execute(persons, stream -> stream.collect(
+                Collectors.groupingBy(p -> p.age, Collectors.counting())));
+    }
+
+    @Benchmark
+    public Object groupingByConcurrentCounting() {
+        return ParallelStreams.on(pool).execute(persons, stream -> stream.collect(
+                Collectors.groupingByConcurrent(p -> p.age, Collectors.counting())));
+    }
+
+    @Benchmark
+    public Object shardedGroupingByCounting() {
+        return ParallelStreams.on(pool).execute(persons, stream -> stream.collect(
+                ShardedCollectors.groupingBy(p -> p.age, Collectors.counting())));
+    }
+
+    @Benchmark
+    public Object counting() {
+        return ParallelStreams.on(pool).execute(persons, stream -> stream.filter(p -> p.age % 2 == 0)
+                                                                         .collect(Collectors.counting()));
+    }
+
+    @Benchmark
+    public Object shardedCounting() {
+        return ParallelStreams.on(pool).execute(persons, stream -> stream.filter(p -> p.age % 2 == 0)
+                                                                         .collect(ShardedCollectors.counting()));
+    }
+
+    @Benchmark
+    public Object joining() {
+        return ParallelStreams.on(pool).execute(persons, stream -> stream.map(p -> p.name)
+                                                                         .collect(Collectors.joining(", ")));
+    }
+
+    @Benchmark
+    public Object shardedJoining() {
+        return ParallelStreams.on(pool).execute(persons, stream -> stream.map(p -> p.name)
+                                                                         .collect(ShardedCollectors.joining(", ")));
+    }
+}
@@ -0,0 +1,162 @@
+package no.njm.example;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Setting the date and time of a SimpleTime, and then getting it in a zone, per second. {@link SimpleTimeUtil}
+ * overrides epochMillisIn and formatInto, while the inherited implementation keeps a LocalDateTime, as
+ * SimpleTimeUtil used to, and inherits the default methods.
+ * <p>
+ * Scores are per date and time set. The gc.alloc.rate.norm of the GC profiler is divided by the 1024 dates and
+ * times of an invocation, and is about zero for SimpleTimeUtil except in zonedDateTime.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class SimpleTimeBenchmark {
+
+    private static final int DATES = 1024;
+
+    @Param({"inherited", "simpleTimeUtil"})
+    String implementation;
+
+    @Param({"Asia/Tokyo", "Europe/Berlin"})
+    String zoneId;
+
+    SimpleTime time;
+    ZoneId zone;
+    int[] days;
+    int[] months;
+    int[] years;
+    int[] hours;
+    int[] minutes;
+    int[] seconds;
+    StringBuilder builder;
+
+    /**
+     * SimpleTimeUtil as it was, with only the methods that are not default.
+     */
+    static final class InheritedSimpleTime implements SimpleTime {
+
+        private LocalDateTime localDateTime = LocalDateTime.now();
+
+        @Override
+        public void setTime(int hour, int minute, int second) {
+            LocalDate date = LocalDate.from(localDateTime);
+            LocalTime time = LocalTime.of(hour, minute, second);
+            localDateTime = LocalDateTime.of(date, time);
+        }
+
+        @Override
+        public void setDate(int day, int month, int year) {
+            LocalDate date = LocalDate.of(year, month, day);
+            LocalTime time = LocalTime.from(localDateTime);
+            localDateTime = LocalDateTime.of(date, time);
+        }
+
+        @Override
+        public LocalDateTime currentLocalDateTime() {
+            return localDateTime;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        time = "inherited".equals(implementation) ? new InheritedSimpleTime() : new SimpleTimeUtil();
+        zone = SimpleTime.getZoneId(zoneId);
+        Random random = new Random(42);
+        days = new int[DATES];
+        months = new int[DATES];
+        years = new int[DATES];
+        hours = new int[DATES];
+        minutes = new int[DATES];
+        seconds = new int[DATES];
+        for (int i = 0; i < DATES; i++) {
+            LocalDate date = LocalDate.ofEpochDay(random.nextInt(80 * 365));
+            days[i] = date.getDayOfMonth();
+            months[i] = date.getMonthValue();
+            years[i] = date.getYear();
+            hours[i] = random.nextInt(24);
+            minutes[i] = random.nextInt(60);
+            seconds[i] = random.nextInt(60);
+        }
+        builder = new StringBuilder(64);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SimpleTimeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void set(Blackhole blackhole) {
+        for (int i = 0; i < DATES; i++) {
+            time.setDate(days[i], months[i], years[i]);
+            time.setTime(hours[i], minutes[i], seconds[i]);
+        }
+        blackhole.consume(time);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void zonedDateTime(Blackhole blackhole) {
+        for (int i = 0; i < DATES; i++) {
+            time.setDate(days[i], months[i], years[i]);
+            time.setTime(hours[i], minutes[i], seconds[i]);
+            blackhole.consume(time.zonedDateTime(zoneId));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void epochMillisIn(Blackhole blackhole) {
+        for (int i = 0; i < DATES; i++) {
+            time.setDate(days[i], months[i], years[i]);
+            time.setTime(hours[i], minutes[i], seconds[i]);
+            blackhole.consume(time.epochMillisIn(zone));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void formatInto(Blackhole blackhole) {
+        for (int i = 0; i < DATES; i++) {
+            time.setDate(days[i], months[i], years[i]);
+            time.setTime(hours[i], minutes[i], seconds[i]);
+            builder.setLength(0);
+            blackhole.consume(time.formatInto(builder, zone));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package no.njm.example;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link ConcurrentSimpleTime} against a synchronized wrapper of {@link SimpleTimeUtil}, and the unsynchronized
+ * SimpleTimeUtil, shared by one thread setting the date, one setting the time and two reading.
+ * <p>
+ * The setters also check for lost updates, in the manner of a stress test. Only the date setter changes the date,
+ * so when it reads back the date it must find the one it set last, unless the time setter wrote back a date it
+ * had read before, and likewise for the time. The values cycle through 28 days and 24 hours, so a stale value
+ * written back almost always differs from the current one. The lostUpdates counter should be zero for all but
+ * unsynchronized, where it shows up when the setters run on separate cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Group)
+public class SimpleTimeContentionBenchmark {
+
+    @Param({"concurrent", "synchronized", "unsynchronized"})
+    String implementation;
+
+    SimpleTime time;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Updates {
+
+        public long lostUpdates;
+        int update;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            lostUpdates = 0;
+        }
+    }
+
+    /**
+     * Serializes all calls on the instance, as a shared SimpleTimeUtil would need.
+     */
+    static final class SynchronizedSimpleTime implements SimpleTime {
+
+        private final SimpleTime delegate;
+
+        SynchronizedSimpleTime(SimpleTime delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void setTime(int hour, int minute, int second) {
+            delegate.setTime(hour, minute, second);
+        }
+
+        @Override
+        public synchronized void setDate(int day, int month, int year) {
+            delegate.setDate(day, month, year);
+        }
+
+        @Override
+        public synchronized LocalDateTime currentLocalDateTime() {
+            return delegate.currentLocalDateTime();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        switch (implementation) {
+            case "concurrent":
+                time = new ConcurrentSimpleTime();
+                break;
+            case "synchronized":
+                time = new SynchronizedSimpleTime(new SimpleTimeUtil());
+                break;
+            default:
+                time = new SimpleTimeUtil();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SimpleTimeContentionBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    @Group("shared")
+    @GroupThreads(1)
+    public void setDate(Updates updates) {
+        int day = 1 + Math.floorMod(updates.update++, 28);
+        time.setDate(day, 6, 2014);
+        if (time.currentLocalDateTime().getDayOfMonth() != day) {
+            updates.lostUpdates++;
+        }
+    }
+
+    @Benchmark
+    @Group("shared")
+    @GroupThreads(1)
+    public void setTime(Updates updates) {
+        int hour = Math.floorMod(updates.update++, 24);
+        time.setTime(hour, 30, 0);
+        if (time.currentLocalDateTime().getHour() != hour) {
+            updates.lostUpdates++;
+        }
+    }
+
+    @Benchmark
+    @Group("shared")
+    @GroupThreads(2)
+    public LocalDateTime read() {
+        return time.currentLocalDateTime();
+    }
+}
@@ -0,0 +1,94 @@
+package no.njm.example;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Builds the Foo and Bar graph of {@link FlatMapped}, with the names either as heap Strings built by concatenation
+ * or composed off-heap in a {@link StringArena}.
+ * <p>
+ * The forks run with -verbose:gc, so the GC log of each fork shows the collections and the heap left after them.
+ * Run through {@link #main(String[])} to also get the allocation rate from the GC profiler.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-verbose:gc"})
+@State(Scope.Benchmark)
+public class StringArenaBenchmark {
+
+    @Param({"100000"})
+    int foos;
+
+    @Param({"10"})
+    int barsPerFoo;
+
+    StringArena arena;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        arena = StringArena.direct();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        arena.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(StringArenaBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public List<Foo> heapNames() {
+        List<Foo> fooList = new ArrayList<>(foos);
+        for (int i = 0; i < foos; i++) {
+            Foo foo = new Foo("Foo" + i);
+            for (int j = 0; j < barsPerFoo; j++) {
+                foo.bars.add(new Bar(foo.name + "Bar" + j));
+            }
+            fooList.add(foo);
+        }
+        return fooList;
+    }
+
+    @Benchmark
+    public List<Foo> arenaNames() {
+        arena.reset();
+        List<Foo> fooList = new ArrayList<>(foos);
+        for (int i = 0; i < foos; i++) {
+            Foo foo = new Foo(arena.begin().append("Foo").append(i).end());
+            for (int j = 0; j < barsPerFoo; j++) {
+                foo.bars.add(new Bar(arena.begin().appendHandle(foo.nameHandle).append("Bar").append(j).end()));
+            }
+            fooList.add(foo);
+        }
+        return fooList;
+    }
+}
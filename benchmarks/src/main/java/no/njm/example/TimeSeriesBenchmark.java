@@ -0,0 +1,142 @@
+package no.njm.example;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Range queries on a {@link TimeSeries} against filtering a List of event objects with a stream.
+ * <p>
+ * The events are a year of timestamps about 30 seconds apart. Every query sums the values of a range covering
+ * the given percentage of the year, at a random position, so scores are queries per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class TimeSeriesBenchmark {
+
+    private static final int QUERIES = 256;
+
+    @Param({"1000000"})
+    int events;
+
+    @Param({"1", "10"})
+    int percent;
+
+    List<Event> list;
+    TimeSeries series;
+    LocalDateTime[] froms;
+    LocalDateTime[] tos;
+    int query;
+
+    static final class Event {
+
+        final LocalDateTime time;
+        final double value;
+
+        Event(LocalDateTime time, double value) {
+            this.time = time;
+            this.value = value;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2014, 1, 1, 0, 0);
+        list = new ArrayList<>(events);
+        series = new TimeSeries();
+        long millis = 0;
+        for (int i = 0; i < events; i++) {
+            millis += random.nextInt(60_000);
+            LocalDateTime time = start.plusNanos(millis * 1_000_000);
+            double value = random.nextInt(1000);
+            list.add(new Event(time, value));
+            series.append(time, value);
+        }
+        long span = millis * percent / 100;
+        froms = new LocalDateTime[QUERIES];
+        tos = new LocalDateTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long from = (long) (random.nextDouble() * (millis - span));
+            froms[i] = start.plusNanos(from * 1_000_000);
+            tos[i] = froms[i].plusNanos(span * 1_000_000);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TimeSeriesBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    private int nextQuery() {
+        query = (query + 1) & (QUERIES - 1);
+        return query;
+    }
+
+    @Benchmark
+    public double listStream() {
+        int q = nextQuery();
+        LocalDateTime from = froms[q];
+        LocalDateTime to = tos[q];
+        return list.stream()
+                   .filter(event -> !event.time.isBefore(from) && event.time.isBefore(to))
+                   .mapToDouble(event -> event.value)
+                   .sum();
+    }
+
+    @Benchmark
+    public double listParallelStream() {
+        int q = nextQuery();
+        LocalDateTime from = froms[q];
+        LocalDateTime to = tos[q];
+        return list.parallelStream()
+                   .filter(event -> !event.time.isBefore(from) && event.time.isBefore(to))
+                   .mapToDouble(event -> event.value)
+                   .sum();
+    }
+
+    @Benchmark
+    public double seriesStream() {
+        int q = nextQuery();
+        return series.values(froms[q], tos[q]).sum();
+    }
+
+    @Benchmark
+    public double seriesParallelStream() {
+        int q = nextQuery();
+        return series.values(froms[q], tos[q]).parallel().sum();
+    }
+
+    @Benchmark
+    public double seriesSummary() {
+        int q = nextQuery();
+        return series.summary(froms[q], tos[q]).getSum();
+    }
+}
@@ -0,0 +1,130 @@
+package no.njm.example;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link TimerWheel} against ScheduledThreadPoolExecutor, with a number of timers pending an hour or two ahead.
+ * <p>
+ * scheduleCancel is per timer scheduled and cancelled again, which stays flat for the wheel as the pending timers
+ * grow, and grows with the logarithm of them for the heap of the executor. expire is per timer scheduled a
+ * millisecond ahead and run, and includes waiting for the tick. Both use one thread to run the timers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class TimerWheelBenchmark {
+
+    private static final int DELAYS = 1024;
+    private static final int EXPIRING = 16_384;
+    private static final Runnable NOTHING = () -> {
+    };
+
+    @Param({"timerWheel", "scheduledThreadPool"})
+    String implementation;
+
+    @Param({"1000", "1000000"})
+    int pending;
+
+    TimerWheel wheel;
+    ExecutorService worker;
+    ScheduledThreadPoolExecutor executor;
+    long[] delays;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("timerWheel".equals(implementation)) {
+            worker = Executors.newSingleThreadExecutor();
+            wheel = TimerWheel.of(Clock.systemUTC(), Duration.ofMillis(1), worker).start();
+        } else {
+            executor = new ScheduledThreadPoolExecutor(1);
+            executor.setRemoveOnCancelPolicy(true);
+        }
+        Random random = new Random(42);
+        long hour = TimeUnit.HOURS.toMillis(1);
+        for (int i = 0; i < pending; i++) {
+            schedule(NOTHING, hour + (long) (random.nextDouble() * hour));
+        }
+        delays = new long[DELAYS];
+        for (int i = 0; i < DELAYS; i++) {
+            delays[i] = hour + (long) (random.nextDouble() * hour);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (wheel != null) {
+            wheel.close();
+            worker.shutdownNow();
+        } else {
+            executor.shutdownNow();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TimerWheelBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public boolean scheduleCancel() {
+        long delay = delays[next++ & DELAYS - 1];
+        if (wheel != null) {
+            return wheel.schedule(NOTHING, delay, TimeUnit.MILLISECONDS).cancel();
+        }
+        return executor.schedule(NOTHING, delay, TimeUnit.MILLISECONDS).cancel(false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EXPIRING)
+    public void expire() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(EXPIRING);
+        for (int i = 0; i < EXPIRING; i++) {
+            schedule(latch::countDown, 1);
+        }
+        if (!latch.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException(latch.getCount() + " timers did not expire");
+        }
+    }
+
+    private void schedule(Runnable task, long delayMillis) {
+        if (wheel != null) {
+            wheel.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } else {
+            executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package no.njm.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link TimestampParser} against LocalDateTime.parse with the DateTimeFormatter of the same pattern.
+ * <p>
+ * Scores are per date-time. The lines benchmarks parse the timestamp at the start of each line of a log held in
+ * a direct ByteBuffer, as when parsing a memory-mapped file. The formatter reads each line after decoding it
+ * into a String, the parser reads the bytes in place.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class TimestampParserBenchmark {
+
+    private static final int LINES = 1 << 14;
+
+    @Param({"MMM dd, yyyy - HH:mm", "yyyy-MM-dd HH:mm:ss.SSS"})
+    String pattern;
+
+    DateTimeFormatter formatter;
+    TimestampParser parser;
+    String[] texts;
+    ByteBuffer log;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        formatter = DateTimeFormatter.ofPattern(pattern, Locale.ENGLISH);
+        parser = TimestampParser.ofPattern(pattern, Locale.ENGLISH);
+        Random random = new Random(42);
+        long from = LocalDateTime.of(2000, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        texts = new String[LINES];
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(from + random.nextInt(Integer.MAX_VALUE),
+                                                                 random.nextInt(1000) * 1_000_000, ZoneOffset.UTC);
+            texts[i] = formatter.format(dateTime);
+            lines.append(texts[i]).append(" INFO  [main] no.njm.example.DateApi - request ").append(i).append('\n');
+        }
+        byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+        log = ByteBuffer.allocateDirect(bytes.length);
+        log.put(bytes).flip();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TimestampParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void formatterParse(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(LocalDateTime.parse(text, formatter));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parserParse(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(parser.parse(text));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long formatterEpochMillis() {
+        long sum = 0;
+        for (String text : texts) {
+            sum += LocalDateTime.parse(text, formatter).toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long parserEpochMillis() {
+        long sum = 0;
+        for (String text : texts) {
+            sum += parser.parseEpochMillis(text, ZoneOffset.UTC);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long formatterLines() {
+        long sum = 0;
+        byte[] line = new byte[256];
+        int start = 0;
+        for (int index = 0; index < log.limit(); index++) {
+            if (log.get(index) == '\n') {
+                int length = index - start;
+                for (int i = 0; i < length; i++) {
+                    line[i] = log.get(start + i);
+                }
+                String text = new String(line, 0, length, StandardCharsets.UTF_8);
+                sum += LocalDateTime.from(formatter.parse(text, new ParsePosition(0)))
+                                    .toInstant(ZoneOffset.UTC).toEpochMilli();
+                start = index + 1;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long parserLines() {
+        long[] sum = new long[1];
+        parser.parseLines(log, ZoneOffset.UTC, millis -> sum[0] += millis);
+        return sum[0];
+    }
+}
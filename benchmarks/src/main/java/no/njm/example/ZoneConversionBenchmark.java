@@ -0,0 +1,144 @@
+package no.njm.example;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Instant to local time conversions per second with ZoneRules against {@link OffsetTable}, and zone lookups by id
+ * with ZoneId.of against {@link ZoneCache}.
+ * <p>
+ * Scores are per conversion or lookup. The instants are spread over 1970 to 2050. The invalid id benchmarks
+ * compare catching the DateTimeException of ZoneId.of, as SimpleTime.getZoneId used to, with the cached fallback.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class ZoneConversionBenchmark {
+
+    private static final int INSTANTS = 1024;
+    private static final String INVALID_ID = "Europe/Atlantis";
+
+    @Param({"Europe/Berlin", "Brazil/East"})
+    String zoneId;
+
+    ZoneId zone;
+    OffsetTable table;
+    long[] epochMillis;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        zone = ZoneId.of(zoneId);
+        table = ZoneCache.offsets(zone);
+        Random random = new Random(42);
+        long from = LocalDateTime.of(1970, 1, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+        long to = LocalDateTime.of(2050, 1, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+        epochMillis = new long[INSTANTS];
+        for (int i = 0; i < INSTANTS; i++) {
+            epochMillis[i] = from + (long) (random.nextDouble() * (to - from));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ZoneConversionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTANTS)
+    public void zoneIdOfLocalDateTime(Blackhole blackhole) {
+        for (long millis : epochMillis) {
+            blackhole.consume(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.of(zoneId)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTANTS)
+    public void rulesLocalDateTime(Blackhole blackhole) {
+        for (long millis : epochMillis) {
+            blackhole.consume(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTANTS)
+    public void tableLocalDateTime(Blackhole blackhole) {
+        for (long millis : epochMillis) {
+            blackhole.consume(table.toLocalDateTime(millis));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTANTS)
+    public long rulesLocalEpochMilli() {
+        long sum = 0;
+        for (long millis : epochMillis) {
+            sum += millis + zone.getRules().getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds() * 1000L;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTANTS)
+    public long tableLocalEpochMilli() {
+        long sum = 0;
+        for (long millis : epochMillis) {
+            sum += table.toLocalEpochMilli(millis);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public ZoneId zoneIdOf() {
+        return ZoneId.of(zoneId);
+    }
+
+    @Benchmark
+    public ZoneId zoneCacheOf() {
+        return ZoneCache.of(zoneId);
+    }
+
+    @Benchmark
+    public ZoneId zoneIdOfInvalid() {
+        try {
+            return ZoneId.of(INVALID_ID);
+        } catch (DateTimeException e) {
+            return ZoneOffset.UTC;
+        }
+    }
+
+    @Benchmark
+    public ZoneId zoneCacheOfInvalid() {
+        return ZoneCache.of(INVALID_ID, ZoneOffset.UTC);
+    }
+}
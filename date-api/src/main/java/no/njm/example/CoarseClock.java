@@ -0,0 +1,163 @@
+package no.njm.example;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A clock that reads the system clock once per tick in a background thread, so reading the time is a volatile
+ * read rather than a call into the operating system.
+ * <p>
+ * The time lags the system clock by up to the resolution, plus any delay in scheduling the ticker thread, e.g.
+ * during a GC pause. Unless the system clock is set back, it never runs ahead of it. {@link #millis()} and
+ * {@link #epochMillis()} allocate nothing. {@link #localDateTime()} and {@link #formatted()} are computed once per
+ * second and shared until the next second. Closing the clock stops the ticker, after which it reads the system
+ * clock directly.
+ */
+public final class CoarseClock extends Clock implements Closeable {
+
+    private final Ticker ticker;
+    private final ZoneId zone;
+    private final OffsetTable offsets;
+    private volatile Second second;
+
+    private CoarseClock(Ticker ticker, ZoneId zone) {
+        this.ticker = ticker;
+        this.zone = zone;
+        this.offsets = ZoneCache.offsets(zone);
+        this.second = new Second(Long.MIN_VALUE, null, null);
+    }
+
+    /**
+     * Starts a clock in the default zone, which the system clock updates every resolution.
+     */
+    public static CoarseClock start(Duration resolution) {
+        return start(resolution, ZoneId.systemDefault());
+    }
+
+    public static CoarseClock start(Duration resolution, ZoneId zone) {
+        if (resolution.isNegative() || resolution.isZero()) {
+            throw new IllegalArgumentException("Resolution must be positive, was " + resolution);
+        }
+        Ticker ticker = new Ticker(resolution.toNanos());
+        ticker.start();
+        return new CoarseClock(ticker, Objects.requireNonNull(zone));
+    }
+
+    public Duration getResolution() {
+        return Duration.ofNanos(ticker.resolutionNanos);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * A clock in another zone, sharing the ticker of this clock. Closing either stops the ticker of both.
+     */
+    @Override
+    public CoarseClock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new CoarseClock(ticker, zone);
+    }
+
+    @Override
+    public long millis() {
+        return ticker.millis();
+    }
+
+    public long epochMillis() {
+        return ticker.millis();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(ticker.millis());
+    }
+
+    /**
+     * The local date-time of the clock, truncated to whole seconds.
+     */
+    public LocalDateTime localDateTime() {
+        return currentSecond().localDateTime;
+    }
+
+    /**
+     * The local date-time of the clock, formatted as dd.MM.yyyy HH:mm:ss.
+     */
+    public String formatted() {
+        return currentSecond().formatted;
+    }
+
+    /**
+     * Stops the ticker.
+     */
+    @Override
+    public void close() {
+        ticker.running = false;
+        LockSupport.unpark(ticker);
+    }
+
+    @Override
+    public String toString() {
+        return "CoarseClock[" + zone + ", " + getResolution() + "]";
+    }
+
+    private Second currentSecond() {
+        long epochSecond = Math.floorDiv(ticker.millis(), 1000);
+        Second current = second;
+        if (current.epochSecond != epochSecond) {
+            // Readers racing at the turn of a second may each build it, which is harmless
+            LocalDateTime localDateTime = LocalDateTime.ofEpochSecond(offsets.toLocalEpochSecond(epochSecond), 0,
+                                                                      ZoneOffset.UTC);
+            String formatted = FastFormatter.formatReadable(localDateTime, new StringBuilder(19)).toString();
+            current = new Second(epochSecond, localDateTime, formatted);
+            second = current;
+        }
+        return current;
+    }
+
+    private static final class Second {
+
+        final long epochSecond;
+        final LocalDateTime localDateTime;
+        final String formatted;
+
+        Second(long epochSecond, LocalDateTime localDateTime, String formatted) {
+            this.epochSecond = epochSecond;
+            this.localDateTime = localDateTime;
+            this.formatted = formatted;
+        }
+    }
+
+    private static final class Ticker extends Thread {
+
+        final long resolutionNanos;
+        volatile boolean running = true;
+        volatile long millis = System.currentTimeMillis();
+
+        Ticker(long resolutionNanos) {
+            super("coarse-clock");
+            this.resolutionNanos = resolutionNanos;
+            setDaemon(true);
+        }
+
+        long millis() {
+            return running ? millis : System.currentTimeMillis();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                LockSupport.parkNanos(this, resolutionNanos);
+                millis = System.currentTimeMillis();
+            }
+        }
+    }
+}
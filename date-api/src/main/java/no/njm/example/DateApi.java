@@ -2,6 +2,7 @@ package no.njm.example;
 
 import java.time.Clock;
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -46,26 +47,35 @@ public class DateApi {
         Instant instant = clock.instant();
         Date legacyDate = Date.from(instant);   // Legacy java.util.Date
         log.debug("Old-style date is {}", legacyDate);
+
+        // A coarse clock reads the system clock in the background, e.g. every millisecond, for cheap timestamps
+        try (CoarseClock coarse = CoarseClock.start(Duration.ofMillis(1))) {
+            log.debug("Coarse epoch is {}, local time is {}", coarse.epochMillis(), coarse.formatted());
+        }
     }
 
     /**
      * Timezones are represented by a ZoneId.
      * Timezones define the offsets which are important to convert between
-     * instants and local dates and times.
+     * instants and local dates and times. ZoneCache looks up each ZoneId once.
      */
     private static void timeZone() {
-        ZoneId europe = ZoneId.of("Europe/Berlin");
-        ZoneId brazil = ZoneId.of("Brazil/East");
+        ZoneId europe = ZoneCache.of("Europe/Berlin");
+        ZoneId brazil = ZoneCache.of("Brazil/East");
         log.debug(europe.getRules().toString());
         log.debug(brazil.getRules().toString());
+
+        // Converting many instants to local time, by a binary search in the offset transitions of the zone
+        OffsetTable berlin = ZoneCache.offsets(europe);
+        log.debug("Local time in {} is {}", europe.getId(), berlin.toLocalDateTime(System.currentTimeMillis()));
     }
 
     /**
      * LocalTime represents a time without a timezone, e.g. 10pm or 17:30:15.
      */
     private static void localTime() {
-        ZoneId europe = ZoneId.of("Europe/Berlin");
-        ZoneId brazil = ZoneId.of("Brazil/East");
+        ZoneId europe = ZoneCache.of("Europe/Berlin");
+        ZoneId brazil = ZoneCache.of("Brazil/East");
 
         long hours = ChronoUnit.HOURS.between(LocalTime.now(europe), LocalTime.now(brazil));
         long minutes = ChronoUnit.MINUTES.between(LocalTime.now(europe), LocalTime.now(brazil));
@@ -78,9 +88,8 @@ public class DateApi {
         LocalTime late = LocalTime.of(23, 59, 59);
         log.debug("Default formatted LocalTime {}", late);
 
-        // Formatting. DateTimeFormatter is immutable and thread-safe.
-        DateTimeFormatter shortGerman = DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT)
-                                                         .withLocale(Locale.GERMAN);
+        // Formatting. DateTimeFormatter is immutable and thread-safe, so Formatters builds each one once.
+        DateTimeFormatter shortGerman = Formatters.ofLocalizedTime(FormatStyle.SHORT, Locale.GERMAN);
         LocalTime early = LocalTime.parse("07:30", shortGerman);
         log.debug("German formatted LocalTime {}", early);
     }
@@ -99,11 +108,15 @@ public class DateApi {
                                                    .getDisplayName(TextStyle.FULL, Locale.ENGLISH));
 
         // Formatting
-        DateTimeFormatter mediumGerman = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)
-                                                          .withLocale(Locale.GERMAN);
-
+        DateTimeFormatter mediumGerman = Formatters.ofLocalizedDate(FormatStyle.MEDIUM, Locale.GERMAN);
         LocalDate christmas = LocalDate.parse("24.12.2014", mediumGerman);
         log.debug("German formatted christmas {}", christmas);
+
+        // Many dates at once, as epoch days in an int array
+        int[] dates = EpochDays.of(yesterday, today, tomorrow, christmas, nationalDay);
+        int[] nextMonth = new int[dates.length];
+        EpochDays.sequential().plusMonths(dates, 1, nextMonth);
+        log.debug("A month after christmas is {}", LocalDate.ofEpochDay(nextMonth[3]));
     }
 
     /**
@@ -127,9 +140,27 @@ public class DateApi {
                                 .toInstant();
         log.debug("Epoch now is {}", now.toEpochMilli());
 
+        // Events by time are kept in columns, and a range is found by binary search
+        TimeSeries perMinute = new TimeSeries();
+        for (int minute = 0; minute < 24 * 60; minute++) {
+            perMinute.append(lastMinute.minusMinutes(24 * 60 - 1 - minute), minute);
+        }
+        log.debug("Last hour is {}", perMinute.summary(lastMinute.minusHours(1), lastMinute.plusMinutes(1)));
+
         // Formatting
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy - HH:mm");
+        DateTimeFormatter formatter = Formatters.ofPattern("MMM dd, yyyy - HH:mm");
         LocalDateTime parsed = LocalDateTime.parse("Nov 03, 2014 - 07:13", formatter);
         log.debug("parsed dateTime is {}", formatter.format(parsed));
+
+        // Parsing many date-times of a fixed layout, e.g. from log files, reading the digits by position
+        TimestampParser parser = TimestampParser.ofPattern("MMM dd, yyyy - HH:mm");
+        log.debug("parsed dateTime is {}", parser.parse("Nov 03, 2014 - 07:13"));
+
+        // Fixed layouts can be written into a reused buffer, without creating a String per date-time
+        StringBuilder buffer = new StringBuilder();
+        FastFormatter.formatIso(lastMinute, buffer);
+        buffer.append(" is ");
+        FastFormatter.formatReadable(lastMinute, buffer);
+        log.debug("{}", buffer);
     }
 }
@@ -0,0 +1,419 @@
+package no.njm.example;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.UnsupportedTemporalTypeException;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calendar arithmetic on arrays of dates given as epoch days, the days since 1970-01-01 as by
+ * LocalDate.toEpochDay, without creating a LocalDate per element.
+ * <p>
+ * The results are the same as of the LocalDate methods named in each method, including the clamping of the day
+ * of month when adding months or years. Results are written to an array of the same length, which may be the
+ * input array. Dates outside the int range of epoch days, about five million years, fail with a
+ * DateTimeException, and the result array may then be partly written.
+ * <p>
+ * Arrays of at least {@link #PARALLEL_THRESHOLD} dates are split into up to four parts per worker of the pool,
+ * unless the operations are {@link #sequential()}.
+ */
+public final class EpochDays {
+
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private static final EpochDays SEQUENTIAL = new EpochDays(null);
+    private static final EpochDays COMMON = new EpochDays(ForkJoinPool.commonPool());
+
+    // Days from 0000-03-01 to 1970-01-01, and days in 400 years
+    private static final int DAYS_0000_TO_1970 = 719_468;
+    private static final int DAYS_PER_ERA = 146_097;
+    // Whole 400 year cycles added to make dates positive for the calendar algorithms
+    private static final long SHIFT_YEARS = 400L * 14_800;
+    private static final long SHIFT_DAYS = (long) DAYS_PER_ERA * 14_800;
+
+    @FunctionalInterface
+    private interface RangeAction {
+
+        void apply(int from, int to);
+    }
+
+    private final ForkJoinPool pool;
+
+    private EpochDays(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Operations running in the calling thread.
+     */
+    public static EpochDays sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * Operations running large arrays in the common pool.
+     */
+    public static EpochDays common() {
+        return COMMON;
+    }
+
+    /**
+     * Operations running large arrays in the pool, to keep them apart from other parallel work.
+     */
+    public static EpochDays on(ForkJoinPool pool) {
+        return new EpochDays(Objects.requireNonNull(pool));
+    }
+
+    public static int[] of(LocalDate... dates) {
+        int[] epochDays = new int[dates.length];
+        for (int i = 0; i < dates.length; i++) {
+            epochDays[i] = Math.toIntExact(dates[i].toEpochDay());
+        }
+        return epochDays;
+    }
+
+    /**
+     * As LocalDate.of(year, month, day).toEpochDay(), without creating the LocalDate.
+     *
+     * @throws DateTimeException if the date is invalid, as from LocalDate.of
+     */
+    public static long toEpochDay(int year, int month, int day) {
+        ChronoField.YEAR.checkValidValue(year);
+        ChronoField.MONTH_OF_YEAR.checkValidValue(month);
+        ChronoField.DAY_OF_MONTH.checkValidValue(day);
+        if (day > 28 && day > monthLength(year, month)) {
+            if (day == 29) {
+                throw new DateTimeException("Invalid date 'February 29' as '" + year + "' is not a leap year");
+            }
+            throw new DateTimeException("Invalid date '" + Month.of(month).name() + " " + day + "'");
+        }
+        if (year <= -SHIFT_YEARS) {
+            // The shift only makes the years of int epoch days positive
+            return LocalDate.of(year, month, day).toEpochDay();
+        }
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * As LocalDate.plusDays.
+     */
+    public void plusDays(int[] epochDays, long days, int[] result) {
+        checkLength(epochDays, result);
+        run(epochDays.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                result[i] = checkRange(epochDays[i] + days);
+            }
+        });
+    }
+
+    /**
+     * As LocalDate.plusMonths, a day of month that does not exist in the resulting month becomes its last day.
+     */
+    public void plusMonths(int[] epochDays, long months, int[] result) {
+        checkLength(epochDays, result);
+        run(epochDays.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                result[i] = plusMonths(epochDays[i], months);
+            }
+        });
+    }
+
+    /**
+     * As LocalDate.plusYears, February 29 becomes February 28 in a year that is not a leap year.
+     */
+    public void plusYears(int[] epochDays, long years, int[] result) {
+        if (years > Long.MAX_VALUE / 12 || years < Long.MIN_VALUE / 12) {
+            throw new DateTimeException("Years out of range: " + years);
+        }
+        plusMonths(epochDays, years * 12, result);
+    }
+
+    /**
+     * As LocalDate.getDayOfWeek().getValue(), 1 for Monday to 7 for Sunday.
+     */
+    public void dayOfWeek(int[] epochDays, int[] result) {
+        checkLength(epochDays, result);
+        run(epochDays.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                // 1970-01-01 was a Thursday
+                result[i] = (int) Math.floorMod(epochDays[i] + 3L, 7) + 1;
+            }
+        });
+    }
+
+    /**
+     * As LocalDate.getYear.
+     */
+    public void year(int[] epochDays, int[] result) {
+        checkLength(epochDays, result);
+        run(epochDays.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                result[i] = year(civil(epochDays[i]));
+            }
+        });
+    }
+
+    /**
+     * The month of each date as months since January 1970, as YearMonth.from(date) would be ordered, so that
+     * dates can be bucketed by month. The year is 1970 + floorDiv(month, 12) and the month of the year
+     * floorMod(month, 12) + 1.
+     */
+    public void epochMonth(int[] epochDays, int[] result) {
+        checkLength(epochDays, result);
+        run(epochDays.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                result[i] = (int) epochMonth(epochDays[i]);
+            }
+        });
+    }
+
+    /**
+     * Counts the dates per month, starting with the month of the first date in counts. Dates in other months
+     * are not counted.
+     *
+     * @return the number of dates counted
+     */
+    public long countByMonth(int[] epochDays, int firstEpochMonth, long[] counts) {
+        int length = epochDays.length;
+        if (pool == null || length < PARALLEL_THRESHOLD) {
+            return countByMonth(epochDays, 0, length, firstEpochMonth, counts);
+        }
+        // Each part counts into its own array and adds it up once, instead of contended updates of one array
+        long[] counted = new long[1];
+        run(length, (from, to) -> {
+            long[] partCounts = new long[counts.length];
+            long partCounted = countByMonth(epochDays, from, to, firstEpochMonth, partCounts);
+            synchronized (counted) {
+                for (int month = 0; month < counts.length; month++) {
+                    counts[month] += partCounts[month];
+                }
+                counted[0] += partCounted;
+            }
+        });
+        return counted[0];
+    }
+
+    /**
+     * As start.until(end, unit), for the date-based units DAYS to ERAS.
+     *
+     * @throws UnsupportedTemporalTypeException for time-based units and FOREVER
+     */
+    public void between(ChronoUnit unit, int[] startEpochDays, int[] endEpochDays, long[] result) {
+        checkLength(startEpochDays, endEpochDays);
+        checkLength(startEpochDays, result);
+        int divisor;
+        switch (unit) {
+            case DAYS:
+                run(result.length, (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        result[i] = (long) endEpochDays[i] - startEpochDays[i];
+                    }
+                });
+                return;
+            case WEEKS:
+                run(result.length, (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        result[i] = ((long) endEpochDays[i] - startEpochDays[i]) / 7;
+                    }
+                });
+                return;
+            case ERAS:
+                run(result.length, (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        result[i] = era(endEpochDays[i]) - era(startEpochDays[i]);
+                    }
+                });
+                return;
+            case MONTHS:
+                divisor = 1;
+                break;
+            case YEARS:
+                divisor = 12;
+                break;
+            case DECADES:
+                divisor = 120;
+                break;
+            case CENTURIES:
+                divisor = 1200;
+                break;
+            case MILLENNIA:
+                divisor = 12_000;
+                break;
+            default:
+                throw new UnsupportedTemporalTypeException("Unsupported unit: " + unit);
+        }
+        run(result.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                result[i] = monthsBetween(startEpochDays[i], endEpochDays[i]) / divisor;
+            }
+        });
+    }
+
+    /**
+     * Whole months between the dates, as LocalDate.until: the day of month counts, so January 31 to
+     * February 28 is no whole month.
+     */
+    private static long monthsBetween(int start, int end) {
+        long startCivil = civil(start);
+        long endCivil = civil(end);
+        // Month and day packed as month * 32 + day, as LocalDate.monthsUntil does
+        long startPacked = prolepticMonth(startCivil) * 32 + day(startCivil);
+        long endPacked = prolepticMonth(endCivil) * 32 + day(endCivil);
+        return (endPacked - startPacked) / 32;
+    }
+
+    private static int era(int epochDay) {
+        return year(civil(epochDay)) >= 1 ? 1 : 0;
+    }
+
+    private static int plusMonths(int epochDay, long months) {
+        if (months == 0) {
+            return epochDay;
+        }
+        long civil = civil(epochDay);
+        // May overflow for huge amounts, which then fail the year check as in LocalDate
+        long month = prolepticMonth(civil) + months;
+        long year = Math.floorDiv(month, 12);
+        int monthOfYear = (int) Math.floorMod(month, 12) + 1;
+        if (year > Integer.MAX_VALUE || year < Integer.MIN_VALUE) {
+            throw new DateTimeException("Year out of range: " + year);
+        }
+        int day = Math.min(day(civil), monthLength((int) year, monthOfYear));
+        return checkRange(epochDay((int) year, monthOfYear, day));
+    }
+
+    private static long epochMonth(int epochDay) {
+        return prolepticMonth(civil(epochDay)) - 1970 * 12L;
+    }
+
+    private static long prolepticMonth(long civil) {
+        return year(civil) * 12L + month(civil) - 1;
+    }
+
+    /**
+     * The date of the epoch day, as year << 9 | month << 5 | day, by the algorithm of Neri and Schneider, which
+     * replaces most divisions of the usual algorithm with multiplications and shifts.
+     */
+    private static long civil(int epochDay) {
+        // Days from 0000-03-01, shifted by whole 400 year cycles so every int epoch day is positive
+        long days = (long) epochDay + DAYS_0000_TO_1970 + SHIFT_DAYS;
+        long centuryDays = 4 * days + 3;
+        long century = centuryDays / DAYS_PER_ERA;
+        long dayOfCentury = centuryDays % DAYS_PER_ERA >>> 2;
+        long yearProduct = 2_939_745L * (4 * dayOfCentury + 3);
+        long yearOfCentury = yearProduct >>> 32;
+        long dayOfYear = (yearProduct & 0xFFFF_FFFFL) / 2_939_745 >>> 2;
+        // Years shifted to start in March, so the leap day is the last day of the year
+        long monthDay = 2141 * dayOfYear + 197_913;
+        long month = monthDay >>> 16;
+        long day = (monthDay & 0xFFFF) / 2141 + 1;
+        boolean january = dayOfYear >= 306;
+        long year = 100 * century + yearOfCentury - SHIFT_YEARS + (january ? 1 : 0);
+        return year << 9 | (january ? month - 12 : month) << 5 | day;
+    }
+
+    private static int year(long civil) {
+        return (int) (civil >> 9);
+    }
+
+    private static int month(long civil) {
+        return (int) (civil >>> 5) & 0xF;
+    }
+
+    private static int day(long civil) {
+        return (int) civil & 0x1F;
+    }
+
+    /**
+     * Days from 1970-01-01 to the date, by the algorithm of Neri and Schneider.
+     */
+    private static long epochDay(int year, int month, int day) {
+        boolean january = month <= 2;
+        long shiftedYear = year + SHIFT_YEARS - (january ? 1 : 0);
+        long shiftedMonth = january ? month + 12 : month;
+        long century = shiftedYear / 100;
+        long yearDays = 1461 * shiftedYear / 4 - century + century / 4;
+        long monthDays = (979 * shiftedMonth - 2919) / 32;
+        return yearDays + monthDays + day - 1 - DAYS_0000_TO_1970 - SHIFT_DAYS;
+    }
+
+    private static int monthLength(int year, int month) {
+        if (month == 2) {
+            return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private static int checkRange(long epochDay) {
+        if (epochDay != (int) epochDay) {
+            throw new DateTimeException("Epoch day out of int range: " + epochDay);
+        }
+        return (int) epochDay;
+    }
+
+    private static long countByMonth(int[] epochDays, int from, int to, int firstEpochMonth, long[] counts) {
+        long counted = 0;
+        for (int i = from; i < to; i++) {
+            long month = epochMonth(epochDays[i]) - firstEpochMonth;
+            if (month >= 0 && month < counts.length) {
+                counts[(int) month]++;
+                counted++;
+            }
+        }
+        return counted;
+    }
+
+    private static void checkLength(int[] epochDays, int[] other) {
+        if (epochDays.length != other.length) {
+            throw new IllegalArgumentException("Arrays of different lengths " + epochDays.length + " and "
+                                               + other.length);
+        }
+    }
+
+    private static void checkLength(int[] epochDays, long[] result) {
+        if (epochDays.length != result.length) {
+            throw new IllegalArgumentException("Arrays of different lengths " + epochDays.length + " and "
+                                               + result.length);
+        }
+    }
+
+    private void run(int length, RangeAction action) {
+        if (pool == null || length < PARALLEL_THRESHOLD) {
+            action.apply(0, length);
+        } else {
+            int leafSize = Math.max(PARALLEL_THRESHOLD, length / (pool.getParallelism() * 4));
+            pool.invoke(new RangeTask(action, 0, length, leafSize));
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class RangeTask extends RecursiveAction {
+
+        private final RangeAction action;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        RangeTask(RangeAction action, int from, int to, int leafSize) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                action.apply(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(action, from, middle, leafSize), new RangeTask(action, middle, to, leafSize));
+        }
+    }
+}
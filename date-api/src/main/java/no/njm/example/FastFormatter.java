@@ -0,0 +1,288 @@
+package no.njm.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formats date-times with fixed layouts straight into a StringBuilder or ByteBuffer, digit by digit, without
+ * creating a String or any other object.
+ * <p>
+ * The output is the same as of the DateTimeFormatter named by each method. ByteBuffers get ASCII bytes, at their
+ * position. Years outside 1 to 9999 need a sign or more digits and are handed to the DateTimeFormatter instead.
+ */
+public final class FastFormatter {
+
+    public static final String READABLE_PATTERN = "dd.MM.yyyy HH:mm:ss";
+    public static final DateTimeFormatter READABLE = Formatters.ofPattern(READABLE_PATTERN);
+
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int NANOS_PER_MILLI = 1_000_000;
+    private static final int NANOS_PER_MICRO = 1_000;
+
+    private FastFormatter() {
+    }
+
+    /**
+     * As DateTimeFormatter.ISO_LOCAL_DATE_TIME, e.g. 2014-12-31T23:59:59.5
+     */
+    public static StringBuilder formatIso(LocalDateTime dateTime, StringBuilder target) {
+        if (!isFourDigitYear(dateTime.getYear())) {
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(dateTime, target);
+            return target;
+        }
+        iso(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour(),
+            dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano(), false, target);
+        return target;
+    }
+
+    public static ByteBuffer formatIso(LocalDateTime dateTime, ByteBuffer target) {
+        if (!isFourDigitYear(dateTime.getYear())) {
+            String formatted = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime);
+            return target.put(formatted.getBytes(StandardCharsets.US_ASCII));
+        }
+        iso(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour(),
+            dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano(), false, target);
+        return target;
+    }
+
+    /**
+     * As DateTimeFormatter.ISO_LOCAL_DATE_TIME, for the local date-time given as the seconds from 1970-01-01T00:00
+     * and the nano of second.
+     */
+    public static StringBuilder formatIso(long localEpochSecond, int nano, StringBuilder target) {
+        long epochDay = Math.floorDiv(localEpochSecond, SECONDS_PER_DAY);
+        int year = yearOfEpochDay(epochDay);
+        if (!isFourDigitYear(year)) {
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(localEpochSecond, nano, ZoneOffset.UTC);
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(dateTime, target);
+            return target;
+        }
+        int secondOfDay = (int) Math.floorMod(localEpochSecond, SECONDS_PER_DAY);
+        int monthDay = monthDayOfEpochDay(epochDay);
+        iso(year, monthDay >> 5, monthDay & 31, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60, nano,
+            false, target);
+        return target;
+    }
+
+    /**
+     * As DateTimeFormatter.ISO_INSTANT, e.g. 2014-12-31T22:59:59.500Z
+     */
+    public static StringBuilder formatIso(Instant instant, StringBuilder target) {
+        long epochDay = Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_DAY);
+        int year = yearOfEpochDay(epochDay);
+        if (!isFourDigitYear(year)) {
+            DateTimeFormatter.ISO_INSTANT.formatTo(instant, target);
+            return target;
+        }
+        int secondOfDay = (int) Math.floorMod(instant.getEpochSecond(), SECONDS_PER_DAY);
+        int monthDay = monthDayOfEpochDay(epochDay);
+        iso(year, monthDay >> 5, monthDay & 31, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60,
+            instant.getNano(), true, target);
+        return target.append('Z');
+    }
+
+    public static ByteBuffer formatIso(Instant instant, ByteBuffer target) {
+        long epochDay = Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_DAY);
+        int year = yearOfEpochDay(epochDay);
+        if (!isFourDigitYear(year)) {
+            return target.put(DateTimeFormatter.ISO_INSTANT.format(instant).getBytes(StandardCharsets.US_ASCII));
+        }
+        int secondOfDay = (int) Math.floorMod(instant.getEpochSecond(), SECONDS_PER_DAY);
+        int monthDay = monthDayOfEpochDay(epochDay);
+        iso(year, monthDay >> 5, monthDay & 31, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60,
+            instant.getNano(), true, target);
+        return target.put((byte) 'Z');
+    }
+
+    /**
+     * As {@link #READABLE}, dd.MM.yyyy HH:mm:ss, e.g. 31.12.2014 23:59:59
+     */
+    public static StringBuilder formatReadable(LocalDateTime dateTime, StringBuilder target) {
+        if (!isFourDigitYear(dateTime.getYear())) {
+            READABLE.formatTo(dateTime, target);
+            return target;
+        }
+        readable(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour(),
+                 dateTime.getMinute(), dateTime.getSecond(), target);
+        return target;
+    }
+
+    public static ByteBuffer formatReadable(LocalDateTime dateTime, ByteBuffer target) {
+        if (!isFourDigitYear(dateTime.getYear())) {
+            return target.put(READABLE.format(dateTime).getBytes(StandardCharsets.US_ASCII));
+        }
+        readable(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour(),
+                 dateTime.getMinute(), dateTime.getSecond(), target);
+        return target;
+    }
+
+    /**
+     * As {@link #READABLE}, for the local date-time of the instant at the offset.
+     */
+    public static StringBuilder formatReadable(Instant instant, ZoneOffset offset, StringBuilder target) {
+        long localSecond = instant.getEpochSecond() + offset.getTotalSeconds();
+        long epochDay = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+        int year = yearOfEpochDay(epochDay);
+        if (!isFourDigitYear(year)) {
+            READABLE.formatTo(LocalDateTime.ofInstant(instant, offset), target);
+            return target;
+        }
+        int secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+        int monthDay = monthDayOfEpochDay(epochDay);
+        readable(year, monthDay >> 5, monthDay & 31, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60,
+                 target);
+        return target;
+    }
+
+    public static ByteBuffer formatReadable(Instant instant, ZoneOffset offset, ByteBuffer target) {
+        long localSecond = instant.getEpochSecond() + offset.getTotalSeconds();
+        long epochDay = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+        int year = yearOfEpochDay(epochDay);
+        if (!isFourDigitYear(year)) {
+            return target.put(READABLE.format(LocalDateTime.ofInstant(instant, offset))
+                                      .getBytes(StandardCharsets.US_ASCII));
+        }
+        int secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+        int monthDay = monthDayOfEpochDay(epochDay);
+        readable(year, monthDay >> 5, monthDay & 31, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60,
+                 target);
+        return target;
+    }
+
+    private static boolean isFourDigitYear(int year) {
+        return year >= 1 && year <= 9999;
+    }
+
+    /**
+     * The proleptic Gregorian year of a day counted from 1970-01-01, by the civil from days algorithm.
+     */
+    private static int yearOfEpochDay(long epochDay) {
+        long dayOfEra = dayOfEra(epochDay);
+        long yearOfEra = yearOfEra(dayOfEra);
+        long year = yearOfEra + Math.floorDiv(epochDay + 719_468, 146_097) * 400;
+        int shiftedMonth = shiftedMonth(dayOfYear(dayOfEra, yearOfEra));
+        return (int) (shiftedMonth < 10 ? year : year + 1);
+    }
+
+    /**
+     * The month and day of a day counted from 1970-01-01, as month << 5 | day.
+     */
+    private static int monthDayOfEpochDay(long epochDay) {
+        long dayOfEra = dayOfEra(epochDay);
+        int dayOfYear = dayOfYear(dayOfEra, yearOfEra(dayOfEra));
+        // Years shifted to start in March, so the leap day is the last day of the year
+        int shiftedMonth = shiftedMonth(dayOfYear);
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        return month << 5 | day;
+    }
+
+    private static long dayOfEra(long epochDay) {
+        // Eras of 400 years starting 0000-03-01, which is 719468 days before the epoch
+        return Math.floorMod(epochDay + 719_468, 146_097);
+    }
+
+    private static long yearOfEra(long dayOfEra) {
+        return (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+    }
+
+    private static int dayOfYear(long dayOfEra, long yearOfEra) {
+        return (int) (dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100));
+    }
+
+    private static int shiftedMonth(int dayOfYear) {
+        return (5 * dayOfYear + 2) / 153;
+    }
+
+    /**
+     * Writes yyyy-MM-ddTHH:mm:ss and the fraction, trimmed of trailing zeros for ISO_LOCAL_DATE_TIME, or
+     * in groups of three digits for ISO_INSTANT.
+     */
+    private static void iso(int year, int month, int day, int hour, int minute, int second, int nano,
+                            boolean fractionInGroups, StringBuilder target) {
+        four(year, target).append('-');
+        two(month, target).append('-');
+        two(day, target).append('T');
+        two(hour, target).append(':');
+        two(minute, target).append(':');
+        two(second, target);
+        int digits = fractionDigits(nano, fractionInGroups);
+        if (digits > 0) {
+            target.append('.');
+            for (int divisor = 100_000_000, i = 0; i < digits; divisor /= 10, i++) {
+                target.append((char) ('0' + nano / divisor % 10));
+            }
+        }
+    }
+
+    private static void iso(int year, int month, int day, int hour, int minute, int second, int nano,
+                            boolean fractionInGroups, ByteBuffer target) {
+        four(year, target).put((byte) '-');
+        two(month, target).put((byte) '-');
+        two(day, target).put((byte) 'T');
+        two(hour, target).put((byte) ':');
+        two(minute, target).put((byte) ':');
+        two(second, target);
+        int digits = fractionDigits(nano, fractionInGroups);
+        if (digits > 0) {
+            target.put((byte) '.');
+            for (int divisor = 100_000_000, i = 0; i < digits; divisor /= 10, i++) {
+                target.put((byte) ('0' + nano / divisor % 10));
+            }
+        }
+    }
+
+    private static int fractionDigits(int nano, boolean inGroups) {
+        if (nano == 0) {
+            return 0;
+        }
+        if (inGroups) {
+            return nano % NANOS_PER_MILLI == 0 ? 3 : nano % NANOS_PER_MICRO == 0 ? 6 : 9;
+        }
+        int digits = 9;
+        while (nano % 10 == 0) {
+            nano /= 10;
+            digits--;
+        }
+        return digits;
+    }
+
+    private static void readable(int year, int month, int day, int hour, int minute, int second,
+                                 StringBuilder target) {
+        two(day, target).append('.');
+        two(month, target).append('.');
+        four(year, target).append(' ');
+        two(hour, target).append(':');
+        two(minute, target).append(':');
+        two(second, target);
+    }
+
+    private static void readable(int year, int month, int day, int hour, int minute, int second, ByteBuffer target) {
+        two(day, target).put((byte) '.');
+        two(month, target).put((byte) '.');
+        four(year, target).put((byte) ' ');
+        two(hour, target).put((byte) ':');
+        two(minute, target).put((byte) ':');
+        two(second, target);
+    }
+
+    private static StringBuilder two(int value, StringBuilder target) {
+        return target.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static StringBuilder four(int value, StringBuilder target) {
+        return two(value / 100, target).append((char) ('0' + value / 10 % 10)).append((char) ('0' + value % 10));
+    }
+
+    private static ByteBuffer two(int value, ByteBuffer target) {
+        return target.put((byte) ('0' + value / 10)).put((byte) ('0' + value % 10));
+    }
+
+    private static ByteBuffer four(int value, ByteBuffer target) {
+        return two(value / 100, target).put((byte) ('0' + value / 10 % 10)).put((byte) ('0' + value % 10));
+    }
+}
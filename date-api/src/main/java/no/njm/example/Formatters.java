@@ -0,0 +1,81 @@
+package no.njm.example;
+
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A registry of DateTimeFormatters by pattern or style and locale, so each is built once.
+ * <p>
+ * DateTimeFormatter is immutable and thread-safe, but building one parses the pattern or looks up the localized
+ * pattern every time. Lookups here allocate nothing once the formatter is cached. Formatters are kept for the
+ * lifetime of the class, so patterns should come from code rather than from input.
+ */
+public final class Formatters {
+
+    private static final int KINDS = 3;
+    private static final int DATE = 0;
+    private static final int TIME = 1;
+    private static final int DATE_TIME = 2;
+
+    private static final ConcurrentHashMap<Locale, LocaleFormatters> LOCALES = new ConcurrentHashMap<>();
+
+    private Formatters() {
+    }
+
+    /**
+     * Same as DateTimeFormatter.ofPattern, using the default locale for formatting.
+     */
+    public static DateTimeFormatter ofPattern(String pattern) {
+        return ofPattern(pattern, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    public static DateTimeFormatter ofPattern(String pattern, Locale locale) {
+        ConcurrentHashMap<String, DateTimeFormatter> patterns = forLocale(locale).patterns;
+        DateTimeFormatter formatter = patterns.get(pattern);
+        return formatter != null ? formatter
+                                 : patterns.computeIfAbsent(pattern, key -> DateTimeFormatter.ofPattern(key, locale));
+    }
+
+    public static DateTimeFormatter ofLocalizedDate(FormatStyle style, Locale locale) {
+        return localized(DATE, style, locale);
+    }
+
+    public static DateTimeFormatter ofLocalizedTime(FormatStyle style, Locale locale) {
+        return localized(TIME, style, locale);
+    }
+
+    public static DateTimeFormatter ofLocalizedDateTime(FormatStyle style, Locale locale) {
+        return localized(DATE_TIME, style, locale);
+    }
+
+    private static DateTimeFormatter localized(int kind, FormatStyle style, Locale locale) {
+        AtomicReferenceArray<DateTimeFormatter> localized = forLocale(locale).localized;
+        int index = style.ordinal() * KINDS + kind;
+        DateTimeFormatter formatter = localized.get(index);
+        if (formatter == null) {
+            // Two threads may both build it, which is harmless as formatters are immutable
+            formatter = kind == DATE ? DateTimeFormatter.ofLocalizedDate(style)
+                        : kind == TIME ? DateTimeFormatter.ofLocalizedTime(style)
+                        : DateTimeFormatter.ofLocalizedDateTime(style);
+            formatter = formatter.withLocale(locale);
+            localized.set(index, formatter);
+        }
+        return formatter;
+    }
+
+    private static LocaleFormatters forLocale(Locale locale) {
+        // Java 8 computeIfAbsent locks even when the key is present, so get first
+        LocaleFormatters formatters = LOCALES.get(locale);
+        return formatters != null ? formatters : LOCALES.computeIfAbsent(locale, key -> new LocaleFormatters());
+    }
+
+    private static final class LocaleFormatters {
+
+        final ConcurrentHashMap<String, DateTimeFormatter> patterns = new ConcurrentHashMap<>();
+        final AtomicReferenceArray<DateTimeFormatter> localized =
+                new AtomicReferenceArray<>(FormatStyle.values().length * KINDS);
+    }
+}
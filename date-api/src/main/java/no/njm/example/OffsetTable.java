@@ -0,0 +1,162 @@
+package no.njm.example;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneOffsetTransitionRule;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The UTC offsets of a zone as a sorted table of transition instants, so converting an instant to local time is
+ * a binary search over a long array, without creating Instants, ZoneOffsets or transition arrays. Local times
+ * are converted back the same way, over the local times before and after each transition.
+ * <p>
+ * The table holds the historic transitions and those of the yearly rules up to {@link #END_YEAR}. Later instants
+ * are looked up in the ZoneRules. Get tables from {@link ZoneCache#offsets(ZoneId)}, which builds each once.
+ */
+public final class OffsetTable {
+
+    public static final int END_YEAR = 2100;
+
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    // offsets[i] applies from transitions[i - 1] until transitions[i]
+    private final long[] transitions;
+    private final ZoneOffset[] offsets;
+    private final int[] offsetSeconds;
+    // For transitions[i], the earlier and the later of the local times before and after it, at 2 * i and 2 * i + 1
+    private final long[] localTransitions;
+    private final long endEpochSecond;
+
+    OffsetTable(ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        List<ZoneOffsetTransition> all = new ArrayList<>(rules.getTransitions());
+        List<ZoneOffsetTransitionRule> yearly = rules.getTransitionRules();
+        if (!yearly.isEmpty()) {
+            // The rules take over from the last historic transition, which may be in the middle of a year
+            ZoneOffsetTransition last = all.isEmpty() ? null : all.get(all.size() - 1);
+            int firstYear = last == null ? 1800 : last.getDateTimeBefore().getYear() - 1;
+            for (int year = firstYear; year <= END_YEAR; year++) {
+                for (ZoneOffsetTransitionRule rule : yearly) {
+                    ZoneOffsetTransition transition = rule.createTransition(year);
+                    if (last == null || transition.toEpochSecond() > last.toEpochSecond()) {
+                        all.add(transition);
+                    }
+                }
+            }
+        }
+        all.sort(null);
+        transitions = new long[all.size()];
+        offsets = new ZoneOffset[all.size() + 1];
+        offsets[0] = all.isEmpty() ? rules.getOffset(Instant.EPOCH) : all.get(0).getOffsetBefore();
+        for (int i = 0; i < all.size(); i++) {
+            transitions[i] = all.get(i).toEpochSecond();
+            offsets[i + 1] = all.get(i).getOffsetAfter();
+        }
+        offsetSeconds = new int[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            offsetSeconds[i] = offsets[i].getTotalSeconds();
+        }
+        localTransitions = new long[2 * transitions.length];
+        for (int i = 0; i < transitions.length; i++) {
+            long before = transitions[i] + offsetSeconds[i];
+            long after = transitions[i] + offsetSeconds[i + 1];
+            localTransitions[2 * i] = Math.min(before, after);
+            localTransitions[2 * i + 1] = Math.max(before, after);
+        }
+        // Without yearly rules the last offset lasts forever
+        endEpochSecond = yearly.isEmpty() ? Long.MAX_VALUE
+                                          : LocalDateTime.of(END_YEAR + 1, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * The number of transitions in the table.
+     */
+    public int size() {
+        return transitions.length;
+    }
+
+    public int offsetSeconds(long epochSecond) {
+        if (epochSecond >= endEpochSecond) {
+            return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        }
+        return offsetSeconds[index(epochSecond)];
+    }
+
+    public ZoneOffset offset(long epochSecond) {
+        if (epochSecond >= endEpochSecond) {
+            return rules.getOffset(Instant.ofEpochSecond(epochSecond));
+        }
+        return offsets[index(epochSecond)];
+    }
+
+    /**
+     * The seconds from 1970-01-01T00:00 local time to the local time of the instant.
+     */
+    public long toLocalEpochSecond(long epochSecond) {
+        return epochSecond + offsetSeconds(epochSecond);
+    }
+
+    public long toLocalEpochMilli(long epochMilli) {
+        return epochMilli + offsetSeconds(Math.floorDiv(epochMilli, 1000)) * 1000L;
+    }
+
+    public LocalDateTime toLocalDateTime(long epochMilli) {
+        long epochSecond = Math.floorDiv(epochMilli, 1000);
+        int nano = (int) Math.floorMod(epochMilli, 1000) * 1_000_000;
+        return LocalDateTime.ofEpochSecond(epochSecond + offsetSeconds(epochSecond), nano, ZoneOffset.UTC);
+    }
+
+    /**
+     * The instant of a local time, given as seconds from 1970-01-01T00:00, resolved as ZonedDateTime.of does.
+     * A local time in an overlap gets the earlier offset, and one in a gap is moved later by the length of the gap,
+     * so in both cases the offset before the transition applies.
+     */
+    public long toEpochSecond(long localEpochSecond) {
+        if (localEpochSecond >= endEpochSecond - MAX_OFFSET_SECONDS) {
+            LocalDateTime local = LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC);
+            return local.atZone(zone).toEpochSecond();
+        }
+        int index = Arrays.binarySearch(localTransitions, localEpochSecond);
+        if (index == -1) {
+            return localEpochSecond - offsetSeconds[0];
+        } else if (index < 0) {
+            index = -index - 2;
+        } else if (index + 1 < localTransitions.length && localTransitions[index + 1] == localEpochSecond) {
+            index++;
+        }
+        // Odd indexes are between two transitions, even ones in the gap or overlap of one
+        int offsetIndex = (index & 1) == 0 ? index / 2 : index / 2 + 1;
+        return localEpochSecond - offsetSeconds[offsetIndex];
+    }
+
+    public long toEpochMilli(long localEpochMilli) {
+        long epochSecond = toEpochSecond(Math.floorDiv(localEpochMilli, 1000));
+        return epochSecond * 1000 + Math.floorMod(localEpochMilli, 1000);
+    }
+
+    @Override
+    public String toString() {
+        return "OffsetTable[" + zone + ", " + transitions.length + " transitions]";
+    }
+
+    /**
+     * The index of the offset at the instant, which is the number of transitions at or before it.
+     */
+    private int index(long epochSecond) {
+        int index = Arrays.binarySearch(transitions, epochSecond);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+}
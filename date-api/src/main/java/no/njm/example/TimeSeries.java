@@ -0,0 +1,388 @@
+package no.njm.example;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Timestamped double values kept in columns, in blocks of up to {@link #BLOCK_SIZE} events, instead of one
+ * object per event.
+ * <p>
+ * Timestamps are epoch milliseconds. A block keeps its first timestamp as a long and the others as int deltas
+ * from it, so a block spans less than 24 days and a new block is started when a timestamp is further away.
+ * Each block is indexed by its first and last timestamp and the count, sum, min and max of its values. A range
+ * query binary searches the index for the first and last block, and only those two are searched and scanned,
+ * the blocks in between are summarized by the index. {@link #values(long, long)} streams the values of a range
+ * and splits by block, so parallel streams aggregate the blocks on separate threads.
+ * <p>
+ * LocalDateTimes are stored as milliseconds since 1970-01-01T00:00 on the same local time-line, as by
+ * toEpochSecond(ZoneOffset.UTC). Ranges are half-open, from inclusive and to exclusive, and empty unless to is
+ * after from. Events must be appended in order of time. Not thread-safe for appending, a series that is no longer
+ * appended to may be read from any number of threads.
+ */
+public class TimeSeries {
+
+    @FunctionalInterface
+    public interface EventConsumer {
+
+        void accept(long epochMilli, double value);
+    }
+
+    /**
+     * Count, sum, min and max of the values in a range.
+     */
+    public static final class Summary {
+
+        private final long count;
+        private final double sum;
+        private final double min;
+        private final double max;
+
+        Summary(long count, double sum, double min, double max) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        /**
+         * The smallest value, or positive infinity if the range is empty.
+         */
+        public double getMin() {
+            return min;
+        }
+
+        /**
+         * The largest value, or negative infinity if the range is empty.
+         */
+        public double getMax() {
+            return max;
+        }
+
+        /**
+         * The average value, or zero if the range is empty.
+         */
+        public double getAverage() {
+            return count > 0 ? sum / count : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Summary[count=" + count + ", sum=" + sum + ", min=" + min + ", max=" + max + "]";
+        }
+    }
+
+    public static final int BLOCK_SIZE = 4096;
+
+    private static final int MIN_BLOCKS = 16;
+
+    private int blocks;
+    private long size;
+    private long[] firstTimes = new long[MIN_BLOCKS];
+    private long[] lastTimes = new long[MIN_BLOCKS];
+    // The number of events before each block
+    private long[] starts = new long[MIN_BLOCKS];
+    private int[] counts = new int[MIN_BLOCKS];
+    private double[] sums = new double[MIN_BLOCKS];
+    private double[] mins = new double[MIN_BLOCKS];
+    private double[] maxes = new double[MIN_BLOCKS];
+    private int[][] deltas = new int[MIN_BLOCKS][];
+    private double[][] values = new double[MIN_BLOCKS][];
+
+    public static long toEpochMilli(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1000 + time.getNano() / 1_000_000;
+    }
+
+    public void append(LocalDateTime time, double value) {
+        append(toEpochMilli(time), value);
+    }
+
+    /**
+     * Appends an event, which must be at or after the last appended one.
+     */
+    public void append(long epochMilli, double value) {
+        int block = blocks - 1;
+        if (block >= 0 && epochMilli < lastTimes[block]) {
+            throw new IllegalArgumentException("Time " + epochMilli + " is before the last time " + lastTimes[block]);
+        }
+        if (block < 0 || counts[block] == BLOCK_SIZE || epochMilli - firstTimes[block] > Integer.MAX_VALUE) {
+            block = newBlock(epochMilli);
+        }
+        int index = counts[block]++;
+        deltas[block][index] = (int) (epochMilli - firstTimes[block]);
+        values[block][index] = value;
+        lastTimes[block] = epochMilli;
+        sums[block] += value;
+        mins[block] = Math.min(mins[block], value);
+        maxes[block] = Math.max(maxes[block], value);
+        size++;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int blockCount() {
+        return blocks;
+    }
+
+    public Summary summary(LocalDateTime from, LocalDateTime to) {
+        return summary(toEpochMilli(from), toEpochMilli(to));
+    }
+
+    /**
+     * Summarizes the values in the range, scanning at most the first and last block of it.
+     */
+    public Summary summary(long from, long to) {
+        long start = position(from);
+        long end = to > from ? position(to) : start;
+        int startBlock = block(start);
+        int endBlock = block(end);
+        long count = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int block = startBlock; block <= endBlock && block < blocks; block++) {
+            int first = block == startBlock ? index(start) : 0;
+            int last = block == endBlock ? index(end) : counts[block];
+            if (first == 0 && last == counts[block]) {
+                count += counts[block];
+                sum += sums[block];
+                min = Math.min(min, mins[block]);
+                max = Math.max(max, maxes[block]);
+            } else {
+                double[] blockValues = values[block];
+                for (int i = first; i < last; i++) {
+                    sum += blockValues[i];
+                    min = Math.min(min, blockValues[i]);
+                    max = Math.max(max, blockValues[i]);
+                }
+                count += last - first;
+            }
+        }
+        return new Summary(count, sum, min, max);
+    }
+
+    public long count(LocalDateTime from, LocalDateTime to) {
+        return count(toEpochMilli(from), toEpochMilli(to));
+    }
+
+    public long count(long from, long to) {
+        return to > from ? ordinal(position(to)) - ordinal(position(from)) : 0;
+    }
+
+    public void forEach(LocalDateTime from, LocalDateTime to, EventConsumer action) {
+        forEach(toEpochMilli(from), toEpochMilli(to), action);
+    }
+
+    public void forEach(long from, long to, EventConsumer action) {
+        long start = position(from);
+        long end = to > from ? position(to) : start;
+        int startBlock = block(start);
+        int endBlock = block(end);
+        for (int block = startBlock; block <= endBlock && block < blocks; block++) {
+            int last = block == endBlock ? index(end) : counts[block];
+            long firstTime = firstTimes[block];
+            int[] blockDeltas = deltas[block];
+            double[] blockValues = values[block];
+            for (int i = block == startBlock ? index(start) : 0; i < last; i++) {
+                action.accept(firstTime + blockDeltas[i], blockValues[i]);
+            }
+        }
+    }
+
+    public DoubleStream values(LocalDateTime from, LocalDateTime to) {
+        return values(toEpochMilli(from), toEpochMilli(to));
+    }
+
+    /**
+     * The values in the range in order of time. The stream splits at block boundaries when run in parallel.
+     */
+    public DoubleStream values(long from, long to) {
+        long start = position(from);
+        long end = to > from ? position(to) : start;
+        return StreamSupport.doubleStream(new ValueSpliterator(start, end), false);
+    }
+
+    /**
+     * The position of the first event at or after the time, as block << 32 | index. The position after the last
+     * event is at index 0 of the block after the last block.
+     */
+    private long position(long time) {
+        // The first block that ends at or after the time, last times are in order as events are
+        int low = 0;
+        int high = blocks;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lastTimes[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (low == blocks) {
+            return (long) blocks << 32;
+        }
+        int block = low;
+        long delta = time - firstTimes[block];
+        if (delta <= 0) {
+            return (long) block << 32;
+        }
+        // The first event of the block at or after the time, which exists as the block ends at or after it
+        int[] blockDeltas = deltas[block];
+        low = 0;
+        high = counts[block] - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blockDeltas[middle] < delta) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return (long) block << 32 | low;
+    }
+
+    /**
+     * The number of events before the position.
+     */
+    private long ordinal(long position) {
+        int block = block(position);
+        return (block < blocks ? starts[block] : size) + index(position);
+    }
+
+    private static int block(long position) {
+        return (int) (position >>> 32);
+    }
+
+    private static int index(long position) {
+        return (int) position;
+    }
+
+    private int newBlock(long firstTime) {
+        if (blocks == firstTimes.length) {
+            int length = blocks * 2;
+            firstTimes = Arrays.copyOf(firstTimes, length);
+            lastTimes = Arrays.copyOf(lastTimes, length);
+            starts = Arrays.copyOf(starts, length);
+            counts = Arrays.copyOf(counts, length);
+            sums = Arrays.copyOf(sums, length);
+            mins = Arrays.copyOf(mins, length);
+            maxes = Arrays.copyOf(maxes, length);
+            deltas = Arrays.copyOf(deltas, length);
+            values = Arrays.copyOf(values, length);
+        }
+        int block = blocks++;
+        firstTimes[block] = firstTime;
+        lastTimes[block] = firstTime;
+        starts[block] = size;
+        mins[block] = Double.POSITIVE_INFINITY;
+        maxes[block] = Double.NEGATIVE_INFINITY;
+        deltas[block] = new int[BLOCK_SIZE];
+        values[block] = new double[BLOCK_SIZE];
+        return block;
+    }
+
+    /**
+     * Streams the values between two positions, splitting off the first half of the blocks, or of the events
+     * when within one block.
+     */
+    private final class ValueSpliterator implements Spliterator.OfDouble {
+
+        private static final int MIN_SPLIT = 1024;
+
+        private int block;
+        private int index;
+        private final int endBlock;
+        private final int endIndex;
+
+        ValueSpliterator(long start, long end) {
+            this.block = TimeSeries.block(start);
+            this.index = TimeSeries.index(start);
+            this.endBlock = TimeSeries.block(end);
+            this.endIndex = TimeSeries.index(end);
+        }
+
+        private ValueSpliterator(int block, int index, int endBlock, int endIndex) {
+            this.block = block;
+            this.index = index;
+            this.endBlock = endBlock;
+            this.endIndex = endIndex;
+        }
+
+        @Override
+        public OfDouble trySplit() {
+            if (endBlock - block >= 2) {
+                int middle = (block + endBlock) >>> 1;
+                ValueSpliterator prefix = new ValueSpliterator(block, index, middle, 0);
+                block = middle;
+                index = 0;
+                return prefix;
+            }
+            if (block < endBlock && endIndex > 0) {
+                // The end of one block and the start of the next
+                ValueSpliterator prefix = new ValueSpliterator(block, index, endBlock, 0);
+                block = endBlock;
+                index = 0;
+                return prefix;
+            }
+            int last = block == endBlock ? endIndex : counts[block];
+            if (last - index >= MIN_SPLIT * 2) {
+                int middle = (index + last) >>> 1;
+                ValueSpliterator prefix = new ValueSpliterator(block, index, block, middle);
+                index = middle;
+                return prefix;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            while (block < endBlock || block == endBlock && index < endIndex) {
+                if (block < endBlock && index >= counts[block]) {
+                    block++;
+                    index = 0;
+                    continue;
+                }
+                action.accept(values[block][index++]);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            for (; block <= endBlock && block < blocks; block++, index = 0) {
+                int last = block == endBlock ? endIndex : counts[block];
+                double[] blockValues = values[block];
+                for (int i = index; i < last; i++) {
+                    action.accept(blockValues[i]);
+                }
+            }
+            block = endBlock;
+            index = endIndex;
+        }
+
+        @Override
+        public long estimateSize() {
+            return ordinal((long) endBlock << 32 | endIndex) - ordinal((long) block << 32 | index);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,609 @@
+package no.njm.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.Locale;
+import java.util.function.LongConsumer;
+
+/**
+ * Parses date-times of a fixed-layout pattern, e.g. "MMM dd, yyyy - HH:mm" or "yyyy-MM-dd'T'HH:mm:ss.SSS",
+ * by reading the digits at known positions, without the intermediate objects of DateTimeFormatter.parse.
+ * <p>
+ * A pattern has a fixed layout when it only has yy, yyyy, uuuu, MM, MMM, dd, HH, mm, ss and S to SSSSSSSSS
+ * fields besides literals, and MMM only when the short month names of the locale are ASCII of equal length.
+ * Other patterns, and text the fast path rejects, such as a day that does not exist or a five digit year,
+ * are handed to the DateTimeFormatter of the pattern, so the results and errors are the same as of
+ * LocalDateTime.parse. Thread-safe.
+ */
+public final class TimestampParser {
+
+    private static final int MAPPED_WINDOW = 1 << 30;
+    private static final int NO_FIELD = -1;
+    private static final long INVALID = -1;
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000,
+                                                100_000_000, 1_000_000_000};
+
+    private final String pattern;
+    private final DateTimeFormatter formatter;
+    private final boolean fixedLayout;
+    private final int length;
+    private final char[] literals;
+    private final int[] literalPositions;
+    private final int yearPosition;
+    private final int yearDigits;
+    private final boolean yearOfEra;
+    private final int monthPosition;
+    private final char[][] monthNames;
+    private final int dayPosition;
+    private final int hourPosition;
+    private final int minutePosition;
+    private final int secondPosition;
+    private final int fractionPosition;
+    private final int fractionDigits;
+
+    private TimestampParser(String pattern, Locale locale, Layout layout) {
+        this.pattern = pattern;
+        this.formatter = Formatters.ofPattern(pattern, locale);
+        this.fixedLayout = layout != null;
+        Layout fields = fixedLayout ? layout : new Layout();
+        this.length = fields.length;
+        this.literals = fields.literals.toString().toCharArray();
+        this.literalPositions = new int[literals.length];
+        for (int i = 0, position = 0; position < fields.length; position++) {
+            if (fields.isLiteral[position]) {
+                literalPositions[i++] = position;
+            }
+        }
+        this.yearPosition = fields.yearPosition;
+        this.yearDigits = fields.yearDigits;
+        this.yearOfEra = fields.yearOfEra;
+        this.monthPosition = fields.monthPosition;
+        this.monthNames = fields.monthNames;
+        this.dayPosition = fields.dayPosition;
+        this.hourPosition = fields.hourPosition;
+        this.minutePosition = fields.minutePosition;
+        this.secondPosition = fields.secondPosition;
+        this.fractionPosition = fields.fractionPosition;
+        this.fractionDigits = fields.fractionDigits;
+    }
+
+    /**
+     * Same as DateTimeFormatter.ofPattern, using the default locale for formatting.
+     */
+    public static TimestampParser ofPattern(String pattern) {
+        return ofPattern(pattern, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    public static TimestampParser ofPattern(String pattern, Locale locale) {
+        return new TimestampParser(pattern, locale, Layout.of(pattern, locale));
+    }
+
+    /**
+     * Whether the pattern is parsed by position, rather than by the DateTimeFormatter.
+     */
+    public boolean isFixedLayout() {
+        return fixedLayout;
+    }
+
+    public DateTimeFormatter formatter() {
+        return formatter;
+    }
+
+    public LocalDateTime parse(CharSequence text) {
+        long fields = text.length() == length ? fields(text, 0) : INVALID;
+        return fields != INVALID ? toLocalDateTime(fields, fraction(text, 0))
+                                 : LocalDateTime.parse(text, formatter);
+    }
+
+    public long parseEpochMillis(CharSequence text, ZoneOffset offset) {
+        long fields = text.length() == length ? fields(text, 0) : INVALID;
+        return fields != INVALID ? toEpochMillis(fields, fraction(text, 0), offset)
+                                 : LocalDateTime.parse(text, formatter).toInstant(offset).toEpochMilli();
+    }
+
+    /**
+     * Parses the date-time at the start of the bytes, which are read as ASCII, ignoring any text following it.
+     */
+    public LocalDateTime parse(byte[] bytes, int offset) {
+        return parse(ByteBuffer.wrap(bytes), offset);
+    }
+
+    public long parseEpochMillis(byte[] bytes, int offset, ZoneOffset zoneOffset) {
+        return parseEpochMillis(ByteBuffer.wrap(bytes), offset, zoneOffset);
+    }
+
+    /**
+     * Parses the date-time at the given index of the buffer, ignoring any text following it. The position of
+     * the buffer is not changed.
+     */
+    public LocalDateTime parse(ByteBuffer bytes, int index) {
+        long fields = bytes.limit() - index >= length ? fields(bytes, index) : INVALID;
+        return fields != INVALID ? toLocalDateTime(fields, fraction(bytes, index))
+                                 : fallback(bytes, index, lineEnd(bytes, index, bytes.limit()));
+    }
+
+    public long parseEpochMillis(ByteBuffer bytes, int index, ZoneOffset offset) {
+        long fields = bytes.limit() - index >= length ? fields(bytes, index) : INVALID;
+        return fields != INVALID ? toEpochMillis(fields, fraction(bytes, index), offset)
+                                 : fallback(bytes, index, lineEnd(bytes, index, bytes.limit()))
+                                         .toInstant(offset).toEpochMilli();
+    }
+
+    /**
+     * Parses the date-time at the start of each line and passes its epoch millis to the consumer, in order.
+     * The rest of the line is ignored and empty lines are skipped. A line that does not start with a date-time
+     * fails with a DateTimeParseException. A CharBuffer can be passed as is.
+     *
+     * @return the number of date-times parsed
+     */
+    public long parseLines(CharSequence text, ZoneOffset offset, LongConsumer consumer) {
+        long count = 0;
+        int end = text.length();
+        int start = 0;
+        while (start < end) {
+            int lineEnd = start;
+            while (lineEnd < end && text.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (!isBlank(text, start, lineEnd)) {
+                long fields = lineEnd - start >= length ? fields(text, start) : INVALID;
+                consumer.accept(fields != INVALID ? toEpochMillis(fields, fraction(text, start), offset)
+                                                  : fallback(text.subSequence(start, lineEnd))
+                                                          .toInstant(offset).toEpochMilli());
+                count++;
+            }
+            start = lineEnd + 1;
+        }
+        return count;
+    }
+
+    /**
+     * As {@link #parseLines(CharSequence, ZoneOffset, LongConsumer)}, for the bytes between the position and
+     * the limit of the buffer, which are read as ASCII, or as UTF-8 by the fallback. The position is not changed.
+     */
+    public long parseLines(ByteBuffer bytes, ZoneOffset offset, LongConsumer consumer) {
+        return parseLines(bytes, bytes.position(), bytes.limit(), offset, consumer);
+    }
+
+    /**
+     * As {@link #parseLines(ByteBuffer, ZoneOffset, LongConsumer)}, for a file, which is memory-mapped a window
+     * of up to 1 GB at a time.
+     */
+    public long parseLines(Path file, ZoneOffset offset, LongConsumer consumer) throws IOException {
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long windowStart = 0;
+            while (windowStart < size) {
+                int windowSize = (int) Math.min(MAPPED_WINDOW, size - windowStart);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+                boolean last = windowStart + windowSize == size;
+                // Only whole lines are parsed, the line cut by the end of the window starts the next window
+                int end = last ? windowSize : lastLineStart(window, windowSize);
+                if (end == 0) {
+                    throw new IOException("Line longer than " + MAPPED_WINDOW + " bytes at " + windowStart);
+                }
+                count += parseLines(window, 0, end, offset, consumer);
+                windowStart += end;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "TimestampParser[" + pattern + (fixedLayout ? ", fixed layout]" : "]");
+    }
+
+    private long parseLines(ByteBuffer bytes, int start, int end, ZoneOffset offset, LongConsumer consumer) {
+        long count = 0;
+        while (start < end) {
+            int lineEnd = lineEnd(bytes, start, end);
+            if (!isBlank(bytes, start, lineEnd)) {
+                long fields = lineEnd - start >= length ? fields(bytes, start) : INVALID;
+                consumer.accept(fields != INVALID ? toEpochMillis(fields, fraction(bytes, start), offset)
+                                                  : fallback(bytes, start, lineEnd).toInstant(offset).toEpochMilli());
+                count++;
+            }
+            start = lineEnd + 1;
+        }
+        return count;
+    }
+
+    private static int lineEnd(ByteBuffer bytes, int start, int end) {
+        int lineEnd = start;
+        while (lineEnd < end && bytes.get(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        return lineEnd;
+    }
+
+    private static int lastLineStart(ByteBuffer bytes, int end) {
+        int index = end;
+        while (index > 0 && bytes.get(index - 1) != '\n') {
+            index--;
+        }
+        return index;
+    }
+
+    private static boolean isBlank(CharSequence text, int start, int end) {
+        return start == end || end - start == 1 && text.charAt(start) == '\r';
+    }
+
+    private static boolean isBlank(ByteBuffer bytes, int start, int end) {
+        return start == end || end - start == 1 && bytes.get(start) == '\r';
+    }
+
+    private LocalDateTime fallback(ByteBuffer bytes, int start, int end) {
+        byte[] line = new byte[end - start];
+        for (int i = 0; i < line.length; i++) {
+            line[i] = bytes.get(start + i);
+        }
+        return fallback(new String(line, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses the date-time at the start of the text with the formatter, allowing text to follow it.
+     */
+    private LocalDateTime fallback(CharSequence text) {
+        TemporalAccessor parsed = formatter.parse(text, new ParsePosition(0));
+        try {
+            return LocalDateTime.from(parsed);
+        } catch (DateTimeException e) {
+            throw new DateTimeParseException("Text '" + text + "' could not be parsed: " + e.getMessage(),
+                                             text, 0, e);
+        }
+    }
+
+    /**
+     * Reads the fields of the layout at the start index, packed by {@link #pack}, or INVALID when the text
+     * does not match the layout or a field is out of range.
+     */
+    private long fields(CharSequence text, int start) {
+        if (!fixedLayout) {
+            return INVALID;
+        }
+        for (int i = 0; i < literals.length; i++) {
+            if (text.charAt(start + literalPositions[i]) != literals[i]) {
+                return INVALID;
+            }
+        }
+        int year = number(text, start + yearPosition, yearDigits);
+        int month = monthNames != null ? monthText(text, start + monthPosition)
+                                       : number(text, start + monthPosition, 2);
+        int day = number(text, start + dayPosition, 2);
+        int hour = number(text, start + hourPosition, 2);
+        int minute = minutePosition != NO_FIELD ? number(text, start + minutePosition, 2) : 0;
+        int second = secondPosition != NO_FIELD ? number(text, start + secondPosition, 2) : 0;
+        int fraction = fractionPosition != NO_FIELD ? number(text, start + fractionPosition, fractionDigits) : 0;
+        return pack(year, month, day, hour, minute, second, fraction);
+    }
+
+    private long fields(ByteBuffer bytes, int start) {
+        if (!fixedLayout) {
+            return INVALID;
+        }
+        for (int i = 0; i < literals.length; i++) {
+            if (bytes.get(start + literalPositions[i]) != literals[i]) {
+                return INVALID;
+            }
+        }
+        int year = number(bytes, start + yearPosition, yearDigits);
+        int month = monthNames != null ? monthText(bytes, start + monthPosition)
+                                       : number(bytes, start + monthPosition, 2);
+        int day = number(bytes, start + dayPosition, 2);
+        int hour = number(bytes, start + hourPosition, 2);
+        int minute = minutePosition != NO_FIELD ? number(bytes, start + minutePosition, 2) : 0;
+        int second = secondPosition != NO_FIELD ? number(bytes, start + secondPosition, 2) : 0;
+        int fraction = fractionPosition != NO_FIELD ? number(bytes, start + fractionPosition, fractionDigits) : 0;
+        return pack(year, month, day, hour, minute, second, fraction);
+    }
+
+    /**
+     * The number of the digits at the index, or a negative number if one of them is not a digit.
+     */
+    private static int number(CharSequence text, int index, int digits) {
+        int value = 0;
+        int invalid = 0;
+        for (int end = index + digits; index < end; index++) {
+            int digit = text.charAt(index) - '0';
+            invalid |= digit | 9 - digit;
+            value = value * 10 + digit;
+        }
+        return invalid < 0 ? -1 : value;
+    }
+
+    private static int number(ByteBuffer bytes, int index, int digits) {
+        int value = 0;
+        int invalid = 0;
+        for (int end = index + digits; index < end; index++) {
+            int digit = bytes.get(index) - '0';
+            invalid |= digit | 9 - digit;
+            value = value * 10 + digit;
+        }
+        return invalid < 0 ? -1 : value;
+    }
+
+    private int monthText(CharSequence text, int index) {
+        for (int month = 0; month < monthNames.length; month++) {
+            char[] name = monthNames[month];
+            int i = 0;
+            while (i < name.length && text.charAt(index + i) == name[i]) {
+                i++;
+            }
+            if (i == name.length) {
+                return month + 1;
+            }
+        }
+        return -1;
+    }
+
+    private int monthText(ByteBuffer bytes, int index) {
+        for (int month = 0; month < monthNames.length; month++) {
+            char[] name = monthNames[month];
+            int i = 0;
+            while (i < name.length && bytes.get(index + i) == name[i]) {
+                i++;
+            }
+            if (i == name.length) {
+                return month + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Packs the fields into bits 26 and up for the year, 22 to 25 for the month, 17 to 21 for the day, 12 to 16
+     * for the hour, 6 to 11 for the minute and 0 to 5 for the second, or returns INVALID if one is out of range.
+     * The fraction is only checked here, and read again by fraction.
+     */
+    private long pack(int year, int month, int day, int hour, int minute, int second, int fraction) {
+        if (yearDigits == 2 && year >= 0) {
+            year += 2000;
+        }
+        if (year < 0 || yearOfEra && year == 0 || month < 1 || month > 12 || day < 1
+            || day > Month.of(month).length(isLeapYear(year)) || hour < 0 || hour > 23
+            || minute < 0 || minute > 59 || second < 0 || second > 59 || fraction < 0) {
+            return INVALID;
+        }
+        return (long) year << 26 | month << 22 | day << 17 | hour << 12 | minute << 6 | second;
+    }
+
+    private int fraction(CharSequence text, int start) {
+        return fractionPosition != NO_FIELD
+               ? number(text, start + fractionPosition, fractionDigits) * POWERS_OF_TEN[9 - fractionDigits] : 0;
+    }
+
+    private int fraction(ByteBuffer bytes, int start) {
+        return fractionPosition != NO_FIELD
+               ? number(bytes, start + fractionPosition, fractionDigits) * POWERS_OF_TEN[9 - fractionDigits] : 0;
+    }
+
+    private static LocalDateTime toLocalDateTime(long fields, int nano) {
+        return LocalDateTime.of((int) (fields >>> 26), (int) (fields >>> 22) & 0xF, (int) (fields >>> 17) & 0x1F,
+                                (int) (fields >>> 12) & 0x1F, (int) (fields >>> 6) & 0x3F, (int) fields & 0x3F, nano);
+    }
+
+    private static long toEpochMillis(long fields, int nano, ZoneOffset offset) {
+        long epochDay = epochDay((int) (fields >>> 26), (int) (fields >>> 22) & 0xF, (int) (fields >>> 17) & 0x1F);
+        int secondOfDay = (int) ((fields >>> 12) & 0x1F) * 3600 + (int) ((fields >>> 6) & 0x3F) * 60
+                          + (int) (fields & 0x3F);
+        long epochSecond = epochDay * SECONDS_PER_DAY + secondOfDay - offset.getTotalSeconds();
+        return epochSecond * 1000 + nano / 1_000_000;
+    }
+
+    /**
+     * Days from 1970-01-01 to the date in the proleptic Gregorian calendar, by the days from civil algorithm.
+     */
+    private static long epochDay(int year, int month, int day) {
+        // Years shifted to start in March, so the leap day is the last day of the year
+        int shiftedYear = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(shiftedYear, 400);
+        int yearOfEra = shiftedYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * The positions of the fields and literals of a fixed-layout pattern.
+     */
+    private static final class Layout {
+
+        int length;
+        final StringBuilder literals = new StringBuilder();
+        boolean[] isLiteral = new boolean[0];
+        int yearPosition = NO_FIELD;
+        int yearDigits;
+        boolean yearOfEra;
+        int monthPosition = NO_FIELD;
+        char[][] monthNames;
+        int dayPosition = NO_FIELD;
+        int hourPosition = NO_FIELD;
+        int minutePosition = NO_FIELD;
+        int secondPosition = NO_FIELD;
+        int fractionPosition = NO_FIELD;
+        int fractionDigits;
+
+        /**
+         * The layout of the pattern, or null if it does not have a fixed layout.
+         */
+        static Layout of(String pattern, Locale locale) {
+            Layout layout = new Layout();
+            StringBuilder kinds = new StringBuilder();
+            int i = 0;
+            while (i < pattern.length()) {
+                char c = pattern.charAt(i);
+                if (c == '\'') {
+                    i = layout.quoted(pattern, i + 1, kinds);
+                    if (i < 0) {
+                        return null;
+                    }
+                } else if (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z') {
+                    int count = 1;
+                    while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+                        count++;
+                    }
+                    if (!layout.field(c, count, locale, kinds)) {
+                        return null;
+                    }
+                    i += count;
+                } else if (c == '[' || c == ']' || c == '{' || c == '}' || c == '#') {
+                    return null;
+                } else {
+                    layout.literal(c, kinds);
+                    i++;
+                }
+            }
+            if (layout.yearPosition == NO_FIELD || layout.monthPosition == NO_FIELD
+                || layout.dayPosition == NO_FIELD || layout.hourPosition == NO_FIELD
+                || layout.secondPosition != NO_FIELD && layout.minutePosition == NO_FIELD
+                || layout.fractionPosition != NO_FIELD && layout.secondPosition == NO_FIELD) {
+                return null;
+            }
+            layout.isLiteral = new boolean[layout.length];
+            for (int position = 0; position < layout.length; position++) {
+                layout.isLiteral[position] = kinds.charAt(position) == 'L';
+            }
+            return layout;
+        }
+
+        /**
+         * Adds the literal text quoted from the index, where two quotes are one quote, and returns the index
+         * after the closing quote, or -1 if there is none.
+         */
+        private int quoted(String pattern, int index, StringBuilder kinds) {
+            if (index < pattern.length() && pattern.charAt(index) == '\'') {
+                literal('\'', kinds);
+                return index + 1;
+            }
+            while (index < pattern.length()) {
+                char c = pattern.charAt(index);
+                if (c != '\'') {
+                    literal(c, kinds);
+                    index++;
+                } else if (index + 1 < pattern.length() && pattern.charAt(index + 1) == '\'') {
+                    literal('\'', kinds);
+                    index += 2;
+                } else {
+                    return index + 1;
+                }
+            }
+            return -1;
+        }
+
+        private void literal(char c, StringBuilder kinds) {
+            literals.append(c);
+            kinds.append('L');
+            length++;
+        }
+
+        private boolean field(char letter, int count, Locale locale, StringBuilder kinds) {
+            int position = length;
+            int width;
+            switch (letter) {
+                case 'y':
+                case 'u':
+                    if (yearPosition != NO_FIELD || count != 4 && !(count == 2 && letter == 'y')) {
+                        return false;
+                    }
+                    yearPosition = position;
+                    yearDigits = count;
+                    yearOfEra = letter == 'y';
+                    width = count;
+                    break;
+                case 'M':
+                    if (monthPosition != NO_FIELD || count != 2 && count != 3) {
+                        return false;
+                    }
+                    monthPosition = position;
+                    width = 2;
+                    if (count == 3) {
+                        monthNames = monthNames(locale);
+                        if (monthNames == null) {
+                            return false;
+                        }
+                        width = monthNames[0].length;
+                    }
+                    break;
+                case 'd':
+                    if (dayPosition != NO_FIELD || count != 2) {
+                        return false;
+                    }
+                    dayPosition = position;
+                    width = 2;
+                    break;
+                case 'H':
+                    if (hourPosition != NO_FIELD || count != 2) {
+                        return false;
+                    }
+                    hourPosition = position;
+                    width = 2;
+                    break;
+                case 'm':
+                    if (minutePosition != NO_FIELD || count != 2) {
+                        return false;
+                    }
+                    minutePosition = position;
+                    width = 2;
+                    break;
+                case 's':
+                    if (secondPosition != NO_FIELD || count != 2) {
+                        return false;
+                    }
+                    secondPosition = position;
+                    width = 2;
+                    break;
+                case 'S':
+                    if (fractionPosition != NO_FIELD || count > 9) {
+                        return false;
+                    }
+                    fractionPosition = position;
+                    fractionDigits = count;
+                    width = count;
+                    break;
+                default:
+                    return false;
+            }
+            for (int i = 0; i < width; i++) {
+                kinds.append('F');
+            }
+            length += width;
+            return true;
+        }
+
+        /**
+         * The short month names as parsed by MMM, or null unless they are ASCII and of equal length.
+         */
+        private static char[][] monthNames(Locale locale) {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM", locale);
+            char[][] names = new char[12][];
+            for (Month month : Month.values()) {
+                String name = formatter.format(month);
+                names[month.ordinal()] = name.toCharArray();
+                if (name.length() != names[0].length || !StandardCharsets.US_ASCII.newEncoder().canEncode(name)) {
+                    return null;
+                }
+            }
+            return names;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package no.njm.example;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interns ZoneIds by their string id, so each id is looked up and validated once.
+ * <p>
+ * ZoneId.of parses the id and looks up the rules on every call, and an invalid id costs a DateTimeException with
+ * a stack trace. Invalid ids are cached as well, up to {@link #MAX_INVALID_IDS} of them, so a fallback can be
+ * returned without an exception. The {@link OffsetTable} of a zone is built once, on first use.
+ */
+public final class ZoneCache {
+
+    /**
+     * Invalid ids are typically input, so only this many are remembered to keep the cache bounded.
+     */
+    public static final int MAX_INVALID_IDS = 1024;
+
+    private static final ConcurrentHashMap<String, Entry> ZONES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<ZoneId, OffsetTable> OFFSET_TABLES = new ConcurrentHashMap<>();
+    private static final AtomicInteger INVALID_IDS = new AtomicInteger();
+
+    private ZoneCache() {
+    }
+
+    /**
+     * Same as ZoneId.of.
+     *
+     * @throws DateTimeException if the id is invalid
+     */
+    public static ZoneId of(String zoneId) {
+        Entry entry = entry(zoneId);
+        if (entry.zone == null) {
+            throw new DateTimeException(entry.error);
+        }
+        return entry.zone;
+    }
+
+    /**
+     * The zone of the id, or the fallback if the id is invalid, without creating an exception once the id is cached.
+     */
+    public static ZoneId of(String zoneId, ZoneId fallback) {
+        ZoneId zone = entry(zoneId).zone;
+        return zone != null ? zone : fallback;
+    }
+
+    public static boolean isValid(String zoneId) {
+        return entry(zoneId).zone != null;
+    }
+
+    public static OffsetTable offsets(String zoneId) {
+        return offsets(of(zoneId));
+    }
+
+    public static OffsetTable offsets(ZoneId zone) {
+        OffsetTable table = OFFSET_TABLES.get(zone);
+        return table != null ? table : OFFSET_TABLES.computeIfAbsent(zone, OffsetTable::new);
+    }
+
+    private static Entry entry(String zoneId) {
+        Entry entry = ZONES.get(zoneId);
+        if (entry != null) {
+            return entry;
+        }
+        try {
+            return ZONES.computeIfAbsent(zoneId, id -> new Entry(ZoneId.of(id), null));
+        } catch (DateTimeException e) {
+            Entry invalid = new Entry(null, e.getMessage());
+            if (INVALID_IDS.get() < MAX_INVALID_IDS && ZONES.putIfAbsent(zoneId, invalid) == null) {
+                INVALID_IDS.incrementAndGet();
+            }
+            return invalid;
+        }
+    }
+
+    private static final class Entry {
+
+        final ZoneId zone;
+        final String error;
+
+        Entry(ZoneId zone, String error) {
+            this.zone = zone;
+            this.error = error;
+        }
+    }
+}
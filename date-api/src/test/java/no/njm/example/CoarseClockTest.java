@@ -0,0 +1,87 @@
+package no.njm.example;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CoarseClockTest {
+
+    private static final Duration RESOLUTION = Duration.ofMillis(5);
+    // Allows for the ticker thread not being scheduled on time on a loaded machine
+    private static final long MAX_LAG_MILLIS = 1000;
+
+    @Test
+    public void neverRunsAheadOfTheSystemClock() throws InterruptedException {
+        try (CoarseClock clock = CoarseClock.start(RESOLUTION, ZoneOffset.UTC)) {
+            long end = System.currentTimeMillis() + 500;
+            long maxLag = 0;
+            while (System.currentTimeMillis() < end) {
+                long coarse = clock.millis();
+                long system = System.currentTimeMillis();
+                assertTrue("Coarse " + coarse + " ahead of system " + system, coarse <= system);
+                maxLag = Math.max(maxLag, system - coarse);
+                Thread.sleep(1);
+            }
+            assertTrue("Lagged " + maxLag + " ms", maxLag <= MAX_LAG_MILLIS);
+        }
+    }
+
+    @Test
+    public void advancesWithTheTicker() throws InterruptedException {
+        try (CoarseClock clock = CoarseClock.start(RESOLUTION, ZoneOffset.UTC)) {
+            long first = clock.epochMillis();
+            long end = System.currentTimeMillis() + MAX_LAG_MILLIS;
+            while (clock.epochMillis() == first && System.currentTimeMillis() < end) {
+                Thread.sleep(RESOLUTION.toMillis());
+            }
+            assertTrue(clock.epochMillis() > first);
+        }
+    }
+
+    @Test
+    public void readsTheSystemClockOnceClosed() {
+        CoarseClock clock = CoarseClock.start(Duration.ofHours(1), ZoneOffset.UTC);
+        clock.close();
+        long before = System.currentTimeMillis();
+        long millis = clock.millis();
+        long after = System.currentTimeMillis();
+        assertTrue(before <= millis && millis <= after);
+    }
+
+    @Test
+    public void localDateTimeIsTruncatedToTheSecondInTheZone() {
+        ZoneId zone = ZoneId.of("Asia/Kathmandu");
+        try (CoarseClock clock = CoarseClock.start(RESOLUTION, zone)) {
+            LocalDateTime before = LocalDateTime.now(zone).truncatedTo(ChronoUnit.SECONDS).minusSeconds(1);
+            LocalDateTime local = clock.localDateTime();
+            LocalDateTime after = LocalDateTime.now(zone);
+            assertEquals(0, local.getNano());
+            assertTrue(local + " not after " + before, !local.isBefore(before));
+            assertTrue(local + " not before " + after, !local.isAfter(after));
+            assertEquals(FastFormatter.READABLE.format(clock.localDateTime()), clock.formatted());
+        }
+    }
+
+    @Test
+    public void sharesTheTickerBetweenZones() {
+        try (CoarseClock clock = CoarseClock.start(RESOLUTION, ZoneOffset.UTC)) {
+            assertSame(clock, clock.withZone(ZoneOffset.UTC));
+            CoarseClock tokyo = clock.withZone(ZoneId.of("Asia/Tokyo"));
+            assertEquals(ZoneId.of("Asia/Tokyo"), tokyo.getZone());
+            assertEquals(clock.getResolution(), tokyo.getResolution());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroResolution() {
+        CoarseClock.start(Duration.ZERO);
+    }
+}
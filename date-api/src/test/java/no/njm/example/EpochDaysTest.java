@@ -0,0 +1,176 @@
+package no.njm.example;
+
+import org.junit.Test;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class EpochDaysTest {
+
+    private static final int[] LIMITS = {Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -1, 0, 1, Integer.MAX_VALUE - 1,
+                                         Integer.MAX_VALUE};
+    private static final long SEED = System.nanoTime();
+
+    private final Random random = new Random(SEED);
+
+    @Test
+    public void dayOfWeekYearAndMonthMatchLocalDate() {
+        int[] epochDays = epochDays(2 * EpochDays.PARALLEL_THRESHOLD + 7);
+        int[] dayOfWeek = new int[epochDays.length];
+        int[] year = new int[epochDays.length];
+        int[] epochMonth = new int[epochDays.length];
+        for (int i = 0; i < epochDays.length; i++) {
+            LocalDate date = LocalDate.ofEpochDay(epochDays[i]);
+            dayOfWeek[i] = date.getDayOfWeek().getValue();
+            year[i] = date.getYear();
+            epochMonth[i] = Math.toIntExact(ChronoUnit.MONTHS.between(LocalDate.of(1970, 1, 1),
+                                                                      date.withDayOfMonth(1)));
+        }
+        for (EpochDays operations : new EpochDays[]{EpochDays.sequential(), EpochDays.common()}) {
+            int[] result = new int[epochDays.length];
+            operations.dayOfWeek(epochDays, result);
+            assertArrayEquals(message("dayOfWeek"), dayOfWeek, result);
+            operations.year(epochDays, result);
+            assertArrayEquals(message("year"), year, result);
+            operations.epochMonth(epochDays, result);
+            assertArrayEquals(message("epochMonth"), epochMonth, result);
+        }
+    }
+
+    @Test
+    public void plusDaysMatchesLocalDate() {
+        for (int epochDay : epochDays(10_000)) {
+            long days = random.nextBoolean() ? random.nextInt() : random.nextLong();
+            check("plusDays " + days, epochDay, date -> date.plusDays(days), (operations, input, result) ->
+                    operations.plusDays(input, days, result));
+        }
+    }
+
+    @Test
+    public void plusMonthsAndYearsMatchLocalDate() {
+        for (int epochDay : epochDays(10_000)) {
+            long months = amount();
+            check("plusMonths " + months, epochDay, date -> date.plusMonths(months), (operations, input, result) ->
+                    operations.plusMonths(input, months, result));
+            long years = amount();
+            check("plusYears " + years, epochDay, date -> date.plusYears(years), (operations, input, result) ->
+                    operations.plusYears(input, years, result));
+        }
+    }
+
+    @Test
+    public void betweenMatchesLocalDate() {
+        int[] start = epochDays(20_000);
+        int[] end = epochDays(20_000);
+        // Also dates close to each other, where the day of month decides whole months
+        for (int i = 0; i < end.length; i += 2) {
+            end[i] = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE,
+                                                                (long) start[i] + random.nextInt(800) - 400));
+        }
+        for (ChronoUnit unit : new ChronoUnit[]{ChronoUnit.DAYS, ChronoUnit.WEEKS, ChronoUnit.MONTHS,
+                                                ChronoUnit.YEARS, ChronoUnit.DECADES, ChronoUnit.CENTURIES,
+                                                ChronoUnit.MILLENNIA, ChronoUnit.ERAS}) {
+            long[] expected = new long[start.length];
+            for (int i = 0; i < start.length; i++) {
+                expected[i] = LocalDate.ofEpochDay(start[i]).until(LocalDate.ofEpochDay(end[i]), unit);
+            }
+            long[] result = new long[start.length];
+            EpochDays.common().between(unit, start, end, result);
+            assertArrayEquals(message("between " + unit), expected, result);
+        }
+    }
+
+    @Test
+    public void toEpochDayMatchesLocalDate() {
+        for (int i = 0; i < 100_000; i++) {
+            int year = i % 10 == 0 ? random.nextInt(2_000_000_001) - 1_000_000_000 : random.nextInt(400) + 1800;
+            int month = random.nextInt(12) + 1;
+            int day = random.nextInt(31) + 1;
+            String date = year + "-" + month + "-" + day;
+            Long expected;
+            try {
+                expected = LocalDate.of(year, month, day).toEpochDay();
+            } catch (DateTimeException e) {
+                expected = null;
+            }
+            try {
+                long result = EpochDays.toEpochDay(year, month, day);
+                assertEquals(message(date), expected, Long.valueOf(result));
+            } catch (DateTimeException e) {
+                if (expected != null) {
+                    throw new AssertionError(message(date + " failed, expected " + expected), e);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+
+        void apply(EpochDays operations, int[] epochDays, int[] result);
+    }
+
+    /**
+     * Checks the operation on one date against LocalDate, which must fail the same way if the result is not an
+     * int epoch day.
+     */
+    private void check(String name, int epochDay, UnaryOperator<LocalDate> expectedOf, Operation operation) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        Long expected;
+        try {
+            long expectedDay = expectedOf.apply(date).toEpochDay();
+            expected = expectedDay == (int) expectedDay ? expectedDay : null;
+        } catch (DateTimeException | ArithmeticException e) {
+            expected = null;
+        }
+        int[] result = new int[1];
+        try {
+            operation.apply(EpochDays.sequential(), new int[]{epochDay}, result);
+        } catch (DateTimeException e) {
+            if (expected != null) {
+                throw new AssertionError(message(name + " of " + date + " failed, expected " + expected), e);
+            }
+            return;
+        }
+        if (expected == null) {
+            fail(message(name + " of " + date + " returned " + result[0] + ", expected to fail"));
+        }
+        assertEquals(message(name + " of " + date), (long) expected, result[0]);
+    }
+
+    /**
+     * Dates over the whole int range, the limits, and dates around today where most real dates are.
+     */
+    private int[] epochDays(int count) {
+        int[] epochDays = new int[count];
+        System.arraycopy(LIMITS, 0, epochDays, 0, LIMITS.length);
+        for (int i = LIMITS.length; i < count; i++) {
+            epochDays[i] = random.nextBoolean() ? random.nextInt() : random.nextInt(146_097) - 25_567;
+        }
+        return epochDays;
+    }
+
+    private long amount() {
+        switch (random.nextInt(4)) {
+            case 0:
+                return random.nextInt(2400) - 1200;
+            case 1:
+                return random.nextInt();
+            case 2:
+                return random.nextLong();
+            default:
+                return random.nextBoolean() ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+    }
+
+    private static String message(String text) {
+        return text + " (seed " + SEED + ")";
+    }
+}
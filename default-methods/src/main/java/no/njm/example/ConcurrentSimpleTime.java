@@ -0,0 +1,79 @@
+package no.njm.example;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoField;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A SimpleTime that can be shared by threads. The date and time are kept in one AtomicLong as microseconds since
+ * 1970-01-01T00:00 on the local time-line, so setDate and setTime replace their half by compare-and-set without
+ * losing a concurrent update of the other half, and reads never wait.
+ * <p>
+ * The time is kept to the microsecond, and the year must be within 290000 years of 1970.
+ */
+public class ConcurrentSimpleTime implements SimpleTime {
+
+    private static final long MICROS_PER_SECOND = 1_000_000;
+    private static final long MICROS_PER_DAY = 86_400 * MICROS_PER_SECOND;
+    private static final long MIN_EPOCH_DAY = Long.MIN_VALUE / MICROS_PER_DAY + 1;
+    private static final long MAX_EPOCH_DAY = Long.MAX_VALUE / MICROS_PER_DAY - 1;
+
+    private final AtomicLong epochMicros;
+
+    public ConcurrentSimpleTime() {
+        this(LocalDateTime.now());
+    }
+
+    public ConcurrentSimpleTime(Clock clock) {
+        this(LocalDateTime.now(clock));
+    }
+
+    public ConcurrentSimpleTime(LocalDateTime localDateTime) {
+        long epochDay = checkEpochDay(localDateTime.toLocalDate().toEpochDay());
+        long timeMicros = localDateTime.toLocalTime().toNanoOfDay() / 1000;
+        epochMicros = new AtomicLong(epochDay * MICROS_PER_DAY + timeMicros);
+    }
+
+    @Override
+    public void setTime(int hour, int minute, int second) {
+        ChronoField.HOUR_OF_DAY.checkValidValue(hour);
+        ChronoField.MINUTE_OF_HOUR.checkValidValue(minute);
+        ChronoField.SECOND_OF_MINUTE.checkValidValue(second);
+        long timeMicros = ((hour * 60L + minute) * 60 + second) * MICROS_PER_SECOND;
+        long current;
+        long updated;
+        do {
+            current = epochMicros.get();
+            updated = Math.floorDiv(current, MICROS_PER_DAY) * MICROS_PER_DAY + timeMicros;
+        } while (!epochMicros.compareAndSet(current, updated));
+    }
+
+    @Override
+    public void setDate(int day, int month, int year) {
+        long epochDay = checkEpochDay(EpochDays.toEpochDay(year, month, day));
+        long current;
+        long updated;
+        do {
+            current = epochMicros.get();
+            updated = epochDay * MICROS_PER_DAY + Math.floorMod(current, MICROS_PER_DAY);
+        } while (!epochMicros.compareAndSet(current, updated));
+    }
+
+    @Override
+    public LocalDateTime currentLocalDateTime() {
+        long micros = epochMicros.get();
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                                           (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1000, ZoneOffset.UTC);
+    }
+
+    private static long checkEpochDay(long epochDay) {
+        if (epochDay < MIN_EPOCH_DAY || epochDay > MAX_EPOCH_DAY) {
+            throw new DateTimeException("Date out of range: " + LocalDate.ofEpochDay(epochDay));
+        }
+        return epochDay;
+    }
+}
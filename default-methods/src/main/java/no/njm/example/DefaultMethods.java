@@ -3,16 +3,14 @@ package no.njm.example;
         import org.slf4j.Logger;
         import org.slf4j.LoggerFactory;
 
-        import java.time.format.DateTimeFormatter;
+        import java.time.Duration;
+        import java.time.LocalDateTime;
+        import java.time.ZoneId;
+        import java.util.concurrent.TimeUnit;
 
 public class DefaultMethods {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultMethods.class);
-    private static final DateTimeFormatter READABLE_FORMAT;
-
-    static {
-        READABLE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
-    }
 
     public static void main(String[] args) {
         SimpleTime timeUtil = new SimpleTimeUtil();
@@ -26,6 +24,31 @@ public class DefaultMethods {
 
         log.debug("ISO 8601 LocalDateTime is {}", timeUtil.zonedDateTime("Asia/Tokyo"));
 
-        log.debug("Readable LocalDateTime is {}", timeUtil.currentLocalDateTime().format(READABLE_FORMAT));
+        log.debug("Readable LocalDateTime is {}", timeUtil.currentLocalDateTime().format(FastFormatter.READABLE));
+
+        // Overridden default methods, which create no objects for the zone and the formatting
+        ZoneId tokyo = SimpleTime.getZoneId("Asia/Tokyo");
+        log.debug("Epoch millis in Tokyo is {}", timeUtil.epochMillisIn(tokyo));
+        StringBuilder builder = new StringBuilder();
+        log.debug("Formatted into a builder is {}", timeUtil.formatInto(builder, tokyo));
+
+        // Threads sharing a SimpleTime need one that does not lose concurrent updates
+        SimpleTime sharedTime = new ConcurrentSimpleTime(timeUtil.currentLocalDateTime());
+        Thread dateSetter = new Thread(() -> sharedTime.setDate(17, 5, 2015));
+        dateSetter.start();
+        sharedTime.setTime(12, 0, 0);
+        try {
+            dateSetter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.debug("Shared LocalDateTime is {}", sharedTime.currentLocalDateTime());
+
+        // Timers driven by a SimpleTime fire when it is set ahead and the wheel advanced, without waiting
+        SimpleTime wallClock = new ConcurrentSimpleTime(LocalDateTime.of(2015, 5, 17, 12, 0));
+        TimerWheel timers = TimerWheel.of(wallClock, Duration.ofSeconds(1), Runnable::run);
+        timers.schedule(() -> log.debug("Timer fired at {}", wallClock.currentLocalDateTime()), 90, TimeUnit.SECONDS);
+        wallClock.setTime(12, 2, 0);
+        timers.advance();
     }
 }
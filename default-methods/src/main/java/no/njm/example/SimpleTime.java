@@ -1,9 +1,9 @@
 package no.njm.example;
 
-import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 
 /**
  * Default methods enable you to add new functionality to the interfaces of your
@@ -16,15 +16,14 @@ public interface SimpleTime {
      * Static methods is added to Java 8 interfaces in order to assist default methods
      * and reduce the need for utility classes.
      *
+     * The zones are cached, so an invalid id falls back to the default zone without throwing an exception each time.
+     *
      * @param zoneId A string identifying the time zone, eg. "Asia/Tokyo"
      * @return A ZoneId instance
      */
     static ZoneId getZoneId(String zoneId) {
-        try {
-            return ZoneId.of(zoneId);
-        } catch (DateTimeException e) {
-            return ZoneId.systemDefault();
-        }
+        ZoneId zone = ZoneCache.of(zoneId, null);
+        return zone != null ? zone : ZoneId.systemDefault();
     }
 
     void setTime(int hour, int minute, int second);
@@ -36,4 +35,22 @@ public interface SimpleTime {
     default ZonedDateTime zonedDateTime(String zoneString) {
         return ZonedDateTime.of(currentLocalDateTime(), getZoneId(zoneString));
     }
+
+    /**
+     * New default methods are inherited by every existing implementation, which may override them with a faster one.
+     *
+     * @return The milliseconds from 1970-01-01T00:00Z to the current date and time in the zone
+     */
+    default long epochMillisIn(ZoneId zone) {
+        return ZonedDateTime.of(currentLocalDateTime(), zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Appends the current date and time in the zone as DateTimeFormatter.ISO_ZONED_DATE_TIME,
+     * eg. 2014-06-25T22:10:30+09:00[Asia/Tokyo].
+     */
+    default StringBuilder formatInto(StringBuilder target, ZoneId zone) {
+        DateTimeFormatter.ISO_ZONED_DATE_TIME.formatTo(ZonedDateTime.of(currentLocalDateTime(), zone), target);
+        return target;
+    }
 }
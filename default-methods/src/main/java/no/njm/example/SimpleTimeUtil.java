@@ -1,33 +1,85 @@
 package no.njm.example;
 
-import java.time.LocalDate;
+import java.time.Clock;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoField;
 
+/**
+ * Keeps the date and time as the epoch day, second of day and nano of second, so setting them creates no objects.
+ * The LocalDateTime is created when asked for and kept until the next change, and epochMillisIn and formatInto
+ * work on the primitives and the cached offsets of the zone. Not thread-safe, see {@link ConcurrentSimpleTime}.
+ */
 public class SimpleTimeUtil implements SimpleTime {
 
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int NANOS_PER_MILLI = 1_000_000;
+
+    private long epochDay;
+    private int secondOfDay;
+    private int nano;
     private LocalDateTime localDateTime;
 
     public SimpleTimeUtil() {
-        localDateTime = LocalDateTime.now();
+        this(LocalDateTime.now());
+    }
+
+    public SimpleTimeUtil(Clock clock) {
+        this(LocalDateTime.now(clock));
+    }
+
+    private SimpleTimeUtil(LocalDateTime localDateTime) {
+        this.epochDay = localDateTime.toLocalDate().toEpochDay();
+        this.secondOfDay = localDateTime.toLocalTime().toSecondOfDay();
+        this.nano = localDateTime.getNano();
+        this.localDateTime = localDateTime;
     }
 
     @Override
     public void setTime(int hour, int minute, int second) {
-        LocalDate date = LocalDate.from(localDateTime);
-        LocalTime time = LocalTime.of(hour, minute, second);
-        localDateTime = LocalDateTime.of(date, time);
+        ChronoField.HOUR_OF_DAY.checkValidValue(hour);
+        ChronoField.MINUTE_OF_HOUR.checkValidValue(minute);
+        ChronoField.SECOND_OF_MINUTE.checkValidValue(second);
+        secondOfDay = (hour * 60 + minute) * 60 + second;
+        nano = 0;
+        localDateTime = null;
     }
 
     @Override
     public void setDate(int day, int month, int year) {
-        LocalDate date = LocalDate.of(year, month, day);
-        LocalTime time = LocalTime.from(localDateTime);
-        localDateTime = LocalDateTime.of(date, time);
+        epochDay = EpochDays.toEpochDay(year, month, day);
+        localDateTime = null;
     }
 
     @Override
     public LocalDateTime currentLocalDateTime() {
+        if (localDateTime == null) {
+            localDateTime = LocalDateTime.ofEpochSecond(localEpochSecond(), nano, ZoneOffset.UTC);
+        }
         return localDateTime;
     }
+
+    @Override
+    public long epochMillisIn(ZoneId zone) {
+        long epochSecond = ZoneCache.offsets(zone).toEpochSecond(localEpochSecond());
+        return Math.addExact(Math.multiplyExact(epochSecond, 1000), nano / NANOS_PER_MILLI);
+    }
+
+    @Override
+    public StringBuilder formatInto(StringBuilder target, ZoneId zone) {
+        OffsetTable offsets = ZoneCache.offsets(zone);
+        long epochSecond = offsets.toEpochSecond(localEpochSecond());
+        // A time in a gap is moved past it, so the local time is taken from the instant
+        ZoneOffset offset = offsets.offset(epochSecond);
+        FastFormatter.formatIso(epochSecond + offset.getTotalSeconds(), nano, target).append(offset.getId());
+        if (!(zone instanceof ZoneOffset)) {
+            target.append('[').append(zone.getId()).append(']');
+        }
+        return target;
+    }
+
+    private long localEpochSecond() {
+        return epochDay * SECONDS_PER_DAY + secondOfDay;
+    }
 }
@@ -0,0 +1,431 @@
+package no.njm.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs tasks at deadlines read from a Clock or a SimpleTime, for millions of timers at a time.
+ * <p>
+ * The timers are kept in a hierarchical timing wheel of {@link #LEVELS} wheels with 64 slots each. The slots of
+ * the first wheel are one tick long, and each slot of a higher wheel spans a whole turn of the wheel below. A timer
+ * goes into the wheel of the highest bit where its deadline differs from the current tick, and moves down a wheel
+ * when the ticks reach its slot, until it expires in the first wheel. Scheduling and cancelling only add the timer
+ * to a queue and are O(1), whatever the number of timers.
+ * <p>
+ * One thread advances the wheel, either the ticker started by {@link #start()} or the caller of
+ * {@link #advance()}, so tests can set a SimpleTime or a fixed Clock and advance deterministically. It fires all
+ * timers due up to the current time, in order of their ticks, and hands them to the executor in batches of up to
+ * {@link #BATCH_SIZE} timers, each batch run as one task. A batch the executor rejects is kept and handed off again
+ * at the next advance, unless the executor is an ExecutorService that has been shut down, which cancels its timers.
+ * Rejections are logged once until the executor takes a batch again. A timer never fires before its deadline, and
+ * fires up to a tick late, or later if the ticker is delayed or the executor rejects it. If the time is set back by
+ * a few ticks, the wheel waits for it to catch up. If it jumps further either way, e.g. when a SimpleTime is set to
+ * another date, all timers are placed again relative to the new time, which takes time in proportion to their
+ * number.
+ */
+public final class TimerWheel implements Closeable {
+
+    public static final int LEVELS = 6;
+    public static final int BATCH_SIZE = 256;
+
+    private static final Logger log = LoggerFactory.getLogger(TimerWheel.class);
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    // Beyond this many ticks at once all timers are placed again, instead of stepping through each tick
+    private static final long MAX_STEPPED_TICKS = 1 << 12;
+
+    private final LongSupplier epochMillis;
+    private final long tickMillis;
+    private final long originMillis;
+    private final Executor executor;
+    private final Bucket[][] wheels = new Bucket[LEVELS][SLOTS];
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final List<Timeout> due = new ArrayList<>();
+    // Timers for ticks the wheel has passed but the time has not, after the time was set back
+    private final List<Timeout> waiting = new ArrayList<>();
+    private long currentTick;
+    private long timeTick;
+    // Whether the last batches handed off were rejected, so an executor rejecting every tick is logged once
+    private boolean rejecting;
+    private volatile Ticker ticker;
+
+    private TimerWheel(LongSupplier epochMillis, Duration tick, Executor executor) {
+        if (tick.toMillis() < 1) {
+            throw new IllegalArgumentException("Tick must be at least a millisecond, was " + tick);
+        }
+        this.epochMillis = epochMillis;
+        this.tickMillis = tick.toMillis();
+        this.originMillis = epochMillis.getAsLong();
+        this.executor = Objects.requireNonNull(executor);
+        for (Bucket[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[slot] = new Bucket();
+            }
+        }
+    }
+
+    /**
+     * A wheel at the time of the clock, which is not advanced until started.
+     */
+    public static TimerWheel of(Clock clock, Duration tick, Executor executor) {
+        return new TimerWheel(clock::millis, tick, executor);
+    }
+
+    /**
+     * A wheel at the date and time of the SimpleTime, taken as UTC so that it never skips or repeats an hour.
+     * The SimpleTime must be thread-safe, such as {@link ConcurrentSimpleTime}, if timers are scheduled by other
+     * threads than the one setting it.
+     */
+    public static TimerWheel of(SimpleTime time, Duration tick, Executor executor) {
+        Objects.requireNonNull(time);
+        return new TimerWheel(() -> time.epochMillisIn(ZoneOffset.UTC), tick, executor);
+    }
+
+    /**
+     * Starts a daemon thread advancing the wheel every tick.
+     */
+    public synchronized TimerWheel start() {
+        if (ticker != null) {
+            throw new IllegalStateException("Already started");
+        }
+        ticker = new Ticker();
+        ticker.start();
+        return this;
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long now = epochMillis.getAsLong();
+        long delayMillis = unit.toMillis(Math.max(0, delay));
+        if (delayMillis < Long.MAX_VALUE && unit.convert(delayMillis, TimeUnit.MILLISECONDS) < delay) {
+            // Rounded up, so a delay of part of a millisecond does not fire early
+            delayMillis++;
+        }
+        return scheduleAt(task, now > Long.MAX_VALUE - delayMillis ? Long.MAX_VALUE : now + delayMillis);
+    }
+
+    public Timeout scheduleAt(Runnable task, long deadlineEpochMilli) {
+        Timeout timeout = new Timeout(this, Objects.requireNonNull(task), deadlineEpochMilli);
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Fires the timers that are due at the current time, and places those scheduled since the last advance.
+     * Called by the ticker once started.
+     */
+    public synchronized void advance() {
+        long targetTick = Math.floorDiv(millisSinceOrigin(epochMillis.getAsLong()), tickMillis);
+        timeTick = targetTick;
+        removeCancelled();
+        placeScheduled();
+        if (Math.abs(targetTick - currentTick) > MAX_STEPPED_TICKS) {
+            jumpTo(targetTick);
+        } else if (!waiting.isEmpty()) {
+            List<Timeout> reached = new ArrayList<>(waiting);
+            waiting.clear();
+            reached.forEach(this::place);
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            expire(currentTick);
+        }
+        handOff();
+    }
+
+    /**
+     * Stops the ticker. The timers are kept and fire when the wheel is advanced by the caller, but the wheel cannot
+     * be started again.
+     */
+    @Override
+    public void close() {
+        Ticker current = ticker;
+        if (current != null) {
+            current.running = false;
+            LockSupport.unpark(current);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TimerWheel[tick " + tickMillis + " ms, at tick " + currentTick + "]";
+    }
+
+    /**
+     * The first tick at or after the deadline, so no timer fires early.
+     */
+    private long tickOf(long deadlineEpochMilli) {
+        long millis = millisSinceOrigin(deadlineEpochMilli);
+        return Math.floorDiv(millis, tickMillis) + (Math.floorMod(millis, tickMillis) == 0 ? 0 : 1);
+    }
+
+    /**
+     * Milliseconds from the origin to the time, saturated to the range of a long for the extreme deadlines.
+     */
+    private long millisSinceOrigin(long epochMilli) {
+        long millis = epochMilli - originMillis;
+        // Overflowed if the operands have different signs and the result has not the sign of the time
+        if (((epochMilli ^ originMillis) & (epochMilli ^ millis)) < 0) {
+            return epochMilli < originMillis ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return millis;
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void placeScheduled() {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            place(timeout);
+        }
+    }
+
+    private void place(Timeout timeout) {
+        if (timeout.state != Timeout.PENDING) {
+            return;
+        }
+        long deadlineTick = tickOf(timeout.deadline);
+        if (deadlineTick <= currentTick) {
+            (deadlineTick <= timeTick ? due : waiting).add(timeout);
+            return;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(deadlineTick ^ currentTick);
+        int level = Math.min(highestBit / SLOT_BITS, LEVELS - 1);
+        int slot = (int) (deadlineTick >>> level * SLOT_BITS) & SLOTS - 1;
+        wheels[level][slot].add(timeout);
+    }
+
+    /**
+     * Moves the timers of the higher wheels whose slot starts at the tick down, and expires those of the first wheel.
+     */
+    private void expire(long tick) {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((tick & (1L << level * SLOT_BITS) - 1) == 0) {
+                int slot = (int) (tick >>> level * SLOT_BITS) & SLOTS - 1;
+                for (Timeout timeout = wheels[level][slot].clear(); timeout != null; ) {
+                    Timeout next = timeout.next;
+                    timeout.next = null;
+                    place(timeout);
+                    timeout = next;
+                }
+            }
+        }
+        for (Timeout timeout = wheels[0][(int) tick & SLOTS - 1].clear(); timeout != null; ) {
+            Timeout next = timeout.next;
+            timeout.next = null;
+            due.add(timeout);
+            timeout = next;
+        }
+    }
+
+    private void jumpTo(long targetTick) {
+        List<Timeout> all = new ArrayList<>(waiting);
+        waiting.clear();
+        for (Bucket[] wheel : wheels) {
+            for (Bucket bucket : wheel) {
+                for (Timeout timeout = bucket.clear(); timeout != null; ) {
+                    Timeout next = timeout.next;
+                    timeout.next = null;
+                    all.add(timeout);
+                    timeout = next;
+                }
+            }
+        }
+        // Sorted so the due timers still fire in order of their deadlines
+        all.sort((left, right) -> Long.compare(left.deadline, right.deadline));
+        currentTick = targetTick;
+        for (Timeout timeout : all) {
+            place(timeout);
+        }
+    }
+
+    /**
+     * Hands the due timers to the executor, and keeps those of rejected batches in due for the next advance, or
+     * cancels them if the executor is shut down and never takes them.
+     */
+    private void handOff() {
+        int size = due.size();
+        int kept = 0;
+        RuntimeException rejection = null;
+        for (int from = 0; from < size; from += BATCH_SIZE) {
+            List<Timeout> batch = new ArrayList<>(due.subList(from, Math.min(size, from + BATCH_SIZE)));
+            try {
+                executor.execute(() -> {
+                    for (Timeout timeout : batch) {
+                        timeout.run();
+                    }
+                });
+                continue;
+            } catch (RuntimeException e) {
+                rejection = e;
+            }
+            if (executor instanceof ExecutorService && ((ExecutorService) executor).isShutdown()) {
+                batch.forEach(Timeout::cancel);
+            } else {
+                for (Timeout timeout : batch) {
+                    due.set(kept++, timeout);
+                }
+            }
+        }
+        due.subList(kept, size).clear();
+        if (rejection != null && !rejecting) {
+            log.warn("Executor rejected timers of {}, keeping them for the next advance unless it is shut down",
+                     this, rejection);
+        }
+        if (size > 0) {
+            rejecting = rejection != null;
+        }
+    }
+
+    /**
+     * A scheduled task, which can be cancelled until it expires.
+     */
+    public static final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimerWheel wheel;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state;
+        // Only used by the thread advancing the wheel
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(TimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * Cancels the task unless it has expired, and returns whether it was cancelled by this call.
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private void run() {
+            if (STATE.compareAndSet(this, PENDING, EXPIRED)) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.warn("Timer task {} failed", task, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * The timers of a slot, in a doubly linked list through the timers so any one is removed in O(1).
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = null;
+            timeout.next = head;
+            if (head != null) {
+                head.previous = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        /**
+         * Empties the bucket and returns its timers, linked by next.
+         */
+        Timeout clear() {
+            Timeout first = head;
+            for (Timeout timeout = first; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+                timeout.previous = null;
+            }
+            head = null;
+            return first;
+        }
+    }
+
+    private final class Ticker extends Thread {
+
+        volatile boolean running = true;
+
+        Ticker() {
+            super("timer-wheel");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+            while (running) {
+                LockSupport.parkNanos(this, tickNanos);
+                try {
+                    advance();
+                } catch (RuntimeException e) {
+                    // E.g. from the time source, before the wheel has changed, so the next tick tries again
+                    log.error("Failed to advance {}", TimerWheel.this, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package no.njm.example;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentSimpleTimeTest {
+
+    private static final int READERS = 2;
+    private static final int ROUNDS = 5;
+    private static final int UPDATES = 1_000_000;
+    private static final int YEAR = 2000;
+
+    @Test
+    public void setsTheDateAndTime() {
+        ConcurrentSimpleTime time = new ConcurrentSimpleTime(LocalDateTime.of(2014, 6, 1, 10, 30, 15, 123_456_789));
+        assertEquals(LocalDateTime.of(2014, 6, 1, 10, 30, 15, 123_456_000), time.currentLocalDateTime());
+        time.setDate(29, 2, 2016);
+        time.setTime(23, 59, 58);
+        assertEquals(LocalDateTime.of(2016, 2, 29, 23, 59, 58), time.currentLocalDateTime());
+        time.setDate(1, 1, -5);
+        assertEquals(LocalDateTime.of(-5, 1, 1, 23, 59, 58), time.currentLocalDateTime());
+    }
+
+    /**
+     * One setter owns the date and one the time, so each must find what it set last whatever the other does, both
+     * right after setting it and before setting the next, and the final state holds the last date and the last time
+     * set. A setter writing back a stale value of the other half shows up as a value that the other setter had
+     * replaced. The values cycle through many dates and times, so a stale one differs from the current one.
+     */
+    @Test
+    public void keepsConcurrentUpdatesOfTheDateAndTime() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            race(new ConcurrentSimpleTime(LocalDateTime.of(YEAR, 1, 1, 0, 0)));
+        }
+    }
+
+    private static void race(SimpleTime time) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(2 + READERS);
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(2 + READERS);
+        try {
+            Future<LocalDate> dateSetter = executor.submit(dateSetter(time, start));
+            Future<LocalTime> timeSetter = executor.submit(timeSetter(time, start));
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int reader = 0; reader < READERS; reader++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    int reads = 0;
+                    while (!done.get()) {
+                        LocalDateTime read = time.currentLocalDateTime();
+                        assertEquals(YEAR, read.getYear());
+                        assertEquals(0, read.getNano());
+                        reads++;
+                    }
+                    return reads;
+                }));
+            }
+            LocalDate date = dateSetter.get(1, TimeUnit.MINUTES);
+            LocalTime localTime = timeSetter.get(1, TimeUnit.MINUTES);
+            done.set(true);
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get(1, TimeUnit.MINUTES) > 0);
+            }
+            assertEquals(LocalDateTime.of(date, localTime), time.currentLocalDateTime());
+        } finally {
+            // Also stops the readers when a setter failed, as they do not check for interrupts
+            done.set(true);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Sets dates cycling through the days of the year, and returns the last one set.
+     */
+    private static Callable<LocalDate> dateSetter(SimpleTime time, CyclicBarrier start) {
+        return () -> {
+            start.await();
+            LocalDate date = LocalDate.of(YEAR, 1, 1);
+            for (int update = 0; update < UPDATES; update++) {
+                assertEquals("Lost date update", date, time.currentLocalDateTime().toLocalDate());
+                date = LocalDate.ofYearDay(YEAR, 1 + update % 365);
+                time.setDate(date.getDayOfMonth(), date.getMonthValue(), date.getYear());
+                assertEquals("Lost date update", date, time.currentLocalDateTime().toLocalDate());
+            }
+            return date;
+        };
+    }
+
+    /**
+     * Sets times cycling through the seconds of the day, and returns the last one set.
+     */
+    private static Callable<LocalTime> timeSetter(SimpleTime time, CyclicBarrier start) {
+        return () -> {
+            start.await();
+            LocalTime localTime = LocalTime.MIDNIGHT;
+            for (int update = 0; update < UPDATES; update++) {
+                assertEquals("Lost time update", localTime, time.currentLocalDateTime().toLocalTime());
+                localTime = LocalTime.ofSecondOfDay(update * 7919L % 86_400);
+                time.setTime(localTime.getHour(), localTime.getMinute(), localTime.getSecond());
+                assertEquals("Lost time update", localTime, time.currentLocalDateTime().toLocalTime());
+            }
+            return localTime;
+        };
+    }
+}
@@ -0,0 +1,273 @@
+package no.njm.example;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TimerWheelTest {
+
+    private static final long START = 1_400_000_000_000L;
+    private static final long TICK = 10;
+
+    private final SettableClock clock = new SettableClock(START);
+
+    @Test
+    public void firesWithinATickAfterTheDeadline() {
+        TimerWheel wheel = TimerWheel.of(clock, Duration.ofMillis(TICK), Runnable::run);
+        Random random = new Random(42);
+        List<long[]> fired = new ArrayList<>();
+        List<TimerWheel.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            long delay = random.nextInt(5000);
+            long[] firedAt = {-1};
+            fired.add(firedAt);
+            timeouts.add(wheel.schedule(() -> firedAt[0] = clock.millis(), delay, TimeUnit.MILLISECONDS));
+        }
+        while (clock.millis() < START + 5000 + TICK) {
+            clock.set(clock.millis() + 1 + random.nextInt((int) TICK));
+            wheel.advance();
+        }
+        for (int i = 0; i < timeouts.size(); i++) {
+            long deadline = timeouts.get(i).getDeadline();
+            long firedAt = fired.get(i)[0];
+            assertTrue("Fired at " + firedAt + " before " + deadline, firedAt >= deadline);
+            // A tick late at most, plus the step of the clock past the tick
+            assertTrue("Fired at " + firedAt + " long after " + deadline, firedAt < deadline + 2 * TICK);
+            assertTrue(timeouts.get(i).isExpired());
+        }
+    }
+
+    @Test
+    public void doesNotRunCancelledTimers() {
+        TimerWheel wheel = TimerWheel.of(clock, Duration.ofMillis(TICK), Runnable::run);
+        AtomicInteger runs = new AtomicInteger();
+        TimerWheel.Timeout placed = wheel.schedule(runs::incrementAndGet, 100, TimeUnit.MILLISECONDS);
+        clock.advance(50);
+        wheel.advance();
+        TimerWheel.Timeout unplaced = wheel.schedule(runs::incrementAndGet, 10, TimeUnit.MILLISECONDS);
+        assertTrue(placed.cancel());
+        assertTrue(unplaced.cancel());
+        assertFalse(placed.cancel());
+        clock.advance(200);
+        wheel.advance();
+        assertEquals(0, runs.get());
+        assertTrue(placed.isCancelled());
+        assertFalse(placed.isExpired());
+    }
+
+    @Test
+    public void firesAfterJumpsForwardAndBack() {
+        TimerWheel wheel = TimerWheel.of(clock, Duration.ofMillis(TICK), Runnable::run);
+        AtomicInteger runs = new AtomicInteger();
+        TimerWheel.Timeout soon = wheel.schedule(runs::incrementAndGet, 1, TimeUnit.SECONDS);
+        TimerWheel.Timeout late = wheel.schedule(runs::incrementAndGet, 1, TimeUnit.DAYS);
+        // Far beyond the ticks stepped through one by one
+        clock.advance(TimeUnit.HOURS.toMillis(1));
+        wheel.advance();
+        assertTrue(soon.isExpired());
+        assertFalse(late.isExpired());
+        // Back by a few ticks, then back by days, where no timer is due until the time catches up again
+        clock.advance(-3 * TICK);
+        wheel.advance();
+        clock.advance(-TimeUnit.DAYS.toMillis(2));
+        wheel.advance();
+        clock.set(late.getDeadline() - 1);
+        wheel.advance();
+        assertFalse(late.isExpired());
+        clock.set(late.getDeadline() + TICK);
+        wheel.advance();
+        assertTrue(late.isExpired());
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void waitsForTheTimeAfterASmallStepBack() {
+        TimerWheel wheel = TimerWheel.of(clock, Duration.ofMillis(TICK), Runnable::run);
+        clock.advance(10 * TICK);
+        wheel.advance();
+        clock.advance(-5 * TICK);
+        wheel.advance();
+        TimerWheel.Timeout timeout = wheel.schedule(() -> { }, 2 * TICK, TimeUnit.MILLISECONDS);
+        clock.advance(TICK);
+        wheel.advance();
+        assertFalse(timeout.isExpired());
+        clock.advance(TICK);
+        wheel.advance();
+        assertTrue(timeout.isExpired());
+    }
+
+    /**
+     * A rejected batch must not drop the batches after it, and is handed off again at the next advance.
+     */
+    @Test
+    public void handsOffRejectedBatchesAgain() {
+        RejectingExecutor executor = new RejectingExecutor();
+        TimerWheel wheel = TimerWheel.of(clock, Duration.ofMillis(TICK), executor);
+        AtomicInteger runs = new AtomicInteger();
+        List<TimerWheel.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 3 * TimerWheel.BATCH_SIZE; i++) {
+            timeouts.add(wheel.schedule(runs::incrementAndGet, 5 * TICK, TimeUnit.MILLISECONDS));
+        }
+        executor.reject = 2;
+        clock.advance(10 * TICK);
+        wheel.advance();
+        assertEquals(2 * TimerWheel.BATCH_SIZE, runs.get());
+        long pending = timeouts.stream().filter(timeout -> !timeout.isExpired()).count();
+        assertEquals(TimerWheel.BATCH_SIZE, pending);
+        wheel.advance();
+        assertEquals(3 * TimerWheel.BATCH_SIZE, runs.get());
+        assertTrue(timeouts.stream().allMatch(TimerWheel.Timeout::isExpired));
+    }
+
+    @Test
+    public void cancelsTimersRejectedByAShutDownExecutor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        TimerWheel wheel = TimerWheel.of(clock, Duration.ofMillis(TICK), executor);
+        TimerWheel.Timeout timeout = wheel.schedule(() -> { }, TICK, TimeUnit.MILLISECONDS);
+        clock.advance(2 * TICK);
+        wheel.advance();
+        assertTrue(timeout.isCancelled());
+    }
+
+    @Test
+    public void keepsTimersWhenClosed() {
+        TimerWheel wheel = TimerWheel.of(clock, Duration.ofHours(1), Runnable::run).start();
+        TimerWheel.Timeout timeout = wheel.schedule(() -> { }, 1, TimeUnit.HOURS);
+        wheel.close();
+        clock.advance(TimeUnit.HOURS.toMillis(1));
+        wheel.advance();
+        assertTrue(timeout.isExpired());
+        try {
+            wheel.start();
+            fail("Started again");
+        } catch (IllegalStateException expected) {
+            // Not restartable
+        }
+    }
+
+    @Test
+    public void roundsDelaysUpToTheMillisecond() {
+        TimerWheel wheel = TimerWheel.of(clock, Duration.ofMillis(TICK), Runnable::run);
+        assertEquals(START + 1, wheel.schedule(() -> { }, 1, TimeUnit.NANOSECONDS).getDeadline());
+        assertEquals(START + 2, wheel.schedule(() -> { }, 1500, TimeUnit.MICROSECONDS).getDeadline());
+        assertEquals(START + 2, wheel.schedule(() -> { }, 2000, TimeUnit.MICROSECONDS).getDeadline());
+        assertEquals(START + 3000, wheel.schedule(() -> { }, 3, TimeUnit.SECONDS).getDeadline());
+        assertEquals(START, wheel.schedule(() -> { }, -1, TimeUnit.NANOSECONDS).getDeadline());
+        assertEquals(Long.MAX_VALUE, wheel.schedule(() -> { }, Long.MAX_VALUE, TimeUnit.DAYS).getDeadline());
+        TimerWheel.Timeout timeout = wheel.schedule(() -> { }, 1, TimeUnit.MICROSECONDS);
+        wheel.advance();
+        assertFalse(timeout.isExpired());
+    }
+
+    @Test
+    public void doesNotFireEarlyBefore1970() {
+        ConcurrentSimpleTime time = new ConcurrentSimpleTime(LocalDateTime.of(1960, 1, 1, 0, 0));
+        TimerWheel wheel = TimerWheel.of(time, Duration.ofMillis(1), Runnable::run);
+        long now = time.epochMillisIn(ZoneOffset.UTC);
+        TimerWheel.Timeout timeout = wheel.schedule(() -> { }, 1, TimeUnit.HOURS);
+        assertEquals(now + TimeUnit.HOURS.toMillis(1), timeout.getDeadline());
+        wheel.advance();
+        assertFalse(timeout.isExpired());
+        time.setTime(0, 59, 59);
+        wheel.advance();
+        assertFalse(timeout.isExpired());
+        time.setTime(1, 0, 0);
+        wheel.advance();
+        assertTrue(timeout.isExpired());
+    }
+
+    @Test
+    public void handlesExtremeDeadlines() {
+        for (long start : new long[]{START, -START}) {
+            clock.set(start);
+            TimerWheel wheel = TimerWheel.of(clock, Duration.ofMillis(1), Runnable::run);
+            TimerWheel.Timeout never = wheel.schedule(() -> { }, Long.MAX_VALUE, TimeUnit.DAYS);
+            // Saturated unless the start is before 1970, where the sum still fits
+            assertEquals(start > 0 ? Long.MAX_VALUE : start + Long.MAX_VALUE, never.getDeadline());
+            TimerWheel.Timeout last = wheel.scheduleAt(() -> { }, Long.MAX_VALUE);
+            TimerWheel.Timeout first = wheel.scheduleAt(() -> { }, Long.MIN_VALUE);
+            TimerWheel.Timeout past = wheel.scheduleAt(() -> { }, start - TimeUnit.DAYS.toMillis(365));
+            wheel.advance();
+            assertTrue(first.isExpired());
+            assertTrue(past.isExpired());
+            clock.advance(TimeUnit.DAYS.toMillis(365 * 1000L));
+            wheel.advance();
+            assertFalse(never.isExpired());
+            assertFalse(last.isExpired());
+        }
+    }
+
+    private static final class SettableClock extends Clock {
+
+        private volatile long millis;
+
+        SettableClock(long millis) {
+            this.millis = millis;
+        }
+
+        void set(long millis) {
+            this.millis = millis;
+        }
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Runs tasks in the calling thread, except the one numbered by reject, counting from 1.
+     */
+    private static final class RejectingExecutor implements Executor {
+
+        int reject;
+        private int executed;
+
+        @Override
+        public void execute(Runnable command) {
+            if (++executed == reject) {
+                throw new RejectedExecutionException("Rejected task " + executed);
+            }
+            command.run();
+        }
+    }
+}
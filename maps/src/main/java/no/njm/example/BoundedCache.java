@@ -0,0 +1,407 @@
+package no.njm.example;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A concurrent memoization cache with a maximum weight, for the computeIfAbsent pattern from {@link Maps}
+ * without its unbounded growth.
+ * <p>
+ * Keys are split into lock striped segments, each with its own share of the maximum weight and its own
+ * {@link EvictionPolicy}. Loading is single-flight: the first thread missing a key runs the loader outside the
+ * segment lock, and other threads missing the same key wait for its result instead of loading again. Other keys
+ * are read and loaded meanwhile. Entries may expire a fixed time after they were written. A put or invalidate
+ * during a load wins over the loaded value, which is then only returned to the waiting threads.
+ * <p>
+ * Loaders must not load keys from the same cache. Null keys and values are not allowed, a loader returning null
+ * caches nothing.
+ */
+public class BoundedCache<K, V> {
+
+    /**
+     * Configures a cache. The maximum weight is required.
+     */
+    public static final class Builder<K, V> {
+
+        private long maximumWeight = -1;
+        private ToIntBiFunction<? super K, ? super V> weigher = (key, value) -> 1;
+        private LongFunction<? extends EvictionPolicy<K>> policy = WindowTinyLfuPolicy::new;
+        private long expireAfterWriteNanos;
+        private LongSupplier ticker = System::nanoTime;
+        private int concurrencyLevel = 4;
+
+        private Builder() {
+        }
+
+        /**
+         * The maximum number of entries, when every entry weighs one.
+         */
+        public Builder<K, V> maximumSize(long maximumSize) {
+            return maximumWeight(maximumSize);
+        }
+
+        public Builder<K, V> maximumWeight(long maximumWeight) {
+            if (maximumWeight < 0) {
+                throw new IllegalArgumentException("Maximum weight must not be negative, was " + maximumWeight);
+            }
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        public Builder<K, V> weigher(ToIntBiFunction<? super K, ? super V> weigher) {
+            this.weigher = Objects.requireNonNull(weigher);
+            return this;
+        }
+
+        public Builder<K, V> lru() {
+            return policy(maximum -> new LruPolicy<>());
+        }
+
+        /**
+         * Window TinyLFU eviction, the default.
+         */
+        public Builder<K, V> windowTinyLfu() {
+            return policy(WindowTinyLfuPolicy::new);
+        }
+
+        /**
+         * A custom policy, created for every segment with the maximum weight of the segment.
+         */
+        public Builder<K, V> policy(LongFunction<? extends EvictionPolicy<K>> policy) {
+            this.policy = Objects.requireNonNull(policy);
+            return this;
+        }
+
+        public Builder<K, V> expireAfterWrite(Duration duration) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Expiry must be positive, was " + duration);
+            }
+            this.expireAfterWriteNanos = duration.toNanos();
+            return this;
+        }
+
+        /**
+         * The time source in nanoseconds for expiry and load times, System.nanoTime by default.
+         */
+        public Builder<K, V> ticker(LongSupplier ticker) {
+            this.ticker = Objects.requireNonNull(ticker);
+            return this;
+        }
+
+        /**
+         * The number of segments, rounded up to a power of two. One segment gives the most precise eviction.
+         */
+        public Builder<K, V> concurrencyLevel(int concurrencyLevel) {
+            if (concurrencyLevel < 1) {
+                throw new IllegalArgumentException("Concurrency level must be positive, was " + concurrencyLevel);
+            }
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        public <K1 extends K, V1 extends V> BoundedCache<K1, V1> build() {
+            if (maximumWeight < 0) {
+                throw new IllegalStateException("Maximum weight or size is required");
+            }
+            @SuppressWarnings("unchecked")
+            Builder<K1, V1> self = (Builder<K1, V1>) this;
+            return new BoundedCache<>(self);
+        }
+    }
+
+    // Segments are picked by the top 8 bits of the hash
+    private static final int MAX_SEGMENTS = 256;
+
+    private final Segment[] segments;
+    private final int mask;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    private final long expireAfterWriteNanos;
+    private final LongSupplier ticker;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private BoundedCache(Builder<K, V> builder) {
+        // Every segment should hold a fair number of entries, or eviction gets imprecise
+        long wanted = Math.min(builder.concurrencyLevel, Math.max(1, builder.maximumWeight / 64));
+        int count = Math.max(1, Integer.highestOneBit((int) Math.min(MAX_SEGMENTS, wanted) - 1) << 1);
+        segments = new BoundedCache.Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Spread the remainder, so the segment maximums add up to the maximum weight
+            long maximum = builder.maximumWeight / count + (i < builder.maximumWeight % count ? 1 : 0);
+            segments[i] = new Segment(maximum, builder.policy.apply(maximum));
+        }
+        mask = count - 1;
+        weigher = builder.weigher;
+        expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        ticker = builder.ticker;
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns the cached value of the key, loading it if absent or expired.
+     * Exceptions thrown by the loader are rethrown to every thread waiting for the load.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Objects.requireNonNull(loader);
+        Segment segment = segment(key);
+        CompletableFuture<V> started;
+        CompletableFuture<V> load = null;
+        synchronized (segment) {
+            Entry<V> entry = segment.read(key);
+            if (entry != null) {
+                return entry.value;
+            }
+            started = segment.loading.get(key);
+            if (started == null) {
+                load = new CompletableFuture<>();
+                segment.loading.put(key, load);
+            }
+        }
+        // Wait outside the lock, the loading thread needs it to store the value
+        return started != null ? await(started) : load(segment, key, loader, load);
+    }
+
+    public V getIfPresent(Object key) {
+        Segment segment = segment(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.read(key);
+            return entry != null ? entry.value : null;
+        }
+    }
+
+    public void put(K key, V value) {
+        Objects.requireNonNull(value);
+        Segment segment = segment(key);
+        int weight = weigher.applyAsInt(key, value);
+        synchronized (segment) {
+            segment.loading.remove(key);
+            segment.write(key, value, weight);
+        }
+    }
+
+    public void invalidate(Object key) {
+        Segment segment = segment(key);
+        synchronized (segment) {
+            segment.loading.remove(key);
+            segment.delete(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.loading.clear();
+                while (!segment.entries.isEmpty()) {
+                    segment.delete(segment.entries.keySet().iterator().next());
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes expired entries, which are otherwise removed when read or evicted.
+     */
+    public void cleanUp() {
+        if (expireAfterWriteNanos == 0) {
+            return;
+        }
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                long now = ticker.getAsLong();
+                Iterator<Map.Entry<K, Entry<V>>> iterator = segment.entries.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<K, Entry<V>> entry = iterator.next();
+                    if (expired(entry.getValue(), now)) {
+                        iterator.remove();
+                        segment.weight -= entry.getValue().weight;
+                        segment.policy.remove(entry.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The number of entries, expired entries not yet removed included.
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public long weight() {
+        long weight = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                weight += segment.weight;
+            }
+        }
+        return weight;
+    }
+
+    public CacheStats stats() {
+        CacheStats stats = new CacheStats(0, 0, 0, 0, 0, 0);
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                stats = stats.plus(new CacheStats(segment.hits, segment.misses, segment.loadSuccesses,
+                                                  segment.loadFailures, segment.loadTime, segment.evictions));
+            }
+        }
+        return stats;
+    }
+
+    private V load(Segment segment, K key, Function<? super K, ? extends V> loader, CompletableFuture<V> load) {
+        long start = ticker.getAsLong();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            synchronized (segment) {
+                segment.loading.remove(key, load);
+                segment.loadFailures++;
+                segment.loadTime += ticker.getAsLong() - start;
+            }
+            load.completeExceptionally(e);
+            throw e;
+        }
+        int weight = value != null ? weigher.applyAsInt(key, value) : 0;
+        synchronized (segment) {
+            segment.loadSuccesses++;
+            segment.loadTime += ticker.getAsLong() - start;
+            // A put or invalidate during the load removed it, and wins
+            if (segment.loading.remove(key, load) && value != null) {
+                segment.write(key, value, weight);
+            }
+        }
+        load.complete(value);
+        return value;
+    }
+
+    /**
+     * Waits for a load by another thread, rethrowing what the loader threw.
+     */
+    private V await(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private boolean expired(Entry<V> entry, long now) {
+        return expireAfterWriteNanos != 0 && now - entry.writeTime >= expireAfterWriteNanos;
+    }
+
+    private Segment segment(Object key) {
+        // Mix the hash so the high bits pick the segment, HashMap inside it uses the low bits
+        int h = key.hashCode() * 0x9E3779B9;
+        return segments[(h >>> 24) & mask];
+    }
+
+    private static final class Entry<V> {
+
+        final V value;
+        final int weight;
+        final long writeTime;
+
+        Entry(V value, int weight, long writeTime) {
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+
+    private final class Segment {
+
+        final Map<K, Entry<V>> entries = new HashMap<>();
+        final Map<K, CompletableFuture<V>> loading = new HashMap<>();
+        final long maximumWeight;
+        final EvictionPolicy<K> policy;
+        long weight;
+        long hits;
+        long misses;
+        long loadSuccesses;
+        long loadFailures;
+        long loadTime;
+        long evictions;
+
+        Segment(long maximumWeight, EvictionPolicy<K> policy) {
+            this.maximumWeight = maximumWeight;
+            this.policy = policy;
+        }
+
+        /**
+         * Returns the live entry of the key and counts the hit, or removes an expired one and counts the miss.
+         */
+        @SuppressWarnings("unchecked")
+        Entry<V> read(Object key) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && expireAfterWriteNanos != 0 && expired(entry, ticker.getAsLong())) {
+                delete(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            policy.recordAccess((K) key);
+            return entry;
+        }
+
+        void write(K key, V value, int weight) {
+            // The ticker may be slow, only read it when entries expire
+            long now = expireAfterWriteNanos != 0 ? ticker.getAsLong() : 0;
+            Entry<V> previous = entries.put(key, new Entry<>(value, weight, now));
+            if (previous != null) {
+                this.weight -= previous.weight;
+                policy.remove(key);
+            }
+            this.weight += weight;
+            policy.add(key, weight);
+            while (this.weight > maximumWeight) {
+                K victim = policy.evict();
+                if (victim == null) {
+                    break;
+                }
+                Entry<V> evicted = entries.remove(victim);
+                if (evicted != null) {
+                    this.weight -= evicted.weight;
+                    evictions++;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void delete(Object key) {
+            Entry<V> removed = entries.remove(key);
+            if (removed != null) {
+                weight -= removed.weight;
+                policy.remove((K) key);
+            }
+        }
+    }
+}
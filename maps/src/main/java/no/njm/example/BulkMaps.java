@@ -0,0 +1,271 @@
+package no.njm.example;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToLongFunction;
+
+/**
+ * The parallel bulk operations of ConcurrentHashMap, forEach, search and reduce, for any map.
+ * <p>
+ * As in ConcurrentHashMap, an operation runs sequentially in the calling thread if the map has fewer entries than
+ * the parallelism threshold, so Long.MAX_VALUE means never in parallel and 1 means as parallel as the pool allows.
+ * In parallel, the entries are split into up to four parts per worker of the pool, and no part is smaller than
+ * the threshold.
+ * <p>
+ * The entries are split by the spliterator of the entry set, without copying them, so parts start at once and
+ * search can stop before all entries are seen. Concurrent maps are split by their own weakly consistent
+ * spliterators, and ConcurrentHashMap uses its own bulk operations on the common pool. The functions must not modify
+ * a map that is not concurrent, as its spliterator fails or misses entries then. To modify such a map, run the
+ * operation on a copy of it. The functions must be thread-safe, and return null for no result. Search stops all
+ * parts once one finds a result.
+ */
+public final class BulkMaps {
+
+    private static final BulkMaps COMMON = new BulkMaps(ForkJoinPool.commonPool());
+
+    private final ForkJoinPool pool;
+
+    private BulkMaps(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Bulk operations running in the common pool.
+     */
+    public static BulkMaps common() {
+        return COMMON;
+    }
+
+    /**
+     * Bulk operations running in the pool, to keep them apart from other parallel work.
+     */
+    public static BulkMaps on(ForkJoinPool pool) {
+        return new BulkMaps(Objects.requireNonNull(pool));
+    }
+
+    public <K, V> void forEach(Map<K, V> map, long parallelismThreshold, BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        if (isNative(map)) {
+            ((ConcurrentHashMap<K, V>) map).forEach(parallelismThreshold, action);
+            return;
+        }
+        run(map, parallelismThreshold, part -> {
+            part.forEachWhile((key, value) -> {
+                action.accept(key, value);
+                return true;
+            });
+            return null;
+        }, (left, right) -> null, null);
+    }
+
+    /**
+     * Returns a non-null result of the function for some entry, or null if there is none. Which one is unspecified
+     * when several entries give a result.
+     */
+    public <K, V, U> U search(Map<K, V> map, long parallelismThreshold,
+                              BiFunction<? super K, ? super V, ? extends U> searchFunction) {
+        Objects.requireNonNull(searchFunction);
+        if (isNative(map)) {
+            return ((ConcurrentHashMap<K, V>) map).search(parallelismThreshold, searchFunction);
+        }
+        AtomicReference<U> found = new AtomicReference<>();
+        run(map, parallelismThreshold, part -> {
+            part.forEachWhile((key, value) -> {
+                if (found.get() != null) {
+                    return false;
+                }
+                U result = searchFunction.apply(key, value);
+                if (result != null) {
+                    found.compareAndSet(null, result);
+                    return false;
+                }
+                return true;
+            });
+            return null;
+        }, (left, right) -> null, found);
+        return found.get();
+    }
+
+    /**
+     * Reduces the non-null results of the transformer, or returns null if there are none.
+     */
+    public <K, V, U> U reduce(Map<K, V> map, long parallelismThreshold,
+                              BiFunction<? super K, ? super V, ? extends U> transformer,
+                              BiFunction<? super U, ? super U, ? extends U> reducer) {
+        Objects.requireNonNull(transformer);
+        Objects.requireNonNull(reducer);
+        if (isNative(map)) {
+            return ((ConcurrentHashMap<K, V>) map).reduce(parallelismThreshold, transformer, reducer);
+        }
+        BinaryOperator<U> combiner = (left, right) -> left == null ? right : right == null ? left
+                                                                                        : reducer.apply(left, right);
+        return run(map, parallelismThreshold, part -> {
+            Holder<U> result = new Holder<>();
+            part.forEachWhile((key, value) -> {
+                result.value = combiner.apply(result.value, transformer.apply(key, value));
+                return true;
+            });
+            return result.value;
+        }, combiner, null);
+    }
+
+    public <K, V> V reduceValues(Map<K, V> map, long parallelismThreshold,
+                                 BiFunction<? super V, ? super V, ? extends V> reducer) {
+        return reduceValues(map, parallelismThreshold, Function.identity(), reducer);
+    }
+
+    public <K, V, U> U reduceValues(Map<K, V> map, long parallelismThreshold,
+                                    Function<? super V, ? extends U> transformer,
+                                    BiFunction<? super U, ? super U, ? extends U> reducer) {
+        Objects.requireNonNull(transformer);
+        if (isNative(map)) {
+            return ((ConcurrentHashMap<K, V>) map).reduceValues(parallelismThreshold, transformer, reducer);
+        }
+        return reduce(map, parallelismThreshold, (key, value) -> transformer.apply(value), reducer);
+    }
+
+    /**
+     * Reduces the values transformed to longs, starting every part from the basis, which must be the identity of
+     * the reducer, e.g. 0 for Long::sum.
+     */
+    public <K, V> long reduceValuesToLong(Map<K, V> map, long parallelismThreshold,
+                                          ToLongFunction<? super V> transformer, long basis,
+                                          LongBinaryOperator reducer) {
+        Objects.requireNonNull(transformer);
+        Objects.requireNonNull(reducer);
+        if (isNative(map)) {
+            return ((ConcurrentHashMap<K, V>) map).reduceValuesToLong(parallelismThreshold, transformer, basis,
+                                                                      reducer);
+        }
+        Long result = run(map, parallelismThreshold, part -> {
+            long[] accumulator = {basis};
+            part.forEachWhile((key, value) -> {
+                accumulator[0] = reducer.applyAsLong(accumulator[0], transformer.applyAsLong(value));
+                return true;
+            });
+            return accumulator[0];
+        }, (left, right) -> reducer.applyAsLong(left, right), null);
+        return result;
+    }
+
+    private boolean isNative(Map<?, ?> map) {
+        return map instanceof ConcurrentHashMap && pool == ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Runs the leaf function over parts of the map and combines the results, sequentially below the threshold.
+     * Parts are not split and not started once the stop reference holds a value.
+     */
+    private <K, V, R> R run(Map<K, V> map, long parallelismThreshold, Function<Part<K, V>, R> leaf,
+                            BinaryOperator<R> combiner, AtomicReference<?> stop) {
+        Part<K, V> root = new SpliteratorPart<>(map.entrySet().spliterator());
+        long size = map.size();
+        if (size < parallelismThreshold || size < 2 || pool.getParallelism() < 2) {
+            return leaf.apply(root);
+        }
+        long leafSize = Math.max(Math.max(1, parallelismThreshold), size / (pool.getParallelism() * 4L));
+        return pool.invoke(new BulkTask<>(root, leafSize, leaf, combiner, stop));
+    }
+
+    @FunctionalInterface
+    private interface EntryPredicate<K, V> {
+
+        boolean test(K key, V value);
+    }
+
+    /**
+     * A part of the entries of a map.
+     */
+    private interface Part<K, V> {
+
+        long size();
+
+        /**
+         * Splits off a prefix, or returns null if the part can not be split.
+         */
+        Part<K, V> split();
+
+        /**
+         * Calls the predicate for every entry until it returns false.
+         */
+        void forEachWhile(EntryPredicate<? super K, ? super V> action);
+    }
+
+    private static final class SpliteratorPart<K, V> implements Part<K, V> {
+
+        private final Spliterator<Map.Entry<K, V>> spliterator;
+
+        SpliteratorPart(Spliterator<Map.Entry<K, V>> spliterator) {
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public long size() {
+            return spliterator.estimateSize();
+        }
+
+        @Override
+        public Part<K, V> split() {
+            Spliterator<Map.Entry<K, V>> prefix = spliterator.trySplit();
+            return prefix != null ? new SpliteratorPart<>(prefix) : null;
+        }
+
+        @Override
+        public void forEachWhile(EntryPredicate<? super K, ? super V> action) {
+            boolean[] stopped = {false};
+            while (!stopped[0] && spliterator.tryAdvance(entry -> stopped[0] = !action.test(entry.getKey(),
+                                                                                            entry.getValue()))) {
+                // The action runs in tryAdvance
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class BulkTask<K, V, R> extends RecursiveTask<R> {
+
+        private final Part<K, V> part;
+        private final long leafSize;
+        private final Function<Part<K, V>, R> leaf;
+        private final BinaryOperator<R> combiner;
+        private final AtomicReference<?> stop;
+
+        BulkTask(Part<K, V> part, long leafSize, Function<Part<K, V>, R> leaf, BinaryOperator<R> combiner,
+                 AtomicReference<?> stop) {
+            this.part = part;
+            this.leafSize = leafSize;
+            this.leaf = leaf;
+            this.combiner = combiner;
+            this.stop = stop;
+        }
+
+        @Override
+        protected R compute() {
+            if (stop != null && stop.get() != null) {
+                return null;
+            }
+            Part<K, V> prefix;
+            if (part.size() > leafSize && (prefix = part.split()) != null) {
+                BulkTask<K, V, R> left = new BulkTask<>(prefix, leafSize, leaf, combiner, stop);
+                left.fork();
+                R right = new BulkTask<>(part, leafSize, leaf, combiner, stop).compute();
+                return combiner.apply(left.join(), right);
+            }
+            return leaf.apply(part);
+        }
+    }
+
+    private static final class Holder<T> {
+
+        T value;
+    }
+}
@@ -0,0 +1,82 @@
+package no.njm.example;
+
+/**
+ * Statistics of a {@link BoundedCache}, as counted when the snapshot was taken.
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final long evictionCount;
+
+    CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long totalLoadTime,
+               long evictionCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.evictionCount = evictionCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Lookups not finding a value, including those waiting for a load started by another thread.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1 : (double) hitCount / requests;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * Nanoseconds spent loading, failed loads included.
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime;
+    }
+
+    public double getAverageLoadPenalty() {
+        long loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0 : (double) totalLoadTime / loads;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    CacheStats plus(CacheStats other) {
+        return new CacheStats(hitCount + other.hitCount, missCount + other.missCount,
+                              loadSuccessCount + other.loadSuccessCount, loadFailureCount + other.loadFailureCount,
+                              totalLoadTime + other.totalLoadTime, evictionCount + other.evictionCount);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats{hits=%d, misses=%d, hitRate=%.4f, loads=%d, loadFailures=%d, "
+                             + "averageLoadPenalty=%.0fns, evictions=%d}",
+                             hitCount, missCount, getHitRate(), loadSuccessCount, loadFailureCount,
+                             getAverageLoadPenalty(), evictionCount);
+    }
+}
@@ -0,0 +1,341 @@
+package no.njm.example;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An immutable multimap storing all values in one flat array, with the values of key i at indices
+ * offsets[i] until offsets[i + 1], the compressed sparse row layout.
+ * <p>
+ * Iterating over Map&lt;K, List&lt;V&gt;&gt; allocates an entry iterator and one iterator per list. Here
+ * {@link #forEach(BiConsumer)} walks two arrays and allocates nothing. Keys are kept in insertion order and
+ * found through an open addressing index of key positions. Neither keys nor values can be null.
+ */
+public final class CompactMultimap<K, V> {
+
+    /**
+     * Collects the values of each key, in the order they are put.
+     */
+    public static final class Builder<K, V> {
+
+        private final Map<K, List<V>> groups = new LinkedHashMap<>();
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder<K, V> put(K key, V value) {
+            Objects.requireNonNull(value);
+            groups.computeIfAbsent(Objects.requireNonNull(key), k -> new ArrayList<>()).add(value);
+            size++;
+            return this;
+        }
+
+        public Builder<K, V> putAll(K key, Collection<? extends V> values) {
+            for (V value : values) {
+                put(key, value);
+            }
+            return this;
+        }
+
+        public CompactMultimap<K, V> build() {
+            Object[] keys = new Object[groups.size()];
+            int[] offsets = new int[keys.length + 1];
+            Object[] values = new Object[size];
+            int i = 0;
+            int offset = 0;
+            for (Map.Entry<K, List<V>> group : groups.entrySet()) {
+                keys[i] = group.getKey();
+                for (V value : group.getValue()) {
+                    values[offset++] = value;
+                }
+                offsets[++i] = offset;
+            }
+            return new CompactMultimap<>(keys, offsets, values);
+        }
+    }
+
+    // Below this many values a spliterator stops splitting in parallelForEach
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 12;
+
+    private final Object[] keys;
+    private final int[] offsets;
+    private final Object[] values;
+    private final int[] index;
+
+    private CompactMultimap(Object[] keys, int[] offsets, Object[] values) {
+        this.keys = keys;
+        this.offsets = offsets;
+        this.values = values;
+        this.index = new int[Integer.highestOneBit(Math.max(2, keys.length * 2) - 1) << 1];
+        Arrays.fill(index, -1);
+        int mask = index.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            int slot = hash(keys[i]) & mask;
+            while (index[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = i;
+        }
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    public static <K, V> CompactMultimap<K, V> of(Map<? extends K, ? extends Collection<? extends V>> map) {
+        Builder<K, V> builder = builder();
+        map.forEach(builder::putAll);
+        return builder.build();
+    }
+
+    /**
+     * The number of key-value pairs.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    public int keyCount() {
+        return keys.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * An unmodifiable view of the values of the key, empty if the key is absent.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> get(Object key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return Collections.emptyList();
+        }
+        List<Object> all = Arrays.asList(values);
+        return (List<V>) Collections.unmodifiableList(all.subList(offsets[i], offsets[i + 1]));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Object key, Consumer<? super V> action) {
+        int i = indexOf(key);
+        if (i >= 0) {
+            for (int v = offsets[i]; v < offsets[i + 1]; v++) {
+                action.accept((V) values[v]);
+            }
+        }
+    }
+
+    /**
+     * Calls the action for every key-value pair, key by key in insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            K key = (K) keys[i];
+            for (int v = offsets[i]; v < offsets[i + 1]; v++) {
+                action.accept(key, (V) values[v]);
+            }
+        }
+    }
+
+    /**
+     * Calls the action for every key-value pair from several threads of the common pool, splitting by values
+     * so keys with many values are spread over threads too. The action must be thread-safe.
+     */
+    public void parallelForEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        ForkJoinPool.commonPool().invoke(new ForEachAction<>(spliterator(), action));
+    }
+
+    /**
+     * A spliterator over the key-value pairs, which splits at the middle value. Its
+     * {@link PairSpliterator#forEachRemaining(BiConsumer)} traverses without creating entries.
+     */
+    public PairSpliterator<K, V> spliterator() {
+        return new PairSpliterator<>(this, 0, values.length);
+    }
+
+    public Stream<Map.Entry<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<Map.Entry<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * A copy as a regular map of lists.
+     */
+    public Map<K, List<V>> toMap() {
+        Map<K, List<V>> map = new LinkedHashMap<>(keys.length * 2);
+        forEach((key, value) -> map.computeIfAbsent(key, k -> new ArrayList<>()).add(value));
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private int indexOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        while (index[slot] >= 0) {
+            if (keys[index[slot]].equals(key)) {
+                return index[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * The key index owning the value index, found by binary search over the offsets.
+     */
+    private int keyOf(int value) {
+        int low = 0;
+        int high = keys.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (offsets[middle] <= value) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Traverses the pairs with value indices from origin until fence.
+     */
+    public static final class PairSpliterator<K, V> implements Spliterator<Map.Entry<K, V>> {
+
+        private final CompactMultimap<K, V> map;
+        private final int fence;
+        private int value;
+        private int key;
+
+        private PairSpliterator(CompactMultimap<K, V> map, int origin, int fence) {
+            this.map = map;
+            this.fence = fence;
+            this.value = origin;
+            this.key = origin < fence ? map.keyOf(origin) : 0;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+            return tryAdvance((key, value) -> action.accept(new AbstractMap.SimpleImmutableEntry<>(key, value)));
+        }
+
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(BiConsumer<? super K, ? super V> action) {
+            if (value >= fence) {
+                return false;
+            }
+            while (map.offsets[key + 1] <= value) {
+                key++;
+            }
+            action.accept((K) map.keys[key], (V) map.values[value++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Map.Entry<K, V>> action) {
+            forEachRemaining((key, value) -> action.accept(new AbstractMap.SimpleImmutableEntry<>(key, value)));
+        }
+
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(BiConsumer<? super K, ? super V> action) {
+            Object[] keys = map.keys;
+            int[] offsets = map.offsets;
+            Object[] values = map.values;
+            int v = value;
+            int k = key;
+            while (v < fence) {
+                while (offsets[k + 1] <= v) {
+                    k++;
+                }
+                K current = (K) keys[k];
+                int end = Math.min(fence, offsets[k + 1]);
+                for (; v < end; v++) {
+                    action.accept(current, (V) values[v]);
+                }
+            }
+            value = v;
+            key = k;
+        }
+
+        @Override
+        public PairSpliterator<K, V> trySplit() {
+            int middle = (value + fence) >>> 1;
+            if (middle <= value) {
+                return null;
+            }
+            PairSpliterator<K, V> prefix = new PairSpliterator<>(map, value, middle);
+            value = middle;
+            key = map.keyOf(middle);
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - value;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ForEachAction<K, V> extends RecursiveAction {
+
+        private final PairSpliterator<K, V> spliterator;
+        private final BiConsumer<? super K, ? super V> action;
+
+        private ForEachAction(PairSpliterator<K, V> spliterator, BiConsumer<? super K, ? super V> action) {
+            this.spliterator = spliterator;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            PairSpliterator<K, V> prefix;
+            if (spliterator.estimateSize() > SEQUENTIAL_THRESHOLD && (prefix = spliterator.trySplit()) != null) {
+                invokeAll(new ForEachAction<>(prefix, action), new ForEachAction<>(spliterator, action));
+            } else {
+                spliterator.forEachRemaining(action);
+            }
+        }
+    }
+}
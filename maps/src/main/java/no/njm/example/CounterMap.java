@@ -0,0 +1,103 @@
+package no.njm.example;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A concurrent map from keys to long counters, for per-key aggregates built with merge(key, 1L, Long::sum).
+ * <p>
+ * Every key has a LongAdder, which spreads updates from different threads over several cells. Finding the adder
+ * of an existing key takes no lock, so threads updating the same hot key neither wait for a lock nor retry on
+ * one contended value, as they do with merge on ConcurrentHashMap or {@link StripedMap}. In return, reading a
+ * count sums the cells, and a count read while it is being updated may miss concurrent updates.
+ */
+public class CounterMap<K> {
+
+    private final ConcurrentHashMap<K, LongAdder> cells = new ConcurrentHashMap<>();
+
+    public void increment(K key) {
+        adder(key).increment();
+    }
+
+    public void add(K key, long delta) {
+        adder(key).add(delta);
+    }
+
+    public long get(Object key) {
+        LongAdder adder = cells.get(key);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Returns the count and resets it to zero. Updates made concurrently may be counted in either period.
+     */
+    public long getAndReset(Object key) {
+        LongAdder adder = cells.get(key);
+        return adder != null ? adder.sumThenReset() : 0;
+    }
+
+    public boolean containsKey(Object key) {
+        return cells.containsKey(key);
+    }
+
+    /**
+     * Removes the counter and returns its count. Updates made concurrently may be lost: a thread that found the
+     * counter before it was removed may add to it afterwards, which is then neither returned nor counted again.
+     */
+    public long remove(Object key) {
+        LongAdder adder = cells.remove(key);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    public int size() {
+        return cells.size();
+    }
+
+    public boolean isEmpty() {
+        return cells.isEmpty();
+    }
+
+    public long sum() {
+        long sum = 0;
+        for (LongAdder adder : cells.values()) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    public void forEach(ObjLongConsumer<? super K> action) {
+        Objects.requireNonNull(action);
+        cells.forEach((key, adder) -> action.accept(key, adder.sum()));
+    }
+
+    /**
+     * Removes all counters, and may lose concurrent updates as {@link #remove(Object)} does.
+     */
+    public void clear() {
+        cells.clear();
+    }
+
+    /**
+     * A copy of the counts in a regular map.
+     */
+    public Map<K, Long> toMap() {
+        Map<K, Long> map = new HashMap<>(cells.size() * 2);
+        forEach(map::put);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private LongAdder adder(K key) {
+        // The lock free get covers every update but the first of a key, computeIfAbsent locks a bin
+        LongAdder adder = cells.get(key);
+        return adder != null ? adder : cells.computeIfAbsent(key, k -> new LongAdder());
+    }
+}
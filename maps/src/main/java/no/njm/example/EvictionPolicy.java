@@ -0,0 +1,32 @@
+package no.njm.example;
+
+/**
+ * Decides which key a {@link BoundedCache} evicts when it grows beyond its maximum weight.
+ * <p>
+ * The cache tells the policy about every key it adds, reads and removes, and calls {@link #evict()} while it is
+ * too heavy. A policy instance serves one cache segment and is only called under the lock of that segment.
+ */
+public interface EvictionPolicy<K> {
+
+    /**
+     * A key not known to the policy was added.
+     */
+    void add(K key, int weight);
+
+    /**
+     * A key known to the policy was read.
+     */
+    void recordAccess(K key);
+
+    /**
+     * A key was removed by the cache, e.g. invalidated or expired.
+     */
+    void remove(K key);
+
+    /**
+     * Picks a key to evict and forgets it. May pick the key added last, if the policy rejects it.
+     *
+     * @return the key to evict, or null if the policy knows no keys
+     */
+    K evict();
+}
@@ -0,0 +1,78 @@
+package no.njm.example;
+
+/**
+ * A count-min sketch estimating how often keys were seen recently, with four 4-bit counters per key.
+ * <p>
+ * Sixteen counters are packed into each long. When the number of increments reaches ten times the expected
+ * number of entries, all counters are halved, so the estimates favour recent popularity.
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int[] SEEDS = {0x97CB3127, 0xB0F9EBA1, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final long[] table;
+    private final int counterMask;
+    private final long sampleSize;
+    private long additions;
+
+    FrequencySketch(long expectedEntries) {
+        int entries = (int) Math.max(16, Math.min(expectedEntries, 1 << 24));
+        // One long of sixteen counters per expected entry keeps collisions rare
+        int longs = Integer.highestOneBit(entries - 1) << 1;
+        table = new long[longs];
+        counterMask = longs * 16 - 1;
+        sampleSize = 10L * entries;
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, count(counter(hash, i)));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean incremented = false;
+        for (int i = 0; i < DEPTH; i++) {
+            int counter = counter(hash, i);
+            if (count(counter) < MAX_COUNT) {
+                table[counter >>> 4] += 1L << shift(counter);
+                incremented = true;
+            }
+        }
+        if (incremented && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int count(int counter) {
+        return (int) (table[counter >>> 4] >>> shift(counter)) & MAX_COUNT;
+    }
+
+    private static int shift(int counter) {
+        return (counter & 15) << 2;
+    }
+
+    private int counter(int hash, int row) {
+        int h = hash * SEEDS[row];
+        return (h ^ (h >>> 15)) & counterMask;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,391 @@
+package no.njm.example;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+/**
+ * A map from primitive int keys to objects, without boxing the keys or allocating a node per entry.
+ * <p>
+ * Keys and values are kept in two parallel arrays and collisions are resolved by linear probing. Removal shifts
+ * the following entries of the probe sequence back instead of leaving tombstones. Null values are allowed and
+ * stored as a marker, since an empty value slot marks a free entry.
+ * <p>
+ * The methods mirror the default methods added to Map in Java 8 and follow their semantics, e.g. a null value
+ * returned from a remapping function removes the entry. Like HashMap, a mapping function that modifies the map
+ * fails with a ConcurrentModificationException. Not thread-safe.
+ */
+public class IntObjectMap<V> {
+
+    @FunctionalInterface
+    public interface EntryFunction<V> {
+
+        V apply(int key, V value);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+
+        void accept(int key, V value);
+    }
+
+    private static final Object NULL_VALUE = new Object();
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    private final float loadFactor;
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+    private int modCount;
+
+    public IntObjectMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntObjectMap(int expectedSize, float loadFactor) {
+        if (loadFactor <= 0 || loadFactor >= 1) {
+            throw new IllegalArgumentException("Load factor must be between 0 and 1, was " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        allocate(tableSize(expectedSize, loadFactor));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    public boolean containsValue(Object value) {
+        Object stored = mask(value);
+        for (Object candidate : values) {
+            if (candidate != null && Objects.equals(candidate, stored)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public V get(int key) {
+        int slot = find(key);
+        return slot >= 0 ? unmask(values[slot]) : null;
+    }
+
+    public V getOrDefault(int key, V defaultValue) {
+        int slot = find(key);
+        return slot >= 0 ? unmask(values[slot]) : defaultValue;
+    }
+
+    public V put(int key, V value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            V previous = unmask(values[slot]);
+            values[slot] = mask(value);
+            return previous;
+        }
+        insert(-slot - 1, key, value);
+        return null;
+    }
+
+    public V putIfAbsent(int key, V value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            V current = unmask(values[slot]);
+            if (current == null) {
+                values[slot] = mask(value);
+            }
+            return current;
+        }
+        insert(-slot - 1, key, value);
+        return null;
+    }
+
+    public V remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = unmask(values[slot]);
+        removeAt(slot);
+        return previous;
+    }
+
+    public boolean remove(int key, Object value) {
+        int slot = find(key);
+        if (slot >= 0 && Objects.equals(unmask(values[slot]), value)) {
+            removeAt(slot);
+            return true;
+        }
+        return false;
+    }
+
+    public boolean replace(int key, V oldValue, V newValue) {
+        int slot = find(key);
+        if (slot >= 0 && Objects.equals(unmask(values[slot]), oldValue)) {
+            values[slot] = mask(newValue);
+            return true;
+        }
+        return false;
+    }
+
+    public V replace(int key, V value) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = unmask(values[slot]);
+        values[slot] = mask(value);
+        return previous;
+    }
+
+    public void replaceAll(EntryFunction<V> function) {
+        Objects.requireNonNull(function);
+        int expectedModCount = modCount;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                V value = function.apply(keys[slot], unmask(values[slot]));
+                checkModCount(expectedModCount);
+                values[slot] = mask(value);
+            }
+        }
+    }
+
+    public V computeIfAbsent(int key, IntFunction<? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        int slot = find(key);
+        if (slot >= 0 && values[slot] != NULL_VALUE) {
+            return unmask(values[slot]);
+        }
+        int expectedModCount = modCount;
+        V value = mappingFunction.apply(key);
+        checkModCount(expectedModCount);
+        if (value != null) {
+            if (slot >= 0) {
+                values[slot] = value;
+            } else {
+                insert(-slot - 1, key, value);
+            }
+        }
+        return value;
+    }
+
+    public V computeIfPresent(int key, EntryFunction<V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        int slot = find(key);
+        if (slot < 0 || values[slot] == NULL_VALUE) {
+            return null;
+        }
+        int expectedModCount = modCount;
+        V value = remappingFunction.apply(key, unmask(values[slot]));
+        checkModCount(expectedModCount);
+        if (value == null) {
+            removeAt(slot);
+        } else {
+            values[slot] = value;
+        }
+        return value;
+    }
+
+    public V compute(int key, EntryFunction<V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        int slot = find(key);
+        V oldValue = slot >= 0 ? unmask(values[slot]) : null;
+        int expectedModCount = modCount;
+        V value = remappingFunction.apply(key, oldValue);
+        checkModCount(expectedModCount);
+        if (value == null) {
+            if (slot >= 0) {
+                removeAt(slot);
+            }
+        } else if (slot >= 0) {
+            values[slot] = value;
+        } else {
+            insert(-slot - 1, key, value);
+        }
+        return value;
+    }
+
+    public V merge(int key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        int slot = find(key);
+        if (slot < 0) {
+            insert(-slot - 1, key, value);
+            return value;
+        }
+        V oldValue = unmask(values[slot]);
+        V newValue;
+        if (oldValue == null) {
+            newValue = value;
+        } else {
+            int expectedModCount = modCount;
+            newValue = remappingFunction.apply(oldValue, value);
+            checkModCount(expectedModCount);
+        }
+        if (newValue == null) {
+            removeAt(slot);
+        } else {
+            values[slot] = newValue;
+        }
+        return newValue;
+    }
+
+    public void forEach(EntryConsumer<? super V> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                action.accept(keys[slot], unmask(values[slot]));
+                checkModCount(expectedModCount);
+            }
+        }
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+            modCount++;
+        }
+    }
+
+    /**
+     * The keys in no particular order.
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int i = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                result[i++] = keys[slot];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the slot of the key, or -(free slot) - 1 where the key would be inserted if absent.
+     */
+    private int find(int key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    private void insert(int slot, int key, V value) {
+        if (size >= threshold) {
+            rehash(keys.length * 2);
+            slot = -find(key) - 1;
+        }
+        keys[slot] = key;
+        values[slot] = mask(value);
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Removes the entry at the slot and shifts later entries of the same probe sequence back into the gap.
+     */
+    private void removeAt(int slot) {
+        int gap = slot;
+        values[gap] = null;
+        int next = gap;
+        while (true) {
+            next = (next + 1) & mask;
+            if (values[next] == null) {
+                break;
+            }
+            int home = hash(keys[next]) & mask;
+            // The entry may move into the gap unless its home slot lies cyclically in (gap, next]
+            boolean stays = gap <= next ? gap < home && home <= next : gap < home || home <= next;
+            if (!stays) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                values[next] = null;
+                gap = next;
+            }
+        }
+        size--;
+        modCount++;
+    }
+
+    private void rehash(int tableSize) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(tableSize);
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != null) {
+                int target = -find(oldKeys[slot]) - 1;
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        values = new Object[tableSize];
+        mask = tableSize - 1;
+        threshold = Math.min(tableSize - 1, (int) (tableSize * loadFactor));
+    }
+
+    private static int tableSize(int expectedSize, float loadFactor) {
+        long wanted = Math.max(2, (long) Math.ceil(expectedSize / loadFactor) + 1);
+        if (wanted > 1 << 30) {
+            throw new IllegalArgumentException("Too large expected size " + expectedSize);
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+
+    private void checkModCount(int expectedModCount) {
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    private static Object mask(Object value) {
+        return value == null ? NULL_VALUE : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V unmask(Object value) {
+        return value == NULL_VALUE ? null : (V) value;
+    }
+}
@@ -0,0 +1,39 @@
+package no.njm.example;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Evicts the least recently used key.
+ */
+class LruPolicy<K> implements EvictionPolicy<K> {
+
+    // Access ordered, so the eldest key is the least recently used
+    private final LinkedHashMap<K, Boolean> keys = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Override
+    public void add(K key, int weight) {
+        keys.put(key, Boolean.TRUE);
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        keys.get(key);
+    }
+
+    @Override
+    public void remove(K key) {
+        keys.remove(key);
+    }
+
+    @Override
+    public K evict() {
+        Iterator<K> iterator = keys.keySet().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        K eldest = iterator.next();
+        iterator.remove();
+        return eldest;
+    }
+}
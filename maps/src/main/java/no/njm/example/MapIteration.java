@@ -67,5 +67,9 @@ public class MapIteration {
                 log.debug(entry.getKey() + DELIMITER + value);
             }
         }
+
+        // Compact multimap, without iterators and without concatenating unless debug is enabled
+        CompactMultimap<String, String> multimap = CompactMultimap.of(map);
+        multimap.forEach((key, value) -> log.debug("{}" + DELIMITER + "{}", key, value));
     }
 }
@@ -0,0 +1,453 @@
+package no.njm.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A persistent map in a directory, kept in memory-mapped files, so reopening it takes no rebuild.
+ * <p>
+ * Records are appended to a {@link ValueLog} and found through a {@link SlotIndex} of fixed size slots pointing
+ * into the log. Changes are durable after {@link #commit()} or {@link #close()}: the log and the index are
+ * forced before the header records the new end of the log, and the header is forced after. The header is marked
+ * dirty before the first change after a commit, so if the process dies in between, the next open rebuilds the
+ * index from the committed records. Otherwise opening only maps the files.
+ * <p>
+ * Replaced and removed records stay in the log until {@link #compact()} copies the live records to a new one.
+ * Growing the index and compacting write files of a new generation, which replace the old ones once their
+ * header is written. Compacting and clearing commit. Not thread-safe. Null keys and values are not allowed.
+ */
+public class MappedMap<K, V> extends AbstractMap<K, V> implements Closeable {
+
+    private static final int MIN_SLOTS = 1 << 10;
+    // The index mapping must stay below 2 GB
+    private static final int MAX_SLOTS = 1 << 26;
+    private static final int MAX_LOAD_PERCENT = 50;
+
+    private final Path directory;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final SlotIndex.Header header = new SlotIndex.Header();
+    private int generation;
+    private int newestGeneration;
+    private SlotIndex index;
+    private ValueLog log;
+
+    private MappedMap(Path directory, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this.directory = directory;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+    }
+
+    /**
+     * Opens the map in the directory, creating it if the directory holds none.
+     */
+    public static <K, V> MappedMap<K, V> open(Path directory, Serializer<K> keySerializer,
+                                              Serializer<V> valueSerializer) throws IOException {
+        MappedMap<K, V> map = new MappedMap<>(directory, Objects.requireNonNull(keySerializer),
+                                              Objects.requireNonNull(valueSerializer));
+        Files.createDirectories(directory);
+        map.load();
+        return map;
+    }
+
+    @Override
+    public int size() {
+        return header.size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        int slot = find(key);
+        return slot >= 0 ? valueSerializer.deserialize(log.value(index.position(slot))) : null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        byte[] keyBytes = keySerializer.serialize(Objects.requireNonNull(key));
+        byte[] valueBytes = valueSerializer.serialize(Objects.requireNonNull(value));
+        int hash = hash(keyBytes);
+        int slot = index.find(hash, keyBytes, log);
+        if (slot < 0 && (header.size + 1) * 100L > (long) index.slotCount * MAX_LOAD_PERCENT) {
+            grow();
+        }
+        markDirty();
+        if (slot >= 0) {
+            long previous = index.position(slot);
+            V previousValue = valueSerializer.deserialize(log.value(previous));
+            header.garbage += log.recordLength(previous);
+            index.set(slot, hash, log.append(keyBytes, valueBytes));
+            return previousValue;
+        }
+        index.insert(hash, log.append(keyBytes, valueBytes));
+        header.size++;
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        markDirty();
+        long previous = index.position(slot);
+        V previousValue = valueSerializer.deserialize(log.value(previous));
+        ByteBuffer keyBytes = log.key(previous);
+        byte[] removed = new byte[keyBytes.remaining()];
+        keyBytes.get(removed);
+        long removal = log.append(removed, null);
+        header.garbage += log.recordLength(previous) + log.recordLength(removal);
+        index.removeAt(slot);
+        header.size--;
+        return previousValue;
+    }
+
+    /**
+     * Removes all entries by switching to an empty log and index.
+     */
+    @Override
+    public void clear() {
+        rewrite(false);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return header.size;
+            }
+        };
+    }
+
+    /**
+     * The share of the log taken by replaced and removed records, which {@link #compact()} reclaims.
+     */
+    public double garbageRatio() {
+        return log.end() == 0 ? 0 : (double) header.garbage / log.end();
+    }
+
+    /**
+     * Makes the changes since the last commit durable.
+     */
+    public void commit() {
+        if (!header.dirty) {
+            return;
+        }
+        log.force();
+        index.force();
+        header.dirty = false;
+        writeHeader();
+        index.force();
+    }
+
+    /**
+     * Copies the live records into a new log, dropping replaced and removed ones.
+     */
+    public void compact() {
+        rewrite(true);
+    }
+
+    /**
+     * Commits and closes the files. The map can not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        commit();
+        index.close();
+        log.close();
+    }
+
+    private void load() throws IOException {
+        int[] generations = generations("index.");
+        for (int i = generations.length - 1; i >= 0 && index == null; i--) {
+            index = SlotIndex.open(indexFile(generations[i]), header);
+            generation = generations[i];
+        }
+        if (index == null) {
+            generation = 0;
+            header.logGeneration = 0;
+            index = SlotIndex.create(indexFile(generation), MIN_SLOTS);
+            log = new ValueLog(logFile(header.logGeneration), 0);
+            index.force();
+            writeHeader();
+            index.force();
+        } else {
+            log = new ValueLog(logFile(header.logGeneration), header.logEnd);
+        }
+        newestGeneration = generation;
+        deleteOtherGenerations();
+        if (header.dirty) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Replays the committed records into a new index, after the process died with uncommitted changes.
+     */
+    private void rebuild() throws IOException {
+        SlotIndex rebuilt = createIndex(index.slotCount);
+        int size = 0;
+        long garbage = 0;
+        for (long position = log.first(); position < log.end(); position = log.next(position)) {
+            if (!log.isValid(position)) {
+                // Not expected below the committed end, but a damaged record ends the log
+                log.truncate(position);
+                break;
+            }
+            ByteBuffer key = log.key(position);
+            byte[] keyBytes = new byte[key.remaining()];
+            key.get(keyBytes);
+            int hash = hash(keyBytes);
+            int slot = rebuilt.find(hash, keyBytes, log);
+            if (slot >= 0) {
+                garbage += log.recordLength(rebuilt.position(slot));
+            }
+            if (log.isRemoval(position)) {
+                garbage += log.recordLength(position);
+                if (slot >= 0) {
+                    rebuilt.removeAt(slot);
+                    size--;
+                }
+            } else if (slot >= 0) {
+                rebuilt.set(slot, hash, position);
+            } else {
+                if ((size + 1) * 100L > (long) rebuilt.slotCount * MAX_LOAD_PERCENT) {
+                    rebuilt = resize(rebuilt, rebuilt.slotCount * 2);
+                }
+                rebuilt.insert(hash, position);
+                size++;
+            }
+        }
+        header.size = size;
+        header.garbage = garbage;
+        header.dirty = false;
+        switchTo(rebuilt, log);
+    }
+
+    /**
+     * Switches to an index with twice the slots. Uncommitted changes stay uncommitted, as the header stays dirty.
+     */
+    private void grow() {
+        try {
+            switchTo(resize(index, index.slotCount * 2), log);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copies the slots into an index of the new generation with more slots.
+     */
+    private SlotIndex resize(SlotIndex source, int slotCount) throws IOException {
+        if (slotCount > MAX_SLOTS) {
+            throw new IllegalStateException("Map is full with " + header.size + " entries");
+        }
+        SlotIndex resized = createIndex(slotCount);
+        for (int slot = 0; slot < source.slotCount; slot++) {
+            long position = source.position(slot);
+            if (position >= 0) {
+                resized.insert(source.hash(slot), position);
+            }
+        }
+        if (source != index) {
+            source.close();
+            Files.delete(source.file);
+        }
+        return resized;
+    }
+
+    /**
+     * Writes a new log and index holding the live records, or none, and switches to them. This commits.
+     */
+    private void rewrite(boolean keepEntries) {
+        try {
+            int entries = keepEntries ? header.size : 0;
+            int slotCount = MIN_SLOTS;
+            while (slotCount < MAX_SLOTS && (entries + 1) * 100L > (long) slotCount * MAX_LOAD_PERCENT) {
+                slotCount *= 2;
+            }
+            SlotIndex rewritten = createIndex(slotCount);
+            ValueLog rewrittenLog = new ValueLog(logFile(header.logGeneration + 1), 0);
+            if (keepEntries) {
+                for (int slot = 0; slot < index.slotCount; slot++) {
+                    long position = index.position(slot);
+                    if (position >= 0) {
+                        rewritten.insert(index.hash(slot), rewrittenLog.append(bytes(log.key(position)),
+                                                                                bytes(log.value(position))));
+                    }
+                }
+            }
+            rewrittenLog.force();
+            header.dirty = false;
+            header.logGeneration++;
+            header.size = entries;
+            header.garbage = 0;
+            switchTo(rewritten, rewrittenLog);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates an index of a new generation, without a valid header until it is switched to.
+     */
+    private SlotIndex createIndex(int slotCount) throws IOException {
+        return SlotIndex.create(indexFile(++newestGeneration), slotCount);
+    }
+
+    /**
+     * Writes the header to the index created last, which from then on replaces the current one. The slots are
+     * forced before the header, so a valid header never points at slots that did not reach the disk.
+     */
+    private void switchTo(SlotIndex next, ValueLog nextLog) throws IOException {
+        SlotIndex previousIndex = index;
+        ValueLog previousLog = log;
+        next.force();
+        index = next;
+        log = nextLog;
+        generation = newestGeneration;
+        writeHeader();
+        index.force();
+        previousIndex.close();
+        if (previousLog != log) {
+            previousLog.close();
+        }
+        deleteOtherGenerations();
+    }
+
+    private void markDirty() {
+        if (!header.dirty) {
+            header.dirty = true;
+            writeHeader();
+            index.force();
+        }
+    }
+
+    private void writeHeader() {
+        index.writeHeader(nextHeader());
+    }
+
+    private SlotIndex.Header nextHeader() {
+        header.sequence++;
+        if (!header.dirty) {
+            header.logEnd = log.end();
+        }
+        return header;
+    }
+
+    private int find(Object key) {
+        @SuppressWarnings("unchecked")
+        byte[] keyBytes = keySerializer.serialize((K) Objects.requireNonNull(key));
+        return index.find(hash(keyBytes), keyBytes, log);
+    }
+
+    private static int hash(byte[] key) {
+        int h = Arrays.hashCode(key) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private Path indexFile(int generation) {
+        return directory.resolve("index." + generation);
+    }
+
+    private Path logFile(int generation) {
+        return directory.resolve("log." + generation);
+    }
+
+    /**
+     * The generations of the files with the prefix, in ascending order.
+     */
+    private int[] generations(String prefix) throws IOException {
+        int[] generations = new int[0];
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path file : files) {
+                try {
+                    int generation = Integer.parseInt(file.getFileName().toString().substring(prefix.length()));
+                    generations = Arrays.copyOf(generations, generations.length + 1);
+                    generations[generations.length - 1] = generation;
+                } catch (NumberFormatException e) {
+                    // Not a file of the map
+                }
+            }
+        }
+        Arrays.sort(generations);
+        return generations;
+    }
+
+    /**
+     * Deletes index and log files left by older generations or by a rewrite that did not finish.
+     */
+    private void deleteOtherGenerations() throws IOException {
+        for (int other : generations("index.")) {
+            if (other != generation) {
+                Files.deleteIfExists(indexFile(other));
+            }
+        }
+        for (int other : generations("log.")) {
+            if (other != header.logGeneration) {
+                Files.deleteIfExists(logFile(other));
+            }
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private int slot = -1;
+
+        EntryIterator() {
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < index.slotCount;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long position = index.position(slot);
+            advance();
+            return new AbstractMap.SimpleImmutableEntry<>(keySerializer.deserialize(log.key(position)),
+                                                          valueSerializer.deserialize(log.value(position)));
+        }
+
+        private void advance() {
+            do {
+                slot++;
+            } while (slot < index.slotCount && index.position(slot) < 0);
+        }
+    }
+}
@@ -1,19 +1,25 @@
 package no.njm.example;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Maps don't support streams, but various new and useful methods for doing common tasks are implemented.
+ * For parallel traversal, see {@link BulkMaps}.
  */
 public class Maps {
 
     private static final Logger log = LoggerFactory.getLogger(Maps.class);
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Map<Integer, String> map = new HashMap<>();
         for (int i = 0; i < 10; i++) {
             map.putIfAbsent(i, "val" + i); // Default Method added to Map
@@ -51,5 +57,100 @@ public class Maps {
 
         map.merge(9, "concat", (a, b) -> a.concat(b));
         log.debug("map.get(9) is {} ", map.get(9));
+
+        primitiveKeys();
+        concurrentMerge();
+        boundedMemoization();
+        persistentMap();
+        parallelBulk();
+    }
+
+    /**
+     * The same operations on a map with primitive int keys, which neither boxes the keys nor allocates entry nodes.
+     */
+    private static void primitiveKeys() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.putIfAbsent(i, "val" + i);
+        }
+
+        map.computeIfPresent(3, (num, val) -> val + num);
+        log.debug("map.get(3) is {} ", map.get(3));
+
+        map.computeIfPresent(9, (num, val) -> null);
+        log.debug("map.get(9) is {} ", map.get(9));
+
+        map.computeIfAbsent(23, num -> "val" + num);
+        log.debug("map.containsKey(23) is {} ", map.containsKey(23));
+
+        map.remove(3, "val33");
+        log.debug("map.get(3) is {} ", map.get(3));
+
+        log.debug("defaultValue is {} ", map.getOrDefault(42, "Void"));
+
+        map.merge(9, "val9", String::concat);
+        map.merge(9, "concat", String::concat);
+        log.debug("map.get(9) is {} ", map.get(9));
+    }
+
+    /**
+     * Per-key aggregates built by many threads at once, with atomic merges and with contention free counters.
+     */
+    private static void concurrentMerge() {
+        StripedMap<Integer, String> map = new StripedMap<>();
+        CounterMap<Integer> counts = new CounterMap<>();
+        IntStream.range(0, 1000).parallel().forEach(i -> {
+            map.merge(i % 10, "x", String::concat);
+            counts.increment(i % 10);
+        });
+        log.debug("map.get(9).length() is {} ", map.get(9).length());
+        log.debug("counts.get(9) is {} ", counts.get(9));
+    }
+
+    /**
+     * computeIfAbsent as a memoization cache, bounded in size.
+     */
+    private static void boundedMemoization() {
+        BoundedCache<Integer, String> cache = BoundedCache.<Integer, String>builder()
+                .maximumSize(100)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .build();
+        for (int i = 0; i < 1000; i++) {
+            cache.get(i % 200, num -> "val" + num);
+        }
+        log.debug("cache.get(23) is {} ", cache.get(23, num -> "val" + num));
+        log.debug("cache.size() is {} ", cache.size());
+        log.debug("cache.stats() is {} ", cache.stats());
+    }
+
+    /**
+     * A map kept in memory-mapped files, reopened by the next run instead of being rebuilt.
+     */
+    private static void persistentMap() throws IOException {
+        Path directory = Paths.get(System.getProperty("java.io.tmpdir"), "maps-example");
+        try (MappedMap<Integer, String> map = MappedMap.open(directory, Serializer.integers(), Serializer.strings())) {
+            log.debug("map.size() on open is {} ", map.size());
+            for (int i = 0; i < 10; i++) {
+                map.putIfAbsent(i, "val" + i);
+            }
+            map.merge(9, "concat", String::concat);
+            log.debug("map.get(9) is {} ", map.get(9));
+        }
+    }
+
+    /**
+     * The parallel bulk operations of ConcurrentHashMap, on a plain map.
+     */
+    private static void parallelBulk() {
+        Map<Integer, String> map = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            map.put(i, "val" + i);
+        }
+        BulkMaps bulk = BulkMaps.common();
+        long length = bulk.reduceValuesToLong(map, 10_000, String::length, 0, Long::sum);
+        log.debug("total length is {} ", length);
+
+        Integer key = bulk.search(map, 10_000, (num, val) -> val.endsWith("99999") ? num : null);
+        log.debug("key of val99999 is {} ", key);
     }
 }
@@ -0,0 +1,49 @@
+package no.njm.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * Converts keys and values of a {@link MappedMap} to and from bytes. Equal keys must give equal bytes.
+ */
+public interface Serializer<T> {
+
+    byte[] serialize(T value);
+
+    /**
+     * Reads a value from the remaining bytes of the buffer, which is only valid during the call.
+     */
+    T deserialize(ByteBuffer buffer);
+
+    static <T> Serializer<T> of(Function<? super T, byte[]> serializer,
+                                Function<ByteBuffer, ? extends T> deserializer) {
+        return new Serializer<T>() {
+            @Override
+            public byte[] serialize(T value) {
+                return serializer.apply(value);
+            }
+
+            @Override
+            public T deserialize(ByteBuffer buffer) {
+                return deserializer.apply(buffer);
+            }
+        };
+    }
+
+    static Serializer<String> strings() {
+        return of(value -> value.getBytes(StandardCharsets.UTF_8), buffer -> {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        });
+    }
+
+    static Serializer<Integer> integers() {
+        return of(value -> ByteBuffer.allocate(Integer.BYTES).putInt(value).array(), ByteBuffer::getInt);
+    }
+
+    static Serializer<Long> longs() {
+        return of(value -> ByteBuffer.allocate(Long.BYTES).putLong(value).array(), ByteBuffer::getLong);
+    }
+}
@@ -0,0 +1,207 @@
+package no.njm.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The memory-mapped hash index of a {@link MappedMap}: a header and a fixed number of 16 byte slots, each
+ * holding the log position of a record plus one, or zero when free, and the hash of the key. Collisions are
+ * resolved by linear probing.
+ * <p>
+ * The header is kept in two copies in different sectors, each with a sequence number and a CRC32. Writes alternate
+ * between the copies, and the valid copy with the highest sequence number is read, so a header torn by a crash
+ * falls back to the one written before.
+ */
+final class SlotIndex implements Closeable {
+
+    /**
+     * The state of the map as last written to the header.
+     */
+    static final class Header {
+
+        long sequence;
+        int logGeneration;
+        int size;
+        boolean dirty;
+        long logEnd;
+        long garbage;
+    }
+
+    private static final int MAGIC = 0x4D4D4150;
+    private static final int VERSION = 1;
+    private static final int HEADER_COPY_SIZE = 512;
+    private static final int HEADER_LENGTH = 48;
+    private static final int SLOTS_OFFSET = 4096;
+    private static final int SLOT_SIZE = 16;
+
+    final Path file;
+    final int slotCount;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int mask;
+
+    private SlotIndex(Path file, FileChannel channel, int slotCount) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.slotCount = slotCount;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SLOTS_OFFSET + (long) slotCount * SLOT_SIZE);
+        this.mask = slotCount - 1;
+    }
+
+    /**
+     * Creates an empty index without a valid header, replacing the file.
+     */
+    static SlotIndex create(Path file, int slotCount) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new SlotIndex(file, channel, slotCount);
+    }
+
+    /**
+     * Opens an index and reads its header into the given one.
+     *
+     * @return the index, or null if the file has no valid header
+     */
+    static SlotIndex open(Path file, Header header) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer copies = ByteBuffer.allocate(2 * HEADER_COPY_SIZE);
+        while (copies.hasRemaining() && channel.read(copies) >= 0) {
+            // Read until both copies are read or the file ends
+        }
+        int slotCount = -1;
+        for (int copy = 0; copy < 2; copy++) {
+            int offset = copy * HEADER_COPY_SIZE;
+            if (copies.position() < offset + HEADER_LENGTH + 4 || !isValid(copies, offset)) {
+                continue;
+            }
+            long sequence = copies.getLong(offset + 8);
+            if (slotCount < 0 || sequence > header.sequence) {
+                slotCount = copies.getInt(offset + 16);
+                header.sequence = sequence;
+                header.logGeneration = copies.getInt(offset + 20);
+                header.size = copies.getInt(offset + 24);
+                header.dirty = copies.getInt(offset + 28) != 0;
+                header.logEnd = copies.getLong(offset + 32);
+                header.garbage = copies.getLong(offset + 40);
+            }
+        }
+        if (slotCount < 0 || channel.size() < SLOTS_OFFSET + (long) slotCount * SLOT_SIZE) {
+            channel.close();
+            return null;
+        }
+        return new SlotIndex(file, channel, slotCount);
+    }
+
+    /**
+     * Writes the header into the copy not holding the previous one. Force the index to make it durable.
+     */
+    void writeHeader(Header header) {
+        ByteBuffer copy = ByteBuffer.allocate(HEADER_LENGTH + 4);
+        copy.putInt(MAGIC).putInt(VERSION).putLong(header.sequence).putInt(slotCount).putInt(header.logGeneration)
+            .putInt(header.size).putInt(header.dirty ? 1 : 0).putLong(header.logEnd).putLong(header.garbage);
+        copy.putInt(checksum(copy, 0));
+        copy.flip();
+        ByteBuffer target = buffer.duplicate();
+        target.position((int) (header.sequence & 1) * HEADER_COPY_SIZE);
+        target.put(copy);
+    }
+
+    /**
+     * Returns the slot of the key, or -(free slot) - 1 where the key would be inserted if absent.
+     */
+    int find(int hash, byte[] key, ValueLog log) {
+        int slot = hash & mask;
+        while (true) {
+            long stored = buffer.getLong(offset(slot));
+            if (stored == 0) {
+                return -slot - 1;
+            }
+            if (buffer.getInt(offset(slot) + 8) == hash && log.keyEquals(stored - 1, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * The log position of the record in the slot, or -1 if the slot is free.
+     */
+    long position(int slot) {
+        return buffer.getLong(offset(slot)) - 1;
+    }
+
+    int hash(int slot) {
+        return buffer.getInt(offset(slot) + 8);
+    }
+
+    void set(int slot, int hash, long position) {
+        buffer.putInt(offset(slot) + 8, hash);
+        buffer.putLong(offset(slot), position + 1);
+    }
+
+    /**
+     * Inserts into the first free slot of the probe sequence, for keys known to be absent.
+     */
+    void insert(int hash, long position) {
+        int slot = hash & mask;
+        while (buffer.getLong(offset(slot)) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        set(slot, hash, position);
+    }
+
+    /**
+     * Frees the slot and shifts later slots of the same probe sequence back into the gap.
+     */
+    void removeAt(int slot) {
+        int gap = slot;
+        int next = gap;
+        while (true) {
+            next = (next + 1) & mask;
+            long stored = buffer.getLong(offset(next));
+            if (stored == 0) {
+                break;
+            }
+            int home = hash(next) & mask;
+            // The slot may move into the gap unless its home lies cyclically in (gap, next]
+            boolean stays = gap <= next ? gap < home && home <= next : gap < home || home <= next;
+            if (!stays) {
+                set(gap, hash(next), stored - 1);
+                gap = next;
+            }
+        }
+        buffer.putLong(offset(gap), 0);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static int offset(int slot) {
+        return SLOTS_OFFSET + slot * SLOT_SIZE;
+    }
+
+    private static boolean isValid(ByteBuffer copies, int offset) {
+        return copies.getInt(offset) == MAGIC && copies.getInt(offset + 4) == VERSION
+               && copies.getInt(offset + HEADER_LENGTH) == checksum(copies, offset);
+    }
+
+    private static int checksum(ByteBuffer source, int offset) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = source.duplicate();
+        view.limit(offset + HEADER_LENGTH).position(offset);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+}
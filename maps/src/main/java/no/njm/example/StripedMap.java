@@ -0,0 +1,177 @@
+package no.njm.example;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A concurrent map split into lock striped segments by key hash, each a plain HashMap.
+ * <p>
+ * compute, computeIfAbsent, computeIfPresent and merge are atomic: the function runs once, under the lock of the
+ * segment holding the key, so a merge like the one in {@link Maps} never loses an update. Unlike
+ * ConcurrentHashMap, which locks a single bin, threads updating different keys of the same segment wait for each
+ * other, but a segment lock is held for one HashMap operation, and the segment count scales with the processors.
+ * The functions must not access the map. Null keys and values are not allowed.
+ * <p>
+ * Hot keys still serialize on their segment. For counters, {@link CounterMap} removes that contention.
+ */
+public class StripedMap<K, V> {
+
+    // Segments are picked by the top 8 bits of the hash
+    private static final int MAX_SEGMENTS = 256;
+
+    private final HashMap<K, V>[] segments;
+    private final int mask;
+
+    public StripedMap() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public StripedMap(int concurrencyLevel) {
+        int wanted = Math.max(1, Math.min(MAX_SEGMENTS, concurrencyLevel));
+        int count = Math.max(1, Integer.highestOneBit(wanted - 1) << 1);
+        segments = new HashMap[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new HashMap<>();
+        }
+        mask = count - 1;
+    }
+
+    public V get(Object key) {
+        HashMap<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    public V getOrDefault(Object key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    public V put(K key, V value) {
+        Objects.requireNonNull(value);
+        HashMap<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.put(key, value);
+        }
+    }
+
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+        HashMap<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.putIfAbsent(key, value);
+        }
+    }
+
+    public V remove(Object key) {
+        HashMap<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    public boolean remove(Object key, Object value) {
+        HashMap<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.remove(key, value);
+        }
+    }
+
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        HashMap<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.computeIfAbsent(key, mappingFunction);
+        }
+    }
+
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        HashMap<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.computeIfPresent(key, remappingFunction);
+        }
+    }
+
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        HashMap<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.compute(key, remappingFunction);
+        }
+    }
+
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        HashMap<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.merge(key, value, remappingFunction);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (HashMap<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Visits the entries one segment at a time. Each segment is locked while it is visited, so the action must
+     * not access the map, and sees every segment in a consistent state but not the map as a whole.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        for (HashMap<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.forEach(action);
+            }
+        }
+    }
+
+    public void clear() {
+        for (HashMap<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * A copy of the entries in a regular map.
+     */
+    public Map<K, V> toMap() {
+        Map<K, V> map = new HashMap<>();
+        forEach(map::put);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private HashMap<K, V> segment(Object key) {
+        // Mix the hash so the high bits pick the segment, HashMap inside it uses the low bits
+        int h = key.hashCode() * 0x9E3779B9;
+        return segments[(h >>> 24) & mask];
+    }
+}
@@ -0,0 +1,224 @@
+package no.njm.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The append-only record log of a {@link MappedMap}, memory-mapped in chunks.
+ * <p>
+ * A record is the key length, the value length or -1 for a removal, a CRC32 of the record and the key and value
+ * bytes. Records never span chunks: a record not fitting in the rest of a chunk starts the next one, and a key
+ * length of -1 marks the skipped rest.
+ */
+final class ValueLog implements Closeable {
+
+    static final int CHUNK_SIZE = 1 << 24;
+
+    private static final int RECORD_HEADER = 12;
+    private static final int TOMBSTONE = -1;
+    private static final int PADDING = -1;
+
+    final Path file;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private long end;
+    private long forcedEnd;
+
+    /**
+     * Opens the log, keeping the records before end. Later records are overwritten by the next appends.
+     */
+    ValueLog(Path file, long end) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE);
+        this.end = end;
+        this.forcedEnd = end;
+    }
+
+    long end() {
+        return end;
+    }
+
+    /**
+     * Appends a record, a removal if the value is null, and returns its position.
+     */
+    long append(byte[] key, byte[] value) {
+        int length = RECORD_HEADER + key.length + (value != null ? value.length : 0);
+        if (length > CHUNK_SIZE) {
+            throw new IllegalArgumentException("Record of " + length + " bytes is larger than a log chunk");
+        }
+        int offset = offset(end);
+        if (offset + length > CHUNK_SIZE) {
+            if (CHUNK_SIZE - offset >= RECORD_HEADER) {
+                chunk(end).putInt(offset, PADDING);
+            }
+            end += CHUNK_SIZE - offset;
+            offset = 0;
+        }
+        ByteBuffer chunk = chunk(end);
+        ByteBuffer target = chunk.duplicate();
+        target.position(offset);
+        target.putInt(key.length).putInt(value != null ? value.length : TOMBSTONE).putInt(0).put(key);
+        if (value != null) {
+            target.put(value);
+        }
+        chunk.putInt(offset + 8, checksum(chunk, offset, length));
+        long position = end;
+        end += length;
+        return position;
+    }
+
+    int recordLength(long position) {
+        ByteBuffer chunk = chunk(position);
+        int offset = offset(position);
+        return RECORD_HEADER + chunk.getInt(offset) + Math.max(0, chunk.getInt(offset + 4));
+    }
+
+    boolean isRemoval(long position) {
+        return chunk(position).getInt(offset(position) + 4) == TOMBSTONE;
+    }
+
+    boolean keyEquals(long position, byte[] key) {
+        ByteBuffer chunk = chunk(position);
+        int offset = offset(position);
+        if (chunk.getInt(offset) != key.length) {
+            return false;
+        }
+        offset += RECORD_HEADER;
+        for (int i = 0; i < key.length; i++) {
+            if (chunk.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A read-only view of the key bytes of the record.
+     */
+    ByteBuffer key(long position) {
+        ByteBuffer chunk = chunk(position);
+        int offset = offset(position);
+        return view(chunk, offset + RECORD_HEADER, chunk.getInt(offset));
+    }
+
+    /**
+     * A read-only view of the value bytes of the record.
+     */
+    ByteBuffer value(long position) {
+        ByteBuffer chunk = chunk(position);
+        int offset = offset(position);
+        return view(chunk, offset + RECORD_HEADER + chunk.getInt(offset), chunk.getInt(offset + 4));
+    }
+
+    /**
+     * Whether the record is intact, for records written since the last force.
+     */
+    boolean isValid(long position) {
+        ByteBuffer chunk = chunk(position);
+        int offset = offset(position);
+        int keyLength = chunk.getInt(offset);
+        int valueLength = chunk.getInt(offset + 4);
+        if (keyLength < 0 || valueLength < TOMBSTONE) {
+            return false;
+        }
+        long length = (long) RECORD_HEADER + keyLength + Math.max(0, valueLength);
+        return offset + length <= CHUNK_SIZE && position + length <= end
+               && chunk.getInt(offset + 8) == checksum(chunk, offset, (int) length);
+    }
+
+    /**
+     * The position of the first record, or end if there are none.
+     */
+    long first() {
+        return skipPadding(0);
+    }
+
+    /**
+     * The position of the record after the one at the position, or end if it is the last.
+     */
+    long next(long position) {
+        return skipPadding(position + recordLength(position));
+    }
+
+    /**
+     * Drops the records from the position on, they are overwritten by the next appends.
+     */
+    void truncate(long position) {
+        end = position;
+        forcedEnd = Math.min(forcedEnd, position);
+    }
+
+    /**
+     * Writes the records appended since the last force to the storage device.
+     */
+    void force() {
+        if (end > forcedEnd) {
+            for (long position = forcedEnd - offset(forcedEnd); position < end; position += CHUNK_SIZE) {
+                chunk(position).force();
+            }
+            forcedEnd = end;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        chunks.clear();
+        channel.close();
+    }
+
+    private long skipPadding(long position) {
+        if (position >= end) {
+            return end;
+        }
+        int offset = offset(position);
+        if (CHUNK_SIZE - offset < RECORD_HEADER || chunk(position).getInt(offset) == PADDING) {
+            return Math.min(end, position + CHUNK_SIZE - offset);
+        }
+        return position;
+    }
+
+    private static int offset(long position) {
+        return (int) (position % CHUNK_SIZE);
+    }
+
+    private MappedByteBuffer chunk(long position) {
+        int index = (int) (position / CHUNK_SIZE);
+        while (chunks.size() <= index) {
+            try {
+                chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * CHUNK_SIZE, CHUNK_SIZE));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return chunks.get(index);
+    }
+
+    private static ByteBuffer view(ByteBuffer chunk, int offset, int length) {
+        ByteBuffer view = chunk.asReadOnlyBuffer();
+        view.limit(offset + length).position(offset);
+        return view;
+    }
+
+    /**
+     * CRC32 of the record without its checksum field.
+     */
+    private static int checksum(ByteBuffer chunk, int offset, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = chunk.duplicate();
+        view.limit(offset + 8).position(offset);
+        crc.update(view);
+        view.limit(offset + length).position(offset + RECORD_HEADER);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+}
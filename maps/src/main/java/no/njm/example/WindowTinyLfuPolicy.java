@@ -0,0 +1,136 @@
+package no.njm.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Window TinyLFU: new keys enter a small LRU window, and a key leaving the window only enters the main space
+ * if it has been seen more often recently than the key it would displace.
+ * <p>
+ * The window takes 1% of the weight, so bursts of new keys get a chance to prove themselves. The main space is a
+ * segmented LRU: keys enter its probation part and are promoted to the protected part, 80% of the main weight,
+ * when read again. How often keys were seen is estimated by a {@link FrequencySketch}, so a scan of keys read
+ * once can not flush the popular keys out, as it does with {@link LruPolicy}.
+ */
+class WindowTinyLfuPolicy<K> implements EvictionPolicy<K> {
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final Region window;
+    private final Region probation;
+    private final Region protectedRegion;
+    private final long mainMaximum;
+    private final FrequencySketch sketch;
+
+    WindowTinyLfuPolicy(long maximumWeight) {
+        long windowMaximum = Math.max(1, maximumWeight * WINDOW_PERCENT / 100);
+        mainMaximum = Math.max(0, maximumWeight - windowMaximum);
+        window = new Region(windowMaximum);
+        probation = new Region(Long.MAX_VALUE);
+        protectedRegion = new Region(mainMaximum * PROTECTED_PERCENT / 100);
+        sketch = new FrequencySketch(maximumWeight);
+    }
+
+    @Override
+    public void add(K key, int weight) {
+        sketch.increment(key);
+        window.put(key, weight);
+        // Keys leave the window freely while the main space has room
+        while (window.overflows() && probation.weight + protectedRegion.weight + window.eldestWeight() <= mainMaximum) {
+            K eldest = window.eldest();
+            probation.put(eldest, window.remove(eldest));
+        }
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        sketch.increment(key);
+        if (window.touch(key)) {
+            return;
+        }
+        Integer weight = probation.remove(key);
+        if (weight == null) {
+            protectedRegion.touch(key);
+            return;
+        }
+        protectedRegion.put(key, weight);
+        while (protectedRegion.overflows()) {
+            K demoted = protectedRegion.eldest();
+            probation.put(demoted, protectedRegion.remove(demoted));
+        }
+    }
+
+    @Override
+    public void remove(K key) {
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedRegion.remove(key);
+        }
+    }
+
+    @Override
+    public K evict() {
+        K victim = probation.eldest();
+        if (victim == null) {
+            victim = protectedRegion.eldest();
+        }
+        if (window.overflows()) {
+            // The window's eldest key competes with the main space's eldest key for a place in the main space
+            K candidate = window.eldest();
+            if (victim == null || sketch.frequency(candidate) <= sketch.frequency(victim)) {
+                window.remove(candidate);
+                return candidate;
+            }
+            probation.put(candidate, window.remove(candidate));
+        } else if (victim == null) {
+            victim = window.eldest();
+        }
+        if (victim != null) {
+            remove(victim);
+        }
+        return victim;
+    }
+
+    /**
+     * Keys in LRU order with their weights.
+     */
+    private final class Region {
+
+        private final LinkedHashMap<K, Integer> keys = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maximum;
+        private long weight;
+
+        private Region(long maximum) {
+            this.maximum = maximum;
+        }
+
+        void put(K key, int weight) {
+            keys.put(key, weight);
+            this.weight += weight;
+        }
+
+        Integer remove(K key) {
+            Integer removed = keys.remove(key);
+            if (removed != null) {
+                weight -= removed;
+            }
+            return removed;
+        }
+
+        boolean touch(K key) {
+            return keys.get(key) != null;
+        }
+
+        boolean overflows() {
+            return weight > maximum;
+        }
+
+        K eldest() {
+            return keys.isEmpty() ? null : keys.keySet().iterator().next();
+        }
+
+        int eldestWeight() {
+            return keys.isEmpty() ? 0 : keys.values().iterator().next();
+        }
+    }
+}
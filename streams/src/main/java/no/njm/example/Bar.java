@@ -3,8 +3,20 @@ package no.njm.example;
 class Bar {
 
     String name;
+    long nameHandle;
 
     Bar(String name) {
         this.name = name;
     }
+
+    /**
+     * A Bar whose name is kept off-heap in a StringArena.
+     */
+    Bar(long nameHandle) {
+        this.nameHandle = nameHandle;
+    }
+
+    String name(StringArena arena) {
+        return name != null ? name : arena.get(nameHandle);
+    }
 }
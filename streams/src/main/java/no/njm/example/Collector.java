@@ -31,6 +31,8 @@ public class Collector {
         average();
         join();
         grouping();
+        intGrouping();
+        columnar();
     }
 
     /**
@@ -83,4 +85,27 @@ public class Collector {
                 .collect(Collectors.groupingBy(p -> p.age));
         group.forEach((age, persons) -> log.debug("Persons with age {}: {}", age, persons.size()));
     }
+
+    /**
+     * Grouping by a primitive int key, counting the group members instead of collecting them into lists.
+     */
+    private static void intGrouping() {
+        IntGroupMap<Long> counts = persons
+                .stream()
+                .collect(IntGroupingCollectors.countingByInt(p -> p.age));
+        counts.forEach((age, count) -> log.debug("Persons with age {}: {}", age, count));
+    }
+
+    /**
+     * The same average and grouping over a columnar table, without a Person object or boxed key per row.
+     */
+    private static void columnar() {
+        PersonTable table = PersonTable.of(persons);
+        log.debug("Average age is {}", table.averageAge());
+
+        PersonTable.AgeGroups groups = table.groupByAge();
+        for (int group = 0; group < groups.groupCount(); group++) {
+            log.debug("Persons with age {}: {}", groups.age(group), groups.size(group));
+        }
+    }
 }
@@ -0,0 +1,68 @@
+package no.njm.example;
+
+import java.util.function.Function;
+
+/**
+ * Thread-safe {@link IntSlotTable}, split into lock striped segments by key hash so threads updating
+ * different keys rarely wait for each other.
+ */
+class ConcurrentIntSlotTable {
+
+    // Segments are picked by the top 8 bits of the hash
+    private static final int MAX_SEGMENTS = 256;
+
+    private final IntSlotTable[] segments;
+    private final int mask;
+
+    ConcurrentIntSlotTable(int width) {
+        int wanted = Math.min(MAX_SEGMENTS, Runtime.getRuntime().availableProcessors() * 4);
+        int count = Math.max(1, Integer.highestOneBit(wanted - 1) << 1);
+        segments = new IntSlotTable[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new IntSlotTable(width);
+        }
+        mask = count - 1;
+    }
+
+    /**
+     * The segment holding the key. Callers must synchronize on it while using it.
+     */
+    IntSlotTable segment(int key) {
+        // High bits pick the segment, low bits pick the index inside it
+        return segments[(IntSlotTable.hash(key) >>> 24) & mask];
+    }
+
+    /**
+     * Adds the slots of another table with the same number of segments, which puts each key in the same segment.
+     */
+    ConcurrentIntSlotTable addAll(ConcurrentIntSlotTable other) {
+        for (int i = 0; i < segments.length; i++) {
+            synchronized (segments[i]) {
+                synchronized (other.segments[i]) {
+                    segments[i].addAll(other.segments[i]);
+                }
+            }
+        }
+        return this;
+    }
+
+    int size() {
+        int size = 0;
+        for (IntSlotTable segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    <R> IntGroupMap<R> finish(Function<long[], R> finisher) {
+        IntGroupMap<R> result = new IntGroupMap<>(size());
+        for (IntSlotTable segment : segments) {
+            synchronized (segment) {
+                segment.finishInto(result, finisher);
+            }
+        }
+        return result;
+    }
+}
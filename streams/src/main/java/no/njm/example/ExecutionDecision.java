@@ -0,0 +1,76 @@
+package no.njm.example;
+
+/**
+ * The outcome of an adaptive execution decision: whether a pipeline runs sequential or parallel,
+ * and the inputs the decision was based on.
+ */
+public class ExecutionDecision {
+
+    public enum Mode {
+        SEQUENTIAL,
+        PARALLEL
+    }
+
+    final String key;
+    final Mode mode;
+    final long size;
+    final boolean sized;
+    final boolean subsized;
+    final double nanosPerElement;
+    final long leafSize;
+
+    ExecutionDecision(String key, Mode mode, long size, boolean sized, boolean subsized, double nanosPerElement,
+                      long leafSize) {
+        this.key = key;
+        this.mode = mode;
+        this.size = size;
+        this.sized = sized;
+        this.subsized = subsized;
+        this.nanosPerElement = nanosPerElement;
+        this.leafSize = leafSize;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public boolean isSized() {
+        return sized;
+    }
+
+    public boolean isSubsized() {
+        return subsized;
+    }
+
+    public double getNanosPerElement() {
+        return nanosPerElement;
+    }
+
+    /**
+     * The smallest number of elements a parallel leaf task is split down to, or the full size when sequential.
+     */
+    public long getLeafSize() {
+        return leafSize;
+    }
+
+    /**
+     * Estimated total work in nanoseconds if the pipeline was run on a single thread.
+     */
+    public double estimatedNanos() {
+        return size * nanosPerElement;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s, size=%d, sized=%b, subsized=%b, %.1f ns/element, leafSize=%d",
+                             key, mode, size, sized, subsized, nanosPerElement, leafSize);
+    }
+}
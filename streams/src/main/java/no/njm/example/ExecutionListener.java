@@ -0,0 +1,13 @@
+package no.njm.example;
+
+/**
+ * Metrics hook notified every time {@link Pipelines} decides how a pipeline is executed.
+ */
+@FunctionalInterface
+public interface ExecutionListener {
+
+    ExecutionListener NONE = decision -> {
+    };
+
+    void onDecision(ExecutionDecision decision);
+}
@@ -0,0 +1,221 @@
+package no.njm.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sorts more strings than fit in memory.
+ * <p>
+ * The input is consumed in chunks that fit the memory budget. Each chunk is sorted with Arrays.parallelSort and
+ * spilled to a temporary file as a sorted run. The runs are then k-way merged through a heap of run readers,
+ * lazily, as the returned stream is consumed. Close the stream to delete the temporary files early,
+ * otherwise they are deleted once the stream is exhausted.
+ */
+public class ExternalSort {
+
+    // Rough heap footprint of a String on a 64-bit JVM: reference, String object and char array headers
+    static final int STRING_OVERHEAD_BYTES = 56;
+
+    // Upper bound on the number of runs merged at once, more runs are merged in several passes
+    static final int MAX_FAN_IN = 128;
+
+    private final long memoryBudget;
+    private final Path tempDirectory;
+
+    public ExternalSort(long memoryBudget) throws IOException {
+        this(memoryBudget, Files.createTempDirectory("external-sort"));
+        tempDirectory.toFile().deleteOnExit();
+    }
+
+    /**
+     * @param memoryBudget  Approximate number of heap bytes a chunk of strings may use before it is spilled
+     * @param tempDirectory Directory the sorted runs are written to
+     */
+    public ExternalSort(long memoryBudget, Path tempDirectory) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive, was " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        this.tempDirectory = tempDirectory;
+    }
+
+    public Stream<String> sort(Collection<String> input) {
+        return sort(input.iterator());
+    }
+
+    public Stream<String> sort(Stream<String> input) {
+        return sort(input.iterator());
+    }
+
+    /**
+     * Returns the input in natural order. Input that fits the memory budget is sorted in memory without spilling.
+     */
+    public Stream<String> sort(Iterator<String> input) {
+        List<Path> runs = new ArrayList<>();
+        try {
+            while (input.hasNext()) {
+                String[] chunk = readChunk(input);
+                Arrays.parallelSort(chunk);
+                if (runs.isEmpty() && !input.hasNext()) {
+                    return Arrays.stream(chunk);
+                }
+                runs.add(spill(Arrays.asList(chunk).iterator()));
+            }
+            while (runs.size() > MAX_FAN_IN) {
+                runs = mergePass(runs);
+            }
+            return merge(runs);
+        } catch (IOException e) {
+            delete(runs);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            delete(runs);
+            throw e;
+        }
+    }
+
+    private String[] readChunk(Iterator<String> input) {
+        List<String> chunk = new ArrayList<>();
+        long used = 0;
+        while (input.hasNext() && used < memoryBudget) {
+            String value = Objects.requireNonNull(input.next(), "Cannot sort null values");
+            chunk.add(value);
+            used += STRING_OVERHEAD_BYTES + 2L * value.length();
+        }
+        return chunk.toArray(new String[chunk.size()]);
+    }
+
+    private Path spill(Iterator<String> sorted) throws IOException {
+        Path file = Files.createTempFile(tempDirectory, "run", ".bin");
+        try (RunWriter writer = new RunWriter(file)) {
+            while (sorted.hasNext()) {
+                writer.write(sorted.next());
+            }
+        } catch (IOException | RuntimeException e) {
+            delete(Collections.singletonList(file));
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Merges the runs in groups of {@link #MAX_FAN_IN}. If a merge fails, the runs written by this pass are
+     * deleted, and the caller deletes the input runs that are left.
+     */
+    private List<Path> mergePass(List<Path> runs) throws IOException {
+        List<Path> merged = new ArrayList<>();
+        try {
+            for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                List<Path> group = runs.subList(i, Math.min(runs.size(), i + MAX_FAN_IN));
+                try (MergeIterator iterator = new MergeIterator(group)) {
+                    merged.add(spill(iterator));
+                }
+                delete(group);
+            }
+        } catch (IOException | RuntimeException e) {
+            delete(merged);
+            throw e;
+        }
+        return merged;
+    }
+
+    private Stream<String> merge(List<Path> runs) throws IOException {
+        MergeIterator iterator = new MergeIterator(runs);
+        Spliterator<String> spliterator = Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false)
+                            .onClose(iterator::close);
+    }
+
+    private static void delete(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Left behind in the temp directory
+            }
+        }
+    }
+
+    /**
+     * Merges sorted runs by repeatedly taking the reader with the smallest head off a heap.
+     */
+    private static class MergeIterator implements Iterator<String>, AutoCloseable {
+
+        private final List<Path> runs;
+        private final List<RunReader> readers = new ArrayList<>();
+        private final PriorityQueue<RunReader> heap;
+        private boolean closed;
+
+        MergeIterator(List<Path> runs) throws IOException {
+            this.runs = new ArrayList<>(runs);
+            this.heap = new PriorityQueue<>(Math.max(1, runs.size()));
+            try {
+                for (Path run : runs) {
+                    RunReader reader = new RunReader(run);
+                    readers.add(reader);
+                    if (reader.head() != null) {
+                        heap.add(reader);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (heap.isEmpty()) {
+                close();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String next() {
+            RunReader reader = heap.poll();
+            if (reader == null) {
+                throw new NoSuchElementException();
+            }
+            String value = reader.next();
+            if (reader.head() != null) {
+                heap.add(reader);
+            }
+            return value;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            heap.clear();
+            for (RunReader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // Nothing more to read from it
+                }
+            }
+            delete(runs);
+        }
+    }
+}
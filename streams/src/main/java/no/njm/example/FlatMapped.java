@@ -1,9 +1,12 @@
 package no.njm.example;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +17,8 @@ public class FlatMapped {
 
     public static void main(String[] args) {
         flatMap();
+        mapMulti();
+        offHeapNames();
         optionals(new Outer());
     }
 
@@ -45,6 +50,42 @@ public class FlatMapped {
                  .forEach(bar -> log.debug("{}", bar.name));
     }
 
+    /**
+     * With mapMulti the mapper pushes each child straight downstream, without a list or a stream per parent.
+     */
+    private static void mapMulti() {
+        Stream<Foo> foos = IntStream.range(1, 4)
+                                    .mapToObj(i -> new Foo("Foo" + i));
+
+        FlatMaps.<Foo, Bar>mapMulti(foos, (foo, sink) -> {
+            for (int i = 1; i < 4; i++) {
+                sink.accept(new Bar(foo.name + "Bar" + i));
+            }
+        }).forEach(bar -> log.debug("{}", bar.name));
+    }
+
+    /**
+     * Names composed and kept off-heap in a StringArena. Strings are only created when the names are logged.
+     */
+    private static void offHeapNames() {
+        try (StringArena arena = StringArena.direct()) {
+            FlatMaps.<Foo, Bar>mapMulti(IntStream.range(1, 4)
+                                                 .mapToObj(i -> new Foo(arena.begin().append("Foo").append(i).end())),
+                                        (foo, sink) -> {
+                                            for (int i = 1; i < 4; i++) {
+                                                sink.accept(new Bar(arena.begin()
+                                                                         .appendHandle(foo.nameHandle)
+                                                                         .append("Bar")
+                                                                         .append(i)
+                                                                         .end()));
+                                            }
+                                        })
+                    .forEach(bar -> log.debug("{}", bar.name(arena)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * FlatMap is also available for the Optional class and can be utilized to prevent nasty null checks.
      */
@@ -0,0 +1,41 @@
+package no.njm.example;
+
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * One to many mapping where the mapper pushes the children of each parent into a Consumer, like the
+ * mapMulti operation added to Stream in Java 16.
+ * <p>
+ * flatMap needs a Stream per parent, often built from a collection filled for the purpose. Here the children
+ * go straight to the next stage of the pipeline.
+ */
+public final class FlatMaps {
+
+    private FlatMaps() {
+    }
+
+    public static <T, R> Stream<R> mapMulti(Stream<T> source, BiConsumer<? super T, ? super Consumer<R>> mapper) {
+        return StreamSupport.stream(new MultiSpliterator<>(source.spliterator(), mapper), source.isParallel())
+                            .onClose(source::close);
+    }
+
+    /**
+     * Maps the parents of a list, splitting the list for parallel execution by the estimated number of children
+     * of each parent. Use when the fan-out is skewed, so a few parents with many children do not end up in the
+     * same fork/join task.
+     */
+    public static <T, R> Stream<R> mapMulti(List<T> source, ToLongFunction<? super T> fanOut,
+                                            BiConsumer<? super T, ? super Consumer<R>> mapper, boolean parallel) {
+        if (!(source instanceof RandomAccess)) {
+            throw new IllegalArgumentException("Weighted splitting needs a random access list");
+        }
+        return StreamSupport.stream(new MultiSpliterator<>(new WeightedListSpliterator<>(source, fanOut), mapper),
+                                    parallel);
+    }
+}
@@ -6,9 +6,21 @@ import java.util.List;
 class Foo {
 
     String name;
+    long nameHandle;
     List<Bar> bars = new ArrayList<>();
 
     Foo(String name) {
         this.name = name;
     }
+
+    /**
+     * A Foo whose name is kept off-heap in a StringArena.
+     */
+    Foo(long nameHandle) {
+        this.nameHandle = nameHandle;
+    }
+
+    String name(StringArena arena) {
+        return name != null ? name : arena.get(nameHandle);
+    }
 }
@@ -0,0 +1,59 @@
+package no.njm.example;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Delegating Spliterator that stops splitting once a chunk is at or below a given leaf size,
+ * which bounds the number of fork/join tasks a parallel stream creates.
+ */
+class GranularSpliterator<T> implements Spliterator<T> {
+
+    private final Spliterator<T> delegate;
+    private final long leafSize;
+
+    GranularSpliterator(Spliterator<T> delegate, long leafSize) {
+        this.delegate = delegate;
+        this.leafSize = leafSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        return delegate.tryAdvance(action);
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        delegate.forEachRemaining(action);
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (delegate.estimateSize() <= leafSize) {
+            return null;
+        }
+        Spliterator<T> prefix = delegate.trySplit();
+        return prefix == null ? null : new GranularSpliterator<>(prefix, leafSize);
+    }
+
+    @Override
+    public long estimateSize() {
+        return delegate.estimateSize();
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return delegate.getExactSizeIfKnown();
+    }
+
+    @Override
+    public int characteristics() {
+        return delegate.characteristics();
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        return delegate.getComparator();
+    }
+}
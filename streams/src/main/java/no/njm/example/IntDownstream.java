@@ -0,0 +1,58 @@
+package no.njm.example;
+
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A downstream reduction for {@link IntGroupingCollectors} that keeps its state per group as a few primitive
+ * long slots in the grouping table, instead of as an object per group.
+ * <p>
+ * Every slot is a running sum, so partial results from parallel leaves are combined by adding slot by slot.
+ * The finisher turns the slots of a group into the group result once, after all elements are accumulated.
+ */
+public class IntDownstream<T, R> {
+
+    @FunctionalInterface
+    public interface SlotAccumulator<T> {
+
+        void accumulate(long[] slots, int offset, T element);
+    }
+
+    final int width;
+    final SlotAccumulator<? super T> accumulator;
+    final Function<long[], R> finisher;
+
+    public IntDownstream(int width, SlotAccumulator<? super T> accumulator, Function<long[], R> finisher) {
+        if (width < 1) {
+            throw new IllegalArgumentException("A downstream needs at least one slot, was " + width);
+        }
+        this.width = width;
+        this.accumulator = accumulator;
+        this.finisher = finisher;
+    }
+
+    public static <T> IntDownstream<T, Long> counting() {
+        return new IntDownstream<>(1, (slots, offset, element) -> slots[offset]++, slots -> slots[0]);
+    }
+
+    /**
+     * Sums as an int, overflowing like Collectors.summingInt.
+     */
+    public static <T> IntDownstream<T, Integer> summingInt(ToIntFunction<? super T> mapper) {
+        return new IntDownstream<>(1, (slots, offset, element) -> slots[offset] += mapper.applyAsInt(element),
+                                   slots -> (int) slots[0]);
+    }
+
+    public static <T> IntDownstream<T, Long> summingLong(ToLongFunction<? super T> mapper) {
+        return new IntDownstream<>(1, (slots, offset, element) -> slots[offset] += mapper.applyAsLong(element),
+                                   slots -> slots[0]);
+    }
+
+    public static <T> IntDownstream<T, Double> averagingInt(ToIntFunction<? super T> mapper) {
+        return new IntDownstream<>(2, (slots, offset, element) -> {
+            slots[offset] += mapper.applyAsInt(element);
+            slots[offset + 1]++;
+        }, slots -> slots[1] == 0 ? 0.0 : (double) slots[0] / slots[1]);
+    }
+}
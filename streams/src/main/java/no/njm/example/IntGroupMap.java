@@ -0,0 +1,115 @@
+package no.njm.example;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Result of grouping by an int key: an open addressing map from unboxed int keys to group results.
+ */
+public class IntGroupMap<R> {
+
+    @FunctionalInterface
+    public interface EntryConsumer<R> {
+
+        void accept(int key, R value);
+    }
+
+    private int size;
+    private int[] keys;
+    private Object[] values;
+    private boolean[] used;
+
+    IntGroupMap(int expectedSize) {
+        int tableSize = Integer.highestOneBit(Math.max(8, expectedSize * 2) - 1) << 1;
+        keys = new int[tableSize];
+        values = new Object[tableSize];
+        used = new boolean[tableSize];
+    }
+
+    void put(int key, R value) {
+        int index = indexOf(key);
+        if (!used[index]) {
+            used[index] = true;
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return used[indexOf(key)];
+    }
+
+    public R get(int key) {
+        return getOrDefault(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public R getOrDefault(int key, R defaultValue) {
+        int index = indexOf(key);
+        return used[index] ? (R) values[index] : defaultValue;
+    }
+
+    /**
+     * The keys in ascending order.
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int i = 0;
+        for (int index = 0; index < keys.length; index++) {
+            if (used[index]) {
+                result[i++] = keys[index];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super R> action) {
+        for (int index = 0; index < keys.length; index++) {
+            if (used[index]) {
+                action.accept(keys[index], (R) values[index]);
+            }
+        }
+    }
+
+    /**
+     * Copies the groups into a regular map with boxed keys, for code expecting the result of Collectors.groupingBy.
+     */
+    public Map<Integer, R> toMap() {
+        Map<Integer, R> map = new HashMap<>(size * 2);
+        forEach(map::put);
+        return map;
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = IntSlotTable.hash(key) & mask;
+        while (used[index] && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int key : keys()) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(get(key));
+        }
+        return builder.append('}').toString();
+    }
+}
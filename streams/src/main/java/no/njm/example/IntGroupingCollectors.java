@@ -0,0 +1,68 @@
+package no.njm.example;
+
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * Collectors grouping by an int key without boxing it. The groups live in an open addressing table keyed by
+ * the primitive int, and the downstream keeps primitive accumulators per group instead of a list of elements.
+ * <p>
+ * The concurrent variants accumulate into one shared, lock striped table. Parallel streams then skip the
+ * combiner step that merges one table per fork/join leaf.
+ */
+public final class IntGroupingCollectors {
+
+    private IntGroupingCollectors() {
+    }
+
+    public static <T> Collector<T, ?, IntGroupMap<Long>> countingByInt(ToIntFunction<? super T> classifier) {
+        return groupingByInt(classifier, IntDownstream.counting());
+    }
+
+    public static <T, R> Collector<T, ?, IntGroupMap<R>> groupingByInt(ToIntFunction<? super T> classifier,
+                                                                       IntDownstream<? super T, R> downstream) {
+        return Collector.of(
+                () -> new IntSlotTable(downstream.width),
+                (table, element) -> {
+                    // The offset may grow the table, so it is looked up before reading the slots
+                    int offset = table.offset(classifier.applyAsInt(element));
+                    downstream.accumulator.accumulate(table.slots, offset, element);
+                },
+                (left, right) -> {
+                    if (left.size < right.size) {
+                        right.addAll(left);
+                        return right;
+                    }
+                    left.addAll(right);
+                    return left;
+                },
+                table -> {
+                    IntGroupMap<R> result = new IntGroupMap<>(table.size);
+                    table.finishInto(result, downstream.finisher);
+                    return result;
+                });
+    }
+
+    public static <T> Collector<T, ?, IntGroupMap<Long>> countingByIntConcurrent(
+            ToIntFunction<? super T> classifier) {
+        return groupingByIntConcurrent(classifier, IntDownstream.counting());
+    }
+
+    public static <T, R> Collector<T, ?, IntGroupMap<R>> groupingByIntConcurrent(
+            ToIntFunction<? super T> classifier, IntDownstream<? super T, R> downstream) {
+        return Collector.of(
+                () -> new ConcurrentIntSlotTable(downstream.width),
+                (table, element) -> {
+                    int key = classifier.applyAsInt(element);
+                    IntSlotTable segment = table.segment(key);
+                    synchronized (segment) {
+                        int offset = segment.offset(key);
+                        downstream.accumulator.accumulate(segment.slots, offset, element);
+                    }
+                },
+                ConcurrentIntSlotTable::addAll,
+                table -> table.finish(downstream.finisher),
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED);
+    }
+}
@@ -0,0 +1,97 @@
+package no.njm.example;
+
+import java.util.function.Function;
+
+/**
+ * Open addressing hash table from int keys to a fixed number of long slots per key, stored in flat arrays.
+ * Collisions are resolved by linear probing. Not thread-safe.
+ */
+class IntSlotTable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    final int width;
+    int size;
+    int[] keys;
+    boolean[] used;
+    long[] slots;
+
+    IntSlotTable(int width) {
+        this(width, MIN_CAPACITY);
+    }
+
+    IntSlotTable(int width, int capacity) {
+        this.width = width;
+        int tableSize = Integer.highestOneBit(Math.max(MIN_CAPACITY, capacity) - 1) << 1;
+        keys = new int[tableSize];
+        used = new boolean[tableSize];
+        slots = new long[tableSize * width];
+    }
+
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the offset of the first slot of the key in {@link #slots}, adding the key with zeroed slots if absent.
+     */
+    int offset(int key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                return index * width;
+            }
+            index = (index + 1) & mask;
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            grow();
+            return offset(key);
+        }
+        used[index] = true;
+        keys[index] = key;
+        size++;
+        return index * width;
+    }
+
+    /**
+     * Adds all slots of the other table to the slots of the same keys in this table.
+     */
+    void addAll(IntSlotTable other) {
+        for (int index = 0; index < other.keys.length; index++) {
+            if (other.used[index]) {
+                int target = offset(other.keys[index]);
+                int source = index * width;
+                for (int slot = 0; slot < width; slot++) {
+                    slots[target + slot] += other.slots[source + slot];
+                }
+            }
+        }
+    }
+
+    <R> void finishInto(IntGroupMap<R> result, Function<long[], R> finisher) {
+        long[] group = new long[width];
+        for (int index = 0; index < keys.length; index++) {
+            if (used[index]) {
+                System.arraycopy(slots, index * width, group, 0, width);
+                result.put(keys[index], finisher.apply(group));
+            }
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        long[] oldSlots = slots;
+        keys = new int[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        slots = new long[oldSlots.length * 2];
+        size = 0;
+        for (int index = 0; index < oldKeys.length; index++) {
+            if (oldUsed[index]) {
+                System.arraycopy(oldSlots, index * width, slots, offset(oldKeys[index]), width);
+            }
+        }
+    }
+}
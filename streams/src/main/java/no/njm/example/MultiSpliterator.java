@@ -0,0 +1,83 @@
+package no.njm.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the children a mapper pushes for each parent of a source spliterator.
+ * <p>
+ * Bulk traversal hands the downstream action straight to the mapper, so no collection or stream is created per
+ * parent. Only single element traversal buffers, and then only the children of one parent at a time. Children may
+ * be null, as in a stream.
+ * Splitting splits the source, so the estimated size of the source decides how the work is divided.
+ */
+class MultiSpliterator<T, R> implements Spliterator<R> {
+
+    private final Spliterator<T> source;
+    private final BiConsumer<? super T, ? super Consumer<R>> mapper;
+    // Children of the current parent not yet passed on by tryAdvance, from index next
+    private List<R> buffer;
+    private int next;
+
+    MultiSpliterator(Spliterator<T> source, BiConsumer<? super T, ? super Consumer<R>> mapper) {
+        this.source = source;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super R> action) {
+        if (buffer == null) {
+            buffer = new ArrayList<>();
+        }
+        if (next == buffer.size()) {
+            buffer.clear();
+            next = 0;
+            Consumer<R> sink = buffer::add;
+            while (buffer.isEmpty()) {
+                if (!source.tryAdvance(parent -> mapper.accept(parent, sink))) {
+                    return false;
+                }
+            }
+        }
+        action.accept(buffer.get(next++));
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachRemaining(Consumer<? super R> action) {
+        if (buffer != null) {
+            while (next < buffer.size()) {
+                action.accept(buffer.get(next++));
+            }
+            buffer.clear();
+            next = 0;
+        }
+        Consumer<R> sink = (Consumer<R>) action;
+        source.forEachRemaining(parent -> mapper.accept(parent, sink));
+    }
+
+    @Override
+    public Spliterator<R> trySplit() {
+        // Buffered children come before the rest of the source, a split would put them out of order
+        if (buffer != null && next < buffer.size()) {
+            return null;
+        }
+        Spliterator<T> prefix = source.trySplit();
+        return prefix == null ? null : new MultiSpliterator<>(prefix, mapper);
+    }
+
+    @Override
+    public long estimateSize() {
+        long size = source.estimateSize();
+        return buffer == null || size == Long.MAX_VALUE ? size : size + buffer.size() - next;
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics() & Spliterator.ORDERED;
+    }
+}
@@ -0,0 +1,49 @@
+package no.njm.example;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A ForkJoinPool with a fixed parallelism and named worker threads, used to keep heavy parallel
+ * stream workloads off the JVM-wide common pool.
+ */
+public class NamedForkJoinPool extends ForkJoinPool {
+
+    private final String name;
+
+    public NamedForkJoinPool(String name, int parallelism) {
+        super(parallelism, new NamedWorkerThreadFactory(name), null, false);
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public PoolMetrics metrics() {
+        return PoolMetrics.of(name, this);
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + super.toString();
+    }
+
+    private static class NamedWorkerThreadFactory implements ForkJoinWorkerThreadFactory {
+
+        private final String name;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        NamedWorkerThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(name + "-worker-" + counter.incrementAndGet());
+            return thread;
+        }
+    }
+}
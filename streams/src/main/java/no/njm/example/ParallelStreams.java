@@ -1,15 +1,20 @@
 package no.njm.example;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Sequential streams uses a single thread while parallel uses multiple threads.
+ * Whether parallel pays off depends on input size and element type, see ParallelStreamsBenchmark in the
+ * benchmarks module for measurements.
  */
 public class ParallelStreams {
 
@@ -17,38 +22,101 @@ public class ParallelStreams {
 
     private static final int MAX = 1000;
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         sortSequential();
         sortParallel();
+        sortAdaptive();
+        sortIsolated();
+        sortExternal();
+        sortRadix();
+    }
+
+    /**
+     * Parallel streams run on the JVM-wide common pool unless started from within another ForkJoinPool.
+     */
+    public static PooledStreams on(ForkJoinPool pool) {
+        return new PooledStreams(pool);
     }
 
     private static void sortSequential() {
-        List<String> list = new ArrayList<>(MAX);
-        for (int i = 0; i < MAX; i++) {
-            UUID uuid = UUID.randomUUID();
-            list.add(uuid.toString());
-        }
+        List<String> list = uuids();
 
-        long start = System.nanoTime();
-        list.stream()
-                  .sorted()
-                  .count();
-        long end = System.nanoTime();
-        log.debug(String.format("Sequential sort took: %d ms", TimeUnit.NANOSECONDS.toMillis(end - start)));
+        Object[] sorted = list.stream()
+                              .sorted()
+                              .toArray();
+        log.debug("Sequential sort of {} elements, first is {}", sorted.length, sorted[0]);
     }
 
     private static void sortParallel() {
+        List<String> list = uuids();
+
+        Object[] sorted = list.parallelStream()
+                              .sorted()
+                              .toArray();
+        log.debug("Parallel sort of {} elements, first is {}", sorted.length, sorted[0]);
+    }
+
+    /**
+     * Let Pipelines choose sequential or parallel from the source size and a calibrated cost per element.
+     */
+    private static void sortAdaptive() {
+        List<String> list = uuids();
+
+        Pipelines.setListener(decision -> log.debug("Adaptive decision {}", decision));
+        Pipelines.calibrate("sort", list, stream -> stream.sorted().toArray());
+
+        Object[] sorted = Pipelines.adaptive("sort", list)
+                                   .sorted()
+                                   .toArray();
+        log.debug("Adaptive sort of {} elements, first is {}", sorted.length, sorted[0]);
+    }
+
+    /**
+     * Run the parallel sort on a dedicated, bounded pool so it cannot starve other users of the common pool.
+     */
+    private static void sortIsolated() {
+        List<String> list = uuids();
+
+        NamedForkJoinPool pool = new NamedForkJoinPool("sort", 2);
+        try {
+            List<String> sorted = ParallelStreams.on(pool)
+                                                 .sorted(list);
+            log.debug("Isolated sort of {} elements, first is {}", sorted.size(), sorted.get(0));
+            log.debug("Pool metrics {}", pool.metrics());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Data sets larger than the heap are sorted in chunks, spilled to disk and merged lazily.
+     */
+    private static void sortExternal() throws IOException {
+        List<String> list = uuids();
+
+        // A tiny budget to force spilling for the example
+        ExternalSort externalSort = new ExternalSort(16 * 1024);
+        try (Stream<String> sorted = externalSort.sort(list)) {
+            log.debug("External sort, first is {}", sorted.findFirst().orElse(null));
+        }
+    }
+
+    /**
+     * UUIDs are really two longs. Radix sorting the longs avoids creating and comparing strings altogether.
+     */
+    private static void sortRadix() {
+        UuidArray uuids = UuidArray.random(MAX, new Random());
+
+        uuids.parallelSort();
+        log.debug("Radix sort of {} elements, first is {}", uuids.size(), uuids.getString(0));
+    }
+
+    private static List<String> uuids() {
         List<String> list = new ArrayList<>(MAX);
         for (int i = 0; i < MAX; i++) {
             UUID uuid = UUID.randomUUID();
             list.add(uuid.toString());
         }
-
-        long start = System.nanoTime();
-        list.parallelStream()
-                  .sorted()
-                  .count();
-        long end = System.nanoTime();
-        log.debug(String.format("Parallel sort took: %d ms", TimeUnit.NANOSECONDS.toMillis(end - start)));
+        return list;
     }
 }
@@ -0,0 +1,349 @@
+package no.njm.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Persons stored column by column instead of as one object per person. Ages are kept in an int array and names
+ * as UTF-8 bytes packed back to back in a single byte array, with an offset array marking where each name starts.
+ * <p>
+ * Queries run as plain loops over the primitive columns. The range queries on age compile to branch free loops the
+ * JIT can vectorize, the IntPredicate variants are more flexible but cost a call per row. A parallel view splits
+ * the rows into chunks and runs the same loops on the common pool.
+ */
+public class PersonTable {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Rows per chunk when running in parallel
+    static final int CHUNK_SIZE = 1 << 14;
+
+    // Age ranges up to this wide, or as wide as the table is long, are grouped with a counting sort
+    static final int MAX_COUNTING_RANGE = 1 << 16;
+
+    int size;
+    int[] ages;
+    byte[] names;
+    int[] nameOffsets;
+    private final boolean parallel;
+    private final boolean view;
+
+    public PersonTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PersonTable(int capacity) {
+        ages = new int[Math.max(1, capacity)];
+        nameOffsets = new int[Math.max(1, capacity) + 1];
+        names = new byte[Math.max(1, capacity) * 8];
+        parallel = false;
+        view = false;
+    }
+
+    private PersonTable(PersonTable table, boolean parallel) {
+        this.size = table.size;
+        this.ages = table.ages;
+        this.names = table.names;
+        this.nameOffsets = table.nameOffsets;
+        this.parallel = parallel;
+        this.view = true;
+    }
+
+    static PersonTable of(Collection<Person> persons) {
+        PersonTable table = new PersonTable(persons.size());
+        for (Person person : persons) {
+            table.add(person.name, person.age);
+        }
+        return table;
+    }
+
+    public void add(String name, int age) {
+        if (view) {
+            throw new UnsupportedOperationException("Rows can not be added to a view of a table");
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (size == ages.length) {
+            ages = Arrays.copyOf(ages, size * 2);
+            nameOffsets = Arrays.copyOf(nameOffsets, size * 2 + 1);
+        }
+        int start = nameOffsets[size];
+        if (start + bytes.length > names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, start + bytes.length));
+        }
+        System.arraycopy(bytes, 0, names, start, bytes.length);
+        ages[size] = age;
+        nameOffsets[size + 1] = start + bytes.length;
+        size++;
+    }
+
+    /**
+     * Returns a view of the same columns where queries run in parallel. Adding rows to the view is not supported.
+     */
+    public PersonTable parallel() {
+        return new PersonTable(this, true);
+    }
+
+    public PersonTable sequential() {
+        return new PersonTable(this, false);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int age(int row) {
+        return ages[row];
+    }
+
+    public String name(int row) {
+        int start = nameOffsets[row];
+        return new String(names, start, nameOffsets[row + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    public long countAgeBetween(int min, int max) {
+        if (!parallel) {
+            return countAgeBetween(0, size, min, max);
+        }
+        return chunks().mapToLong(chunk -> countAgeBetween(chunkStart(chunk), chunkEnd(chunk), min, max))
+                       .sum();
+    }
+
+    public long count(IntPredicate agePredicate) {
+        if (!parallel) {
+            return count(0, size, agePredicate);
+        }
+        return chunks().mapToLong(chunk -> count(chunkStart(chunk), chunkEnd(chunk), agePredicate))
+                       .sum();
+    }
+
+    /**
+     * Counts the names containing the given text, matched directly against the UTF-8 bytes without decoding.
+     */
+    public long countNameContains(String text) {
+        byte[] pattern = text.getBytes(StandardCharsets.UTF_8);
+        if (!parallel) {
+            return countNameContains(0, size, pattern);
+        }
+        return chunks().mapToLong(chunk -> countNameContains(chunkStart(chunk), chunkEnd(chunk), pattern))
+                       .sum();
+    }
+
+    /**
+     * Returns the rows matching the predicate, in row order.
+     */
+    public int[] filter(IntPredicate agePredicate) {
+        if (!parallel) {
+            return filter(0, size, agePredicate);
+        }
+        return chunks().mapToObj(chunk -> filter(chunkStart(chunk), chunkEnd(chunk), agePredicate))
+                       .flatMapToInt(Arrays::stream)
+                       .toArray();
+    }
+
+    public long sumAge() {
+        if (!parallel) {
+            return sumAge(0, size);
+        }
+        return chunks().mapToLong(chunk -> sumAge(chunkStart(chunk), chunkEnd(chunk)))
+                       .sum();
+    }
+
+    /**
+     * Average age of all persons, or 0 if the table is empty like Collectors.averagingInt.
+     */
+    public double averageAge() {
+        return size == 0 ? 0 : (double) sumAge() / size;
+    }
+
+    /**
+     * Groups the rows by age, ordered by age and then by row, without per group lists. Ages are usually in a narrow
+     * range, and are then grouped with a counting sort. Wide ranges fall back to radix sorting the age and row
+     * packed into one long.
+     */
+    public AgeGroups groupByAge() {
+        if (size == 0) {
+            return new AgeGroups(new int[0], new int[]{0}, new int[0]);
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            min = Math.min(min, ages[row]);
+            max = Math.max(max, ages[row]);
+        }
+        long range = (long) max - min + 1;
+        return range <= Math.max(MAX_COUNTING_RANGE, size) ? countingGroupByAge(min, (int) range) : radixGroupByAge();
+    }
+
+    private AgeGroups countingGroupByAge(int min, int range) {
+        int[] counts = new int[range + 1];
+        for (int row = 0; row < size; row++) {
+            counts[ages[row] - min + 1]++;
+        }
+        int groups = 0;
+        for (int i = 1; i <= range; i++) {
+            if (counts[i] != 0) {
+                groups++;
+            }
+        }
+        int[] keys = new int[groups];
+        int[] offsets = new int[groups + 1];
+        int group = 0;
+        for (int i = 1; i <= range; i++) {
+            if (counts[i] != 0) {
+                keys[group] = min + i - 1;
+                offsets[group] = counts[i - 1];
+                group++;
+            }
+            counts[i] += counts[i - 1];
+        }
+        offsets[groups] = size;
+
+        int[] rows = new int[size];
+        for (int row = 0; row < size; row++) {
+            rows[counts[ages[row] - min]++] = row;
+        }
+        return new AgeGroups(keys, offsets, rows);
+    }
+
+    private AgeGroups radixGroupByAge() {
+        long[] packed = new long[size];
+        for (int row = 0; row < size; row++) {
+            packed[row] = ((long) ages[row] << 32) | row;
+        }
+        if (parallel) {
+            RadixSort.parallelSort(packed);
+        } else {
+            RadixSort.sort(packed);
+        }
+
+        int[] rows = new int[size];
+        int[] keys = new int[size];
+        int[] offsets = new int[size + 1];
+        int groups = 0;
+        for (int i = 0; i < size; i++) {
+            int age = (int) (packed[i] >> 32);
+            rows[i] = (int) packed[i];
+            if (groups == 0 || keys[groups - 1] != age) {
+                keys[groups] = age;
+                offsets[groups] = i;
+                groups++;
+            }
+        }
+        offsets[groups] = size;
+        return new AgeGroups(Arrays.copyOf(keys, groups), Arrays.copyOf(offsets, groups + 1), rows);
+    }
+
+    private IntStream chunks() {
+        return IntStream.range(0, (size + CHUNK_SIZE - 1) / CHUNK_SIZE)
+                        .parallel();
+    }
+
+    private static int chunkStart(int chunk) {
+        return chunk * CHUNK_SIZE;
+    }
+
+    private int chunkEnd(int chunk) {
+        return Math.min(size, (chunk + 1) * CHUNK_SIZE);
+    }
+
+    private long countAgeBetween(int from, int to, int min, int max) {
+        int[] column = ages;
+        long count = 0;
+        for (int row = from; row < to; row++) {
+            int age = column[row];
+            count += (age >= min & age <= max) ? 1 : 0;
+        }
+        return count;
+    }
+
+    private long count(int from, int to, IntPredicate agePredicate) {
+        int[] column = ages;
+        long count = 0;
+        for (int row = from; row < to; row++) {
+            if (agePredicate.test(column[row])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long countNameContains(int from, int to, byte[] pattern) {
+        long count = 0;
+        for (int row = from; row < to; row++) {
+            if (indexOf(names, nameOffsets[row], nameOffsets[row + 1], pattern) >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int[] filter(int from, int to, IntPredicate agePredicate) {
+        int[] column = ages;
+        int[] rows = new int[to - from];
+        int matches = 0;
+        for (int row = from; row < to; row++) {
+            if (agePredicate.test(column[row])) {
+                rows[matches++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, matches);
+    }
+
+    private long sumAge(int from, int to) {
+        int[] column = ages;
+        long sum = 0;
+        for (int row = from; row < to; row++) {
+            sum += column[row];
+        }
+        return sum;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte[] pattern) {
+        int last = to - pattern.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i - from;
+        }
+        return -1;
+    }
+
+    /**
+     * Rows grouped by age. Group g has the age keys[g] and the rows rows[offsets[g]] up to rows[offsets[g + 1]].
+     */
+    public static class AgeGroups {
+
+        final int[] keys;
+        final int[] offsets;
+        final int[] rows;
+
+        AgeGroups(int[] keys, int[] offsets, int[] rows) {
+            this.keys = keys;
+            this.offsets = offsets;
+            this.rows = rows;
+        }
+
+        public int groupCount() {
+            return keys.length;
+        }
+
+        public int age(int group) {
+            return keys[group];
+        }
+
+        public int size(int group) {
+            return offsets[group + 1] - offsets[group];
+        }
+
+        public int row(int group, int index) {
+            return rows[offsets[group] + index];
+        }
+    }
+}
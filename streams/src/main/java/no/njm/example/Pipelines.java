@@ -0,0 +1,123 @@
+package no.njm.example;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Chooses between sequential and parallel execution instead of picking stream() or parallelStream() by hand.
+ * <p>
+ * A pipeline goes parallel only when the estimated total work, source size times the per-element cost
+ * of the pipeline, is large enough to pay for forking. Sources that are not SIZED always run sequential,
+ * and sources that are SIZED but not SUBSIZED must carry more work since they split unevenly.
+ * <p>
+ * The per-element cost is stored per pipeline key. It can be measured at startup with
+ * {@link #calibrate(String, Collection, Function)}, otherwise a conservative default is used.
+ */
+public final class Pipelines {
+
+    public static final String DEFAULT_KEY = "default";
+
+    // Assumed cost of a pipeline that has not been calibrated
+    static final double DEFAULT_NANOS_PER_ELEMENT = 20;
+
+    // Total work below which forking costs more than it saves
+    static final double PARALLEL_THRESHOLD_NANOS = 100_000;
+
+    // Uneven splits of a SIZED but not SUBSIZED source need a larger margin
+    static final int UNEVEN_SPLIT_PENALTY = 4;
+
+    // Smallest amount of work worth handing to a single fork/join task
+    static final double MIN_LEAF_NANOS = 10_000;
+
+    // Leaf tasks per worker thread, leaves some slack for work stealing
+    static final int LEAVES_PER_WORKER = 4;
+
+    private static final int PROBE_WARMUP_ROUNDS = 5;
+    private static final int PROBE_ROUNDS = 5;
+
+    private static final Map<String, Double> costs = new ConcurrentHashMap<>();
+    private static volatile ExecutionListener listener = ExecutionListener.NONE;
+
+    private Pipelines() {
+    }
+
+    public static <T> Stream<T> adaptive(Collection<T> source) {
+        return adaptive(DEFAULT_KEY, source);
+    }
+
+    /**
+     * Returns a stream over the source that is sequential or parallel depending on the source and
+     * the cost estimate stored for the key.
+     */
+    public static <T> Stream<T> adaptive(String key, Collection<T> source) {
+        Spliterator<T> spliterator = source.spliterator();
+        ExecutionDecision decision = decide(key, spliterator, ForkJoinPool.getCommonPoolParallelism());
+        listener.onDecision(decision);
+
+        if (decision.mode == ExecutionDecision.Mode.SEQUENTIAL) {
+            return StreamSupport.stream(spliterator, false);
+        }
+        return StreamSupport.stream(new GranularSpliterator<>(spliterator, decision.leafSize), true);
+    }
+
+    /**
+     * Micro-probe measuring the per-element cost of a pipeline. Runs the pipeline sequentially over the
+     * sample a few times to warm it up, then stores the fastest measured round for the key.
+     *
+     * @return The measured cost in nanoseconds per element
+     */
+    public static <T> double calibrate(String key, Collection<T> sample, Function<Stream<T>, ?> pipeline) {
+        if (sample.isEmpty()) {
+            throw new IllegalArgumentException("Cannot calibrate " + key + " with an empty sample");
+        }
+        for (int i = 0; i < PROBE_WARMUP_ROUNDS; i++) {
+            pipeline.apply(sample.stream());
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            pipeline.apply(sample.stream());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double nanosPerElement = (double) best / sample.size();
+        costs.put(key, nanosPerElement);
+        return nanosPerElement;
+    }
+
+    public static void setCost(String key, double nanosPerElement) {
+        costs.put(key, nanosPerElement);
+    }
+
+    public static double getCost(String key) {
+        return costs.getOrDefault(key, DEFAULT_NANOS_PER_ELEMENT);
+    }
+
+    public static void setListener(ExecutionListener executionListener) {
+        listener = executionListener == null ? ExecutionListener.NONE : executionListener;
+    }
+
+    static ExecutionDecision decide(String key, Spliterator<?> spliterator, int parallelism) {
+        boolean sized = spliterator.hasCharacteristics(Spliterator.SIZED);
+        boolean subsized = spliterator.hasCharacteristics(Spliterator.SUBSIZED);
+        long size = spliterator.estimateSize();
+        double nanosPerElement = getCost(key);
+
+        double threshold = subsized ? PARALLEL_THRESHOLD_NANOS : PARALLEL_THRESHOLD_NANOS * UNEVEN_SPLIT_PENALTY;
+        if (!sized || parallelism < 2 || size * nanosPerElement < threshold) {
+            return new ExecutionDecision(key, ExecutionDecision.Mode.SEQUENTIAL, size, sized, subsized,
+                                         nanosPerElement, size);
+        }
+
+        long byWorkers = size / ((long) parallelism * LEAVES_PER_WORKER);
+        long byCost = (long) Math.ceil(MIN_LEAF_NANOS / nanosPerElement);
+        long leafSize = Math.max(1, Math.max(byWorkers, byCost));
+        return new ExecutionDecision(key, ExecutionDecision.Mode.PARALLEL, size, sized, subsized,
+                                     nanosPerElement, leafSize);
+    }
+}
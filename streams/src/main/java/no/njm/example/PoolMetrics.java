@@ -0,0 +1,73 @@
+package no.njm.example;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Point in time snapshot of a ForkJoinPool's load. Queue depth is the sum of tasks queued by workers
+ * and submissions from outside the pool that have not started yet.
+ */
+public class PoolMetrics {
+
+    final String name;
+    final int parallelism;
+    final int poolSize;
+    final int activeThreads;
+    final int runningThreads;
+    final long queuedTasks;
+    final int queuedSubmissions;
+    final long stealCount;
+
+    private PoolMetrics(String name, ForkJoinPool pool) {
+        this.name = name;
+        this.parallelism = pool.getParallelism();
+        this.poolSize = pool.getPoolSize();
+        this.activeThreads = pool.getActiveThreadCount();
+        this.runningThreads = pool.getRunningThreadCount();
+        this.queuedTasks = pool.getQueuedTaskCount();
+        this.queuedSubmissions = pool.getQueuedSubmissionCount();
+        this.stealCount = pool.getStealCount();
+    }
+
+    public static PoolMetrics of(String name, ForkJoinPool pool) {
+        return new PoolMetrics(name, pool);
+    }
+
+    public static PoolMetrics commonPool() {
+        return of("common", ForkJoinPool.commonPool());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getActiveThreads() {
+        return activeThreads;
+    }
+
+    public int getRunningThreads() {
+        return runningThreads;
+    }
+
+    public long getQueueDepth() {
+        return queuedTasks + queuedSubmissions;
+    }
+
+    public long getStealCount() {
+        return stealCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: parallelism=%d, poolSize=%d, active=%d, running=%d, queueDepth=%d, steals=%d",
+                             name, parallelism, poolSize, activeThreads, runningThreads, getQueueDepth(),
+                             stealCount);
+    }
+}
@@ -0,0 +1,36 @@
+package no.njm.example;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs parallel stream pipelines inside a given ForkJoinPool instead of the common pool.
+ * A parallel stream started from a task in a ForkJoinPool forks its subtasks into that same pool,
+ * so submitting the whole pipeline as one task confines it to the pool.
+ */
+public class PooledStreams {
+
+    private final ForkJoinPool pool;
+
+    PooledStreams(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public <T extends Comparable<? super T>> List<T> sorted(Collection<T> source) {
+        return execute(source, stream -> stream.sorted()
+                                               .collect(Collectors.toList()));
+    }
+
+    /**
+     * Applies the pipeline to a parallel stream of the source and waits for the result.
+     * Exceptions thrown by the pipeline are rethrown unchecked.
+     */
+    public <T, R> R execute(Collection<T> source, Function<Stream<T>, R> pipeline) {
+        return pool.submit(() -> pipeline.apply(source.parallelStream()))
+                   .join();
+    }
+}
@@ -0,0 +1,252 @@
+package no.njm.example;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * LSD radix sort of 64-bit keys and of 128-bit keys held as two parallel long arrays.
+ * <p>
+ * Each pass distributes the elements by one byte of the key into a scratch array, starting with the least
+ * significant byte. Passes where every element has the same byte value are skipped. Apart from the scratch
+ * arrays and the byte counts nothing is allocated, regardless of the number of elements.
+ * <p>
+ * Single long keys are sorted in signed order, like Arrays.sort. Pairs are sorted as unsigned 128-bit values with
+ * the first array as the most significant half. For UUIDs that is the same order as sorting UUID.toString(),
+ * but not the signed order of UUID.compareTo.
+ */
+public final class RadixSort {
+
+    private static final int RADIX = 256;
+    private static final int BYTES = 8;
+
+    // Below this size the parallel sort falls back to the sequential one
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private RadixSort() {
+    }
+
+    public static void sort(long[] keys) {
+        sort(keys, null, true);
+    }
+
+    public static void sort(long[] high, long[] low) {
+        checkLength(high, low);
+        sort(high, low, false);
+    }
+
+    public static void parallelSort(long[] keys) {
+        parallelSort(keys, null, true, ForkJoinPool.commonPool());
+    }
+
+    public static void parallelSort(long[] high, long[] low) {
+        parallelSort(high, low, ForkJoinPool.commonPool());
+    }
+
+    public static void parallelSort(long[] high, long[] low, ForkJoinPool pool) {
+        checkLength(high, low);
+        parallelSort(high, low, false, pool);
+    }
+
+    private static void checkLength(long[] high, long[] low) {
+        if (high.length != low.length) {
+            throw new IllegalArgumentException("Arrays differ in length: " + high.length + " and " + low.length);
+        }
+    }
+
+    /**
+     * @param high   The keys, or the most significant halves of the keys when low is given
+     * @param low    The least significant halves of the keys, or null
+     * @param signed Whether the top byte of high is compared as signed
+     */
+    private static void sort(long[] high, long[] low, boolean signed) {
+        int n = high.length;
+        Buffers buffers = new Buffers(high, low);
+        int[] count = new int[RADIX];
+
+        int words = low == null ? 1 : 2;
+        for (int word = words - 1; word >= 0; word--) {
+            for (int b = 0; b < BYTES; b++) {
+                int shift = b * BYTES;
+                int flip = signed && word == 0 && b == BYTES - 1 ? 0x80 : 0;
+                long[] digits = buffers.source(word);
+
+                Arrays.fill(count, 0);
+                for (int i = 0; i < n; i++) {
+                    count[digit(digits[i], shift, flip)]++;
+                }
+                if (isSingleBucket(count, n)) {
+                    continue;
+                }
+                int offset = 0;
+                for (int d = 0; d < RADIX; d++) {
+                    int c = count[d];
+                    count[d] = offset;
+                    offset += c;
+                }
+                for (int i = 0; i < n; i++) {
+                    int to = count[digit(digits[i], shift, flip)]++;
+                    buffers.move(i, to);
+                }
+                buffers.swap();
+            }
+        }
+        buffers.copyBack();
+    }
+
+    private static void parallelSort(long[] high, long[] low, boolean signed, ForkJoinPool pool) {
+        int n = high.length;
+        int parallelism = pool.getParallelism();
+        if (n < PARALLEL_THRESHOLD || parallelism < 2) {
+            sort(high, low, signed);
+            return;
+        }
+
+        Buffers buffers = new Buffers(high, low);
+        int blocks = parallelism * 4;
+        int blockSize = (n + blocks - 1) / blocks;
+        int[][] counts = new int[blocks][RADIX];
+
+        int words = low == null ? 1 : 2;
+        for (int word = words - 1; word >= 0; word--) {
+            for (int b = 0; b < BYTES; b++) {
+                int shift = b * BYTES;
+                int flip = signed && word == 0 && b == BYTES - 1 ? 0x80 : 0;
+                long[] digits = buffers.source(word);
+
+                pool.invoke(new BlockAction(0, blocks, block -> {
+                    int[] count = counts[block];
+                    Arrays.fill(count, 0);
+                    int end = Math.min(n, (block + 1) * blockSize);
+                    for (int i = block * blockSize; i < end; i++) {
+                        count[digit(digits[i], shift, flip)]++;
+                    }
+                }));
+
+                // Turn the per block counts into per block start offsets, bucket by bucket
+                int offset = 0;
+                boolean single = false;
+                for (int d = 0; d < RADIX; d++) {
+                    int bucketStart = offset;
+                    for (int block = 0; block < blocks; block++) {
+                        int c = counts[block][d];
+                        counts[block][d] = offset;
+                        offset += c;
+                    }
+                    if (offset - bucketStart == n) {
+                        single = true;
+                    }
+                }
+                if (single) {
+                    continue;
+                }
+
+                pool.invoke(new BlockAction(0, blocks, block -> {
+                    int[] next = counts[block];
+                    int end = Math.min(n, (block + 1) * blockSize);
+                    for (int i = block * blockSize; i < end; i++) {
+                        int to = next[digit(digits[i], shift, flip)]++;
+                        buffers.move(i, to);
+                    }
+                }));
+                buffers.swap();
+            }
+        }
+        buffers.copyBack();
+    }
+
+    private static int digit(long key, int shift, int flip) {
+        return ((int) (key >>> shift) & 0xFF) ^ flip;
+    }
+
+    private static boolean isSingleBucket(int[] count, int n) {
+        for (int c : count) {
+            if (c == n) {
+                return true;
+            }
+            if (c != 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Source and destination arrays of a pass. Word 0 is the high array, word 1 the low array.
+     */
+    private static class Buffers {
+
+        private final long[] high;
+        private final long[] low;
+        private long[] sourceHigh;
+        private long[] sourceLow;
+        private long[] targetHigh;
+        private long[] targetLow;
+
+        Buffers(long[] high, long[] low) {
+            this.high = high;
+            this.low = low;
+            sourceHigh = high;
+            sourceLow = low;
+            targetHigh = new long[high.length];
+            targetLow = low == null ? null : new long[low.length];
+        }
+
+        long[] source(int word) {
+            return word == 0 ? sourceHigh : sourceLow;
+        }
+
+        void move(int from, int to) {
+            targetHigh[to] = sourceHigh[from];
+            if (sourceLow != null) {
+                targetLow[to] = sourceLow[from];
+            }
+        }
+
+        void swap() {
+            long[] h = sourceHigh;
+            sourceHigh = targetHigh;
+            targetHigh = h;
+            long[] l = sourceLow;
+            sourceLow = targetLow;
+            targetLow = l;
+        }
+
+        void copyBack() {
+            if (sourceHigh != high) {
+                System.arraycopy(sourceHigh, 0, high, 0, high.length);
+                if (low != null) {
+                    System.arraycopy(sourceLow, 0, low, 0, low.length);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs an operation for each block index in a range, splitting the range in halves as fork/join tasks.
+     */
+    @SuppressWarnings("serial")
+    private static class BlockAction extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final IntConsumer operation;
+
+        BlockAction(int from, int to, IntConsumer operation) {
+            this.from = from;
+            this.to = to;
+            this.operation = operation;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                operation.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BlockAction(from, middle, operation), new BlockAction(middle, to, operation));
+        }
+    }
+}
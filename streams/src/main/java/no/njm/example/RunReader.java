@@ -0,0 +1,102 @@
+package no.njm.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads back a run written by {@link RunWriter}, one string at a time. The reader always holds the
+ * next string of the run as its head, which is what the merge heap orders readers by.
+ */
+class RunReader implements Closeable, Comparable<RunReader> {
+
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(RunWriter.BUFFER_SIZE);
+    private boolean endOfFile;
+    private String head;
+
+    RunReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer.flip();
+        advance();
+    }
+
+    String head() {
+        return head;
+    }
+
+    /**
+     * Returns the current head and moves on to the next string, or null when the run is exhausted.
+     */
+    String next() {
+        String current = head;
+        try {
+            advance();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return current;
+    }
+
+    private void advance() throws IOException {
+        if (!fill(1)) {
+            head = null;
+            return;
+        }
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (!fill(1)) {
+                throw new IOException("Truncated record length in run");
+            }
+            b = buffer.get();
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        if (!fill(length)) {
+            throw new IOException("Truncated record in run");
+        }
+        head = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * Makes sure at least the given number of bytes are buffered, reading from the channel as needed.
+     */
+    private boolean fill(int required) throws IOException {
+        if (buffer.remaining() >= required) {
+            return true;
+        }
+        if (buffer.capacity() < required) {
+            ByteBuffer larger = ByteBuffer.allocate(required);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < required && !endOfFile) {
+            if (channel.read(buffer) < 0) {
+                endOfFile = true;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= required;
+    }
+
+    @Override
+    public int compareTo(RunReader other) {
+        return head.compareTo(other.head);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
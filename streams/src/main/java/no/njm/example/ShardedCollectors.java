@@ -0,0 +1,135 @@
+package no.njm.example;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Concurrent collectors that accumulate into per thread shards and merge the shards once, when finishing.
+ * <p>
+ * The collectors in Collectors create one container per fork/join leaf and merge them pairwise in the combiner,
+ * which is costly for high cardinality groups. Collectors.groupingByConcurrent avoids the merge but makes every
+ * thread update one shared map. These collectors are CONCURRENT and UNORDERED, so a parallel stream hands all
+ * threads the same container, where each thread only touches its own shard. The encounter order is not kept,
+ * so the order of group members and of joined strings is unspecified in parallel.
+ */
+public final class ShardedCollectors {
+
+    private ShardedCollectors() {
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, List<T>>> groupingBy(Function<? super T, ? extends K> classifier) {
+        return groupingBy(classifier, Collectors.toList());
+    }
+
+    public static <T, K, A, D> Collector<T, ?, Map<K, D>> groupingBy(Function<? super T, ? extends K> classifier,
+                                                                  Collector<? super T, A, D> downstream) {
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+
+        return sharded(
+                HashMap<K, A>::new,
+                (map, element) -> {
+                    A container = map.computeIfAbsent(classifier.apply(element), key -> downstreamSupplier.get());
+                    downstreamAccumulator.accept(container, element);
+                },
+                shards -> {
+                    // Start from the largest shard, so the fewest entries are moved
+                    HashMap<K, A> largest = shards.get(0);
+                    for (HashMap<K, A> shard : shards) {
+                        if (shard.size() > largest.size()) {
+                            largest = shard;
+                        }
+                    }
+                    HashMap<K, A> merged = largest;
+                    for (HashMap<K, A> shard : shards) {
+                        if (shard != merged) {
+                            shard.forEach((key, container) -> merged.merge(key, container, downstreamCombiner));
+                        }
+                    }
+                    Map<K, D> result = new HashMap<>(merged.size() * 2);
+                    merged.forEach((key, container) -> result.put(key, downstreamFinisher.apply(container)));
+                    return result;
+                },
+                HashMap::new);
+    }
+
+    public static <T> Collector<T, ?, Long> counting() {
+        return sharded(
+                () -> new long[1],
+                (count, element) -> count[0]++,
+                shards -> {
+                    long sum = 0;
+                    for (long[] count : shards) {
+                        sum += count[0];
+                    }
+                    return sum;
+                },
+                () -> 0L);
+    }
+
+    public static Collector<CharSequence, ?, String> joining(CharSequence delimiter) {
+        return joining(delimiter, "", "");
+    }
+
+    public static Collector<CharSequence, ?, String> joining(CharSequence delimiter, CharSequence prefix,
+                                                            CharSequence suffix) {
+        return sharded(
+                StringRope::new,
+                (rope, element) -> rope.add(element, delimiter),
+                shards -> {
+                    int length = prefix.length() + suffix.length();
+                    for (StringRope rope : shards) {
+                        length += rope.length() + delimiter.length();
+                    }
+                    StringBuilder builder = new StringBuilder(length).append(prefix);
+                    boolean first = true;
+                    for (StringRope rope : shards) {
+                        if (rope.isEmpty()) {
+                            continue;
+                        }
+                        if (!first) {
+                            builder.append(delimiter);
+                        }
+                        rope.appendTo(builder);
+                        first = false;
+                    }
+                    return builder.append(suffix).toString();
+                },
+                () -> prefix.toString() + suffix);
+    }
+
+    /**
+     * Builds a concurrent collector over shards of the given type. The finisher is given the non-empty list of
+     * shards that were used, the empty result is returned when no element was accumulated.
+     * The combiner is only used when the collector is not run concurrently, e.g. as a downstream collector.
+     */
+    private static <T, S, R> Collector<T, ?, R> sharded(Supplier<S> shardFactory,
+                                                        BiConsumer<S, ? super T> accumulator,
+                                                        Function<List<S>, R> finisher,
+                                                        Supplier<R> empty) {
+        return Collector.of(
+                () -> new Shards<>(shardFactory),
+                (Shards<S> shards, T element) -> {
+                    S shard = shards.shard();
+                    synchronized (shard) {
+                        accumulator.accept(shard, element);
+                    }
+                },
+                Shards::absorb,
+                shards -> {
+                    List<S> all = shards.all();
+                    return all.isEmpty() ? empty.get() : finisher.apply(all);
+                },
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED);
+    }
+}
@@ -0,0 +1,67 @@
+package no.njm.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * A fixed set of accumulation containers, one per stripe, where each thread sticks to its own stripe.
+ * Threads are given consecutive stripe numbers the first time they use any Shards instance, so as long as there
+ * are at least as many stripes as threads, two threads never share a shard. Shards are still locked while in use,
+ * which is cheap when uncontended and keeps sharing correct when stripes wrap around.
+ */
+class Shards<A> {
+
+    private static final AtomicInteger nextProbe = new AtomicInteger();
+    private static final ThreadLocal<Integer> probe = ThreadLocal.withInitial(nextProbe::getAndIncrement);
+
+    private final AtomicReferenceArray<A> shards;
+    private final Supplier<A> factory;
+    private final int mask;
+    private final List<A> absorbed = new ArrayList<>();
+
+    Shards(Supplier<A> factory) {
+        int wanted = Math.max(1, Runtime.getRuntime().availableProcessors() * 2);
+        int count = Integer.highestOneBit(wanted - 1) << 1;
+        this.shards = new AtomicReferenceArray<>(Math.max(1, count));
+        this.factory = factory;
+        this.mask = shards.length() - 1;
+    }
+
+    /**
+     * The shard of the current thread, created on first use. Callers must synchronize on it while using it.
+     */
+    A shard() {
+        int index = probe.get() & mask;
+        A shard = shards.get(index);
+        if (shard == null) {
+            A created = factory.get();
+            shard = shards.compareAndSet(index, null, created) ? created : shards.get(index);
+        }
+        return shard;
+    }
+
+    /**
+     * Takes over the shards of another instance, for when the collector is combined instead of run concurrently.
+     */
+    Shards<A> absorb(Shards<A> other) {
+        absorbed.addAll(other.all());
+        return this;
+    }
+
+    /**
+     * The shards created so far. Only called once accumulation has finished.
+     */
+    List<A> all() {
+        List<A> all = new ArrayList<>(absorbed);
+        for (int i = 0; i < shards.length(); i++) {
+            A shard = shards.get(i);
+            if (shard != null) {
+                all.add(shard);
+            }
+        }
+        return all;
+    }
+}
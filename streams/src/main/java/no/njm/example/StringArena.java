@@ -0,0 +1,283 @@
+package no.njm.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores strings as UTF-8 outside the Java heap, in direct or memory-mapped ByteBuffer chunks, and hands out
+ * a long handle per string. The handle holds the position of the string in the arena and its length in bytes.
+ * <p>
+ * Strings are only decoded when asked for, e.g. when logging. The {@link #begin()} builder composes a new string
+ * from handles, text and numbers directly in the arena, so concatenations like name + "Bar" + i create no String.
+ * Strings can not be removed, the memory is released when the arena is closed and garbage collected.
+ * Not thread-safe.
+ */
+public class StringArena implements Closeable {
+
+    static final int CHUNK_SIZE = 1 << 20;
+
+    // One bit more than a chunk offset needs, so a string can fill a whole chunk. The position gets the other 43 bits.
+    private static final int LENGTH_BITS = 21;
+    private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final FileChannel channel;
+    private final Builder builder = new Builder();
+    private ByteBuffer current;
+    private int currentIndex = -1;
+
+    private StringArena(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * An arena backed by direct ByteBuffers.
+     */
+    public static StringArena direct() {
+        return new StringArena(null);
+    }
+
+    /**
+     * An arena backed by a memory-mapped file, which grows by one chunk at a time.
+     */
+    public static StringArena mapped(Path file) throws IOException {
+        return new StringArena(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    public long add(CharSequence value) {
+        return begin().append(value).end();
+    }
+
+    /**
+     * Starts composing a new string. Only one string can be composed at a time.
+     */
+    public Builder begin() {
+        // A full chunk has no position for even an empty string, as the handle would point past its end
+        if (current == null || !current.hasRemaining()) {
+            current = newChunk();
+        }
+        builder.start = current.position();
+        return builder;
+    }
+
+    public int byteLength(long handle) {
+        return (int) (handle & LENGTH_MASK);
+    }
+
+    public String get(long handle) {
+        byte[] bytes = new byte[byteLength(handle)];
+        ByteBuffer chunk = chunk(handle).duplicate();
+        int offset = offset(handle);
+        chunk.limit(offset + bytes.length).position(offset);
+        chunk.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the string into the builder without creating a String.
+     */
+    public StringBuilder appendTo(long handle, StringBuilder target) {
+        ByteBuffer chunk = chunk(handle);
+        int index = offset(handle);
+        int end = index + byteLength(handle);
+        while (index < end) {
+            int b = chunk.get(index++) & 0xFF;
+            int codePoint;
+            if (b < 0x80) {
+                codePoint = b;
+            } else if (b < 0xE0) {
+                codePoint = (b & 0x1F) << 6 | (chunk.get(index++) & 0x3F);
+            } else if (b < 0xF0) {
+                codePoint = (b & 0x0F) << 12 | (chunk.get(index++) & 0x3F) << 6 | (chunk.get(index++) & 0x3F);
+            } else {
+                codePoint = (b & 0x07) << 18 | (chunk.get(index++) & 0x3F) << 12
+                            | (chunk.get(index++) & 0x3F) << 6 | (chunk.get(index++) & 0x3F);
+            }
+            target.appendCodePoint(codePoint);
+        }
+        return target;
+    }
+
+    /**
+     * Forgets all strings and reuses the chunks for new ones. Handles given out before are no longer valid.
+     */
+    public void reset() {
+        for (ByteBuffer chunk : chunks) {
+            chunk.clear();
+        }
+        currentIndex = -1;
+        current = null;
+    }
+
+    /**
+     * Bytes allocated for the arena, whether in use or not.
+     */
+    public long footprint() {
+        return (long) chunks.size() * CHUNK_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        chunks.clear();
+        currentIndex = -1;
+        current = null;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private ByteBuffer chunk(long handle) {
+        return chunks.get((int) (position(handle) / CHUNK_SIZE));
+    }
+
+    private static long position(long handle) {
+        return handle >>> LENGTH_BITS;
+    }
+
+    private static int offset(long handle) {
+        return (int) (position(handle) % CHUNK_SIZE);
+    }
+
+    private ByteBuffer newChunk() {
+        currentIndex++;
+        if (currentIndex < chunks.size()) {
+            return chunks.get(currentIndex);
+        }
+        ByteBuffer chunk;
+        if (channel == null) {
+            chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        } else {
+            try {
+                chunk = channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * CHUNK_SIZE, CHUNK_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        chunks.add(chunk);
+        return chunk;
+    }
+
+    /**
+     * Writes the UTF-8 bytes of one string directly into the current chunk. If the string outgrows the chunk,
+     * the bytes written so far are moved to a new chunk, so every string is contiguous.
+     */
+    public class Builder {
+
+        private int start;
+
+        private Builder() {
+        }
+
+        public Builder append(CharSequence value) {
+            int length = value.length();
+            // Reserve for the worst case of three bytes per char once, instead of checking every char
+            ByteBuffer target = current.position() - start + length * 3 <= CHUNK_SIZE ? put(length * 3) : null;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    reserve(target, 1).put((byte) c);
+                } else if (c < 0x800) {
+                    reserve(target, 2).put((byte) (0xC0 | c >> 6))
+                                      .put((byte) (0x80 | c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                           && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    reserve(target, 4).put((byte) (0xF0 | codePoint >> 18))
+                                      .put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                                      .put((byte) (0x80 | codePoint >> 6 & 0x3F))
+                                      .put((byte) (0x80 | codePoint & 0x3F));
+                } else {
+                    // Lone surrogates are replaced, as String.getBytes does
+                    char encoded = Character.isSurrogate(c) ? '?' : c;
+                    if (encoded < 0x80) {
+                        reserve(target, 1).put((byte) encoded);
+                    } else {
+                        reserve(target, 3).put((byte) (0xE0 | encoded >> 12))
+                                          .put((byte) (0x80 | encoded >> 6 & 0x3F))
+                                          .put((byte) (0x80 | encoded & 0x3F));
+                    }
+                }
+            }
+            return this;
+        }
+
+        private ByteBuffer reserve(ByteBuffer reserved, int bytes) {
+            return reserved != null ? reserved : put(bytes);
+        }
+
+        /**
+         * Appends a string already in the arena, copying its bytes without decoding them.
+         */
+        public Builder appendHandle(long handle) {
+            int length = byteLength(handle);
+            int offset = offset(handle);
+            ByteBuffer source = chunk(handle).duplicate();
+            ByteBuffer target = put(length);
+            // The source chunk keeps its bytes when put moves on to a new chunk
+            source.limit(offset + length).position(offset);
+            target.put(source);
+            return this;
+        }
+
+        public Builder append(int value) {
+            if (value == Integer.MIN_VALUE) {
+                return append("-2147483648");
+            }
+            if (value < 0) {
+                put(1).put((byte) '-');
+                value = -value;
+            }
+            int digits = 1;
+            for (int rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            ByteBuffer target = put(digits);
+            int end = target.position() + digits;
+            for (int i = end - 1; i >= end - digits; i--) {
+                target.put(i, (byte) ('0' + value % 10));
+                value /= 10;
+            }
+            target.position(end);
+            return this;
+        }
+
+        public long end() {
+            long length = current.position() - start;
+            if (length > LENGTH_MASK) {
+                throw new IllegalStateException("String of " + length + " bytes is too long for the arena");
+            }
+            long position = (long) currentIndex * CHUNK_SIZE + start;
+            return position << LENGTH_BITS | length;
+        }
+
+        /**
+         * Returns the current chunk with room for the given number of bytes.
+         */
+        private ByteBuffer put(int bytes) {
+            if (current.remaining() >= bytes) {
+                return current;
+            }
+            int written = current.position() - start;
+            if (written + bytes > CHUNK_SIZE) {
+                throw new IllegalStateException("String is too long for the arena");
+            }
+            ByteBuffer previous = current;
+            current = newChunk();
+            for (int i = 0; i < written; i++) {
+                current.put(previous.get(start + i));
+            }
+            previous.position(start);
+            start = 0;
+            return current;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package no.njm.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends delimited strings into a list of bounded StringBuilder chunks, so a long result never needs its
+ * backing array copied while growing. The chunks are copied once, into a builder of the exact final size.
+ */
+class StringRope {
+
+    static final int CHUNK_SIZE = 8 * 1024;
+
+    private final List<StringBuilder> chunks = new ArrayList<>();
+    private StringBuilder current;
+    private int length;
+    private int elements;
+
+    void add(CharSequence value, CharSequence delimiter) {
+        if (elements > 0) {
+            append(delimiter);
+        }
+        append(value);
+        elements++;
+    }
+
+    private void append(CharSequence value) {
+        if (current == null || current.length() + value.length() > CHUNK_SIZE) {
+            current = new StringBuilder(Math.max(CHUNK_SIZE, value.length()));
+            chunks.add(current);
+        }
+        current.append(value);
+        length += value.length();
+    }
+
+    int length() {
+        return length;
+    }
+
+    boolean isEmpty() {
+        return elements == 0;
+    }
+
+    void appendTo(StringBuilder target) {
+        for (StringBuilder chunk : chunks) {
+            target.append(chunk);
+        }
+    }
+}
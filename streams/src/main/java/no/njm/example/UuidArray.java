@@ -0,0 +1,84 @@
+package no.njm.example;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * UUIDs kept as two long arrays of most and least significant bits instead of UUID or String objects.
+ * Sorting is done with {@link RadixSort} in the same order as sorting the UUID strings,
+ * and strings are only created when asked for.
+ */
+public class UuidArray {
+
+    final long[] msb;
+    final long[] lsb;
+
+    public UuidArray(long[] msb, long[] lsb) {
+        if (msb.length != lsb.length) {
+            throw new IllegalArgumentException("Arrays differ in length: " + msb.length + " and " + lsb.length);
+        }
+        this.msb = msb;
+        this.lsb = lsb;
+    }
+
+    public static UuidArray of(Collection<UUID> uuids) {
+        long[] msb = new long[uuids.size()];
+        long[] lsb = new long[uuids.size()];
+        int i = 0;
+        for (UUID uuid : uuids) {
+            msb[i] = uuid.getMostSignificantBits();
+            lsb[i] = uuid.getLeastSignificantBits();
+            i++;
+        }
+        return new UuidArray(msb, lsb);
+    }
+
+    public static UuidArray random(int size, Random random) {
+        long[] msb = new long[size];
+        long[] lsb = new long[size];
+        for (int i = 0; i < size; i++) {
+            msb[i] = random.nextLong();
+            lsb[i] = random.nextLong();
+        }
+        return new UuidArray(msb, lsb);
+    }
+
+    public int size() {
+        return msb.length;
+    }
+
+    public long getMostSignificantBits(int index) {
+        return msb[index];
+    }
+
+    public long getLeastSignificantBits(int index) {
+        return lsb[index];
+    }
+
+    public UUID get(int index) {
+        return new UUID(msb[index], lsb[index]);
+    }
+
+    public String getString(int index) {
+        return get(index).toString();
+    }
+
+    public void sort() {
+        RadixSort.sort(msb, lsb);
+    }
+
+    public void parallelSort() {
+        RadixSort.parallelSort(msb, lsb);
+    }
+
+    /**
+     * Lazily creates the strings as the stream is consumed.
+     */
+    public Stream<String> strings() {
+        return IntStream.range(0, size())
+                        .mapToObj(this::getString);
+    }
+}
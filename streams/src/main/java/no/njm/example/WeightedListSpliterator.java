@@ -0,0 +1,89 @@
+package no.njm.example;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Spliterator over a random access list that splits by weight instead of by element count.
+ * <p>
+ * Each element weighs one plus its estimated fan-out, and splits are placed at the middle of the remaining weight.
+ * With skewed fan-out, a few heavy parents end up in small splits of their own instead of all landing in the
+ * same half. The estimated size is the remaining weight, so the stream framework sizes its leaf tasks by the
+ * number of children rather than parents. The children of a single parent are never split.
+ */
+class WeightedListSpliterator<T> implements Spliterator<T> {
+
+    private final List<T> list;
+    private final long[] prefix;
+    private int index;
+    private final int fence;
+
+    WeightedListSpliterator(List<T> list, ToLongFunction<? super T> fanOut) {
+        this.list = list;
+        this.prefix = new long[list.size() + 1];
+        for (int i = 0; i < list.size(); i++) {
+            prefix[i + 1] = prefix[i] + 1 + Math.max(0, fanOut.applyAsLong(list.get(i)));
+        }
+        this.index = 0;
+        this.fence = list.size();
+    }
+
+    private WeightedListSpliterator(List<T> list, long[] prefix, int index, int fence) {
+        this.list = list;
+        this.prefix = prefix;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (index >= fence) {
+            return false;
+        }
+        action.accept(list.get(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        for (int i = index; i < fence; i++) {
+            action.accept(list.get(i));
+        }
+        index = fence;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (fence - index < 2) {
+            return null;
+        }
+        long half = prefix[index] + (prefix[fence] - prefix[index]) / 2;
+
+        // First split point where the prefix reaches half the remaining weight
+        int low = index + 1;
+        int high = fence - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (prefix[middle] < half) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        Spliterator<T> split = new WeightedListSpliterator<>(list, prefix, index, low);
+        index = low;
+        return split;
+    }
+
+    @Override
+    public long estimateSize() {
+        return prefix[fence] - prefix[index];
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED;
+    }
+}
@@ -0,0 +1,70 @@
+package no.njm.example;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class StringArenaTest {
+
+    @Test
+    public void readsBackWhatWasAdded() throws IOException {
+        try (StringArena arena = StringArena.direct()) {
+            String text = "Gr\u00fc\u00dfe, \u4e16\u754c \ud83d\ude00";
+            long handle = arena.add(text);
+            assertEquals(text, arena.get(handle));
+            assertEquals(text, arena.appendTo(handle, new StringBuilder()).toString());
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, arena.byteLength(handle));
+            long composed = arena.begin().appendHandle(handle).append(" #").append(-42).end();
+            assertEquals(text + " #-42", arena.get(composed));
+        }
+    }
+
+    @Test
+    public void addsAStringFillingAWholeChunk() throws IOException {
+        try (StringArena arena = StringArena.direct()) {
+            arena.add("x");
+            String full = chunkOf('a');
+            long handle = arena.add(full);
+            assertEquals(full, arena.get(handle));
+            assertEquals(StringArena.CHUNK_SIZE, arena.byteLength(handle));
+        }
+    }
+
+    /**
+     * An empty string at the end of a full chunk must not point into the chunk after it, which does not exist yet.
+     */
+    @Test
+    public void addsEmptyStringsAfterAFullChunk() throws IOException {
+        try (StringArena arena = StringArena.direct()) {
+            arena.add(chunkOf('a'));
+            long empty = arena.add("");
+            assertEquals("", arena.get(empty));
+            assertEquals("", arena.appendTo(empty, new StringBuilder()).toString());
+            assertEquals("", arena.get(arena.begin().end()));
+            long next = arena.add("next");
+            assertEquals("next", arena.get(next));
+            assertEquals("", arena.get(empty));
+        }
+    }
+
+    @Test
+    public void movesAStringOutgrowingItsChunk() throws IOException {
+        try (StringArena arena = StringArena.direct()) {
+            long first = arena.add(chunkOf('a').substring(10));
+            long moved = arena.begin().append("0123456789").append("overflow").end();
+            assertEquals("0123456789overflow", arena.get(moved));
+            assertEquals(StringArena.CHUNK_SIZE - 10, arena.byteLength(first));
+            assertEquals(2L * StringArena.CHUNK_SIZE, arena.footprint());
+        }
+    }
+
+    private static String chunkOf(char c) {
+        char[] chars = new char[StringArena.CHUNK_SIZE];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}